@@ -4,9 +4,12 @@ import exceptions.ItemNotFound;
 
 
 public class Edge<E extends Comparable<E>> implements Comparable<Edge<E>> {
+    private final Vertex<E> origin;       // vértice origen (null si la arista se creó solo con destino)
     private final Vertex<E> destination;  // vértice destino de la arista
-    private final double weight;           // peso de la arista (distancia, costo, etc.)
+    private double weight;                 // peso de la arista (distancia, costo, tiempo con congestión...)
     private EdgeLabel label;               // estado para recorridos (UNEXPLORED, DISCOVERY, BACK)
+    int originSlot = -1;                   // posición en las aristas del origen (handle para borrar en O(1))
+    int destSlot = -1;                     // posición en las aristas del destino si la arista es no dirigida
 
 
     public enum EdgeLabel {
@@ -22,12 +25,22 @@ public class Edge<E extends Comparable<E>> implements Comparable<Edge<E>> {
      * @throws ItemNotFound si destination es null
      */
     public Edge(Vertex<E> destination, double weight) throws ItemNotFound {
+        this(null, destination, weight);
+    }
+
+    /**
+     * Construye una arista entre dos vértices. En un grafo no dirigido la misma
+     * arista se comparte entre las listas de ambos extremos.
+     * @throws ItemNotFound si destination es null o el peso es negativo
+     */
+    Edge(Vertex<E> origin, Vertex<E> destination, double weight) throws ItemNotFound {
         if (destination == null) {
             throw new ItemNotFound("Destino de arista no puede ser null");
         }
         if (weight < 0) {
             throw new ItemNotFound("Peso de arista inválido: " + weight);
         }
+        this.origin = origin;
         this.destination = destination;
         this.weight = weight;
         this.label = EdgeLabel.UNEXPLORED;
@@ -45,10 +58,33 @@ public class Edge<E extends Comparable<E>> implements Comparable<Edge<E>> {
         return destination;
     }
 
+    public Vertex<E> getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Extremo opuesto visto desde from: en una arista compartida (no dirigida)
+     * el destino de uno es el origen del otro.
+     */
+    public Vertex<E> other(Vertex<E> from) {
+        return (from == destination && origin != null) ? origin : destination;
+    }
+
     public double getWeight() {
         return weight;
     }
 
+    /**
+     * Cambia el peso; lo usa GraphLink, que además avisa a las tablas de rutas.
+     * @throws ItemNotFound si el peso es negativo
+     */
+    void setWeight(double weight) throws ItemNotFound {
+        if (weight < 0 || Double.isNaN(weight)) {
+            throw new ItemNotFound("Peso de arista inválido: " + weight);
+        }
+        this.weight = weight;
+    }
+
     public EdgeLabel getLabel() {
         return label;
     }
@@ -85,4 +121,9 @@ public class Edge<E extends Comparable<E>> implements Comparable<Edge<E>> {
     public String toString() {
         return destination.getData() + "(" + weight + ") [" + label + "]";
     }
+
+    /** Igual que toString pero nombrando el extremo opuesto a from. */
+    String toString(Vertex<E> from) {
+        return other(from).getData() + "(" + weight + ") [" + label + "]";
+    }
 }
\ No newline at end of file
@@ -2,52 +2,223 @@ package graph;
 import exceptions.ItemNotFound;
 import exceptions.IsEmpty;
 import exceptions.ItemDuplicated;
+import java.util.Arrays;
+import list.HashTable;
 import list.LinkedList;
 import graph.Vertex;
 import graph.Edge;
-public class GraphLink<E extends Comparable<E>> {//grafo no dirigido(ida y vuelta) y ponderado(peso) 
+public class GraphLink<E extends Comparable<E>> {//grafo dirigido o no dirigido(ida y vuelta) y ponderado(peso) 
     private final LinkedList<Vertex<E>> vertices;//usando listas enlazadas
-    public GraphLink() {
+    private final boolean directed;//false: cada arista se guarda una vez y la comparten sus dos extremos
+    private final HashTable<EdgeKey, Edge<E>> edgeTable = new HashTable<>();//tabla de aristas por par de vértices
+    private int nextId;//ids fijos de vértices para las claves de la tabla de aristas
+    private final LinkedList<RouteTable<E>> routeTables = new LinkedList<>();//tablas precalculadas a invalidar
+    private final HashTable<E, Vertex<E>> byData = new HashTable<>();//búsqueda de vértices por dato en O(1)
+    private final UnionFind zones = new UnionFind();//zonas conexas sin importar el sentido de las aristas
+    private int links;//pares de vértices unidos por al menos una arista (en cualquier sentido)
+    private boolean zonesDirty;//una eliminación pudo partir una zona: se reconstruye en la próxima consulta
+    public GraphLink() {//dirigido, como siempre se usó: addEdge agrega solo src->dest
+        this(true);
+    }
+
+    /**
+     * @param directed false para un grafo no dirigido: addEdge(a, b) sirve en ambos
+     * sentidos con una sola arista referenciada desde a y desde b
+     */
+    public GraphLink(boolean directed) {
+        this.directed = directed;
         vertices = new LinkedList<>();//inicia con una lista vacia
     }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    /** @return true si data es vértice del grafo, O(1) */
+    public boolean containsVertex(E data) {
+        return byData.containsKey(data);
+    }
+
+    /** @return cantidad de aristas (una por par en el modo no dirigido) */
+    public int edgeCount() {
+        return edgeTable.size();
+    }
     public void addVertex(E data) throws ItemDuplicated {//añade un vértice con el dato
         Vertex<E> v = new Vertex<>(data);
-        if (vertices.indexOf(v) >= 0) {// si se ingresa un mismo vertice 
+        if (byData.containsKey(data)) {// si se ingresa un mismo vertice 
             throw new ItemDuplicated("Vértice ya existe: " + data);
         }
+        v.index = vertices.size();//posición estable mientras no se eliminen vértices
+        v.id = nextId++;
         vertices.add(v);// sino lo añade
+        byData.put(data, v);
+        zones.add();//zona nueva de un solo vértice
+        notifyVerticesChanged();
     }
     public void removeVertex(E data) throws IsEmpty, ItemNotFound {//elimina el vertice
         if (vertices.isEmpty()) throw new IsEmpty("El grafo está vacío");
         Vertex<E> v = findVertex(data);
-        for (int i = 0; i < vertices.size(); i++) {// recorre todo los vertices
-            vertices.get(i).removeEdgeTo(v);// elimina sus aristas que apunten al vertice
+        if (directed) {//las aristas entrantes solo están en la lista de su origen
+            Object[] all = vertices.toArray();
+            for (Object o : all) {// recorre todo los vertices
+                Vertex<E> u = vertex(o);
+                for (int i = u.degree() - 1; i >= 0; i--) {//hacia atrás: el borrado mueve la última a la posición i
+                    if (u.edgeAt(i).getDestination() == v) unlink(u.edgeAt(i));// elimina sus aristas que apunten al vertice
+                }
+            }
         }
+        while (v.degree() > 0) unlink(v.edgeAt(v.degree() - 1));//salientes (o todas si es no dirigido)
         vertices.remove(v);
+        byData.remove(data);
+        v.index = -1;
+        zonesDirty = true;
+        Object[] rest = vertices.toArray();//los vértices posteriores corren una posición
+        for (int i = 0; i < rest.length; i++) ((Vertex<?>) rest[i]).index = i;
+        notifyVerticesChanged();
     }
-    public void addEdge(E src, E dest, double weight) throws ItemNotFound, ItemDuplicated, IsEmpty {
+    /**
+     * Agrega la arista src->dest (o src-dest si el grafo es no dirigido).
+     * @return la arista creada, sirve como handle para quitarla en O(1)
+     * @throws ItemDuplicated si ya existe esa arista
+     */
+    public Edge<E> addEdge(E src, E dest, double weight) throws ItemNotFound, ItemDuplicated, IsEmpty {
         Vertex<E> vSrc = findVertex(src);// encuentra el vertice origen
         Vertex<E> vDest = findVertex(dest);// encuentra el vertice destino
-        Edge<E> edge = new Edge<>(vDest, weight);// a;ade la arista con un peso
-        vSrc.addEdge(edge);
+        EdgeKey key = key(vSrc, vDest);
+        if (edgeTable.containsKey(key)) throw new ItemDuplicated("Arista duplicada hacia: " + dest);
+        Edge<E> edge = new Edge<>(vSrc, vDest, weight);// a;ade la arista con un peso
+        boolean newPair = !directed || vSrc == vDest || !edgeTable.containsKey(key(vDest, vSrc));
+        vSrc.attach(edge);
+        if (!directed && vSrc != vDest) vDest.attach(edge);//la misma arista en las dos listas
+        edgeTable.put(key, edge);
+        if (newPair) {//par nuevo (la vuelta no existía): une las dos zonas
+            links++;
+            zones.union(vSrc.index, vDest.index);
+        }
+        for (int i = 0; i < routeTables.size(); i++) {
+            routeTables.get(i).edgeAdded(src, dest, weight);
+            if (!directed) routeTables.get(i).edgeAdded(dest, src, weight);
+        }
+        return edge;
     }
     public void removeEdge(E src, E dest) throws ItemNotFound, IsEmpty {//elimina la arista
         Vertex<E> vSrc = findVertex(src);//busca el vértice origen usando el método auxiliar
         Vertex<E> vDest = findVertex(dest);//busca el vértice destino
-        vSrc.removeEdgeTo(vDest);//lama al método removeEdgeTo del vértice origen (vSrc) 
-    } //para eliminar la arista que apunta vDest
+        Edge<E> edge;
+        try {
+            edge = edgeTable.get(key(vSrc, vDest));//en no dirigido da igual el orden
+        } catch (ItemNotFound e) {
+            throw new ItemNotFound("Arista no encontrada hacia: " + dest);
+        }
+        removeEdge(edge);
+    }
+
+    /**
+     * Quita una arista usando el handle devuelto por addEdge, en O(1).
+     * @throws ItemNotFound si la arista ya no pertenece al grafo
+     */
+    public void removeEdge(Edge<E> edge) throws ItemNotFound {
+        Vertex<E> vSrc = edge.getOrigin();
+        Vertex<E> vDest = edge.getDestination();
+        if (vSrc == null || vSrc.index < 0 || !vSrc.holds(edge)) {
+            throw new ItemNotFound("La arista no pertenece al grafo: " + edge);
+        }
+        unlink(edge);
+        if (directed && vSrc != vDest && edgeTable.containsKey(key(vDest, vSrc))) {
+            //queda la vuelta: el par sigue unido
+        } else {//el par quedó sin aristas: la zona pudo partirse
+            links--;
+            zonesDirty = true;
+        }
+        for (Object o : routeTables.toArray()) {
+            @SuppressWarnings("unchecked")
+            RouteTable<E> table = (RouteTable<E>) o;
+            table.edgeRemoved(vSrc.getData(), vDest.getData());
+            if (!directed) table.edgeRemoved(vDest.getData(), vSrc.getData());
+        }
+    }
+
+    /**
+     * Cambia el peso de una arista existente (p. ej. tiempo de recorrido con
+     * congestión). La búsqueda es O(1) por la tabla de aristas; las tablas de
+     * rutas registradas se reparan de forma incremental en la próxima consulta.
+     * @throws ItemNotFound si la arista no existe o el peso es negativo
+     */
+    public void updateWeight(E src, E dest, double weight) throws ItemNotFound, IsEmpty {
+        Vertex<E> vSrc = findVertex(src);
+        Vertex<E> vDest = findVertex(dest);
+        Edge<E> edge;
+        try {
+            edge = edgeTable.get(key(vSrc, vDest));
+        } catch (ItemNotFound e) {
+            throw new ItemNotFound("Arista no encontrada hacia: " + dest);
+        }
+        setWeight(edge, weight);
+    }
+
+    /**
+     * Aplica un lote de pesos (feed de congestión): weights[i] es el nuevo
+     * peso de src[i]->dest[i]. Las entradas con vértices o aristas
+     * inexistentes, o con peso negativo, se ignoran.
+     * @return cantidad de aristas actualizadas
+     */
+    public int updateWeights(E[] src, E[] dest, double[] weights) {
+        if (src.length != dest.length || src.length != weights.length) {
+            throw new IllegalArgumentException("Los arreglos del lote deben tener el mismo largo");
+        }
+        int updated = 0;
+        for (int i = 0; i < src.length; i++) {
+            try {
+                updateWeight(src[i], dest[i], weights[i]);
+                updated++;
+            } catch (ItemNotFound | IsEmpty ignored) {
+                // entrada del feed que no corresponde a una arista del grafo
+            }
+        }
+        return updated;
+    }
+
+    private void setWeight(Edge<E> edge, double weight) throws ItemNotFound {
+        edge.setWeight(weight);
+        E a = edge.getOrigin().getData();
+        E b = edge.getDestination().getData();
+        for (Object o : routeTables.toArray()) {
+            @SuppressWarnings("unchecked")
+            RouteTable<E> table = (RouteTable<E>) o;
+            table.weightChanged(a, b, weight);
+            if (!directed) table.weightChanged(b, a, weight);
+        }
+    }
+
+    //desengancha la arista de sus extremos y de la tabla, O(1)
+    private void unlink(Edge<E> edge) {
+        Vertex<E> vSrc = edge.getOrigin();
+        Vertex<E> vDest = edge.getDestination();
+        vSrc.detach(edge);
+        if (!directed && vSrc != vDest) vDest.detach(edge);
+        try {
+            edgeTable.remove(key(vSrc, vDest));
+        } catch (ItemNotFound e) {
+            e.printStackTrace();//no debería pasar: toda arista enlazada está en la tabla
+        }
+    }
 //encontrar el camino más corto (menor peso) entre dos vértices algoritmo Dijkstra
     public LinkedList<E> shortestPath(E origin, E destination) throws ItemNotFound, IsEmpty, ItemDuplicated { //busca el camino más corto desde origin hasta destination
         if (vertices.isEmpty()) throw new IsEmpty("El grafo está vacío");
         Vertex<E> src = findVertex(origin);//Busca los nodos origen y destino
         Vertex<E> dst = findVertex(destination);//Busca los nodos destino
-        int n = vertices.size();//cantidad de vértices
+        Vertex<E>[] all = vertexArray();//acceso por índice en O(1)
+        int n = all.length;//cantidad de vértices
         double[] dist = new double[n];//distancias mínimas desde el origen
         Vertex<E>[] prev = new Vertex[n];// predecesores para reconstruir el camino
         boolean[] visited = new boolean[n];//para saber qué vértices ya fueron visitados
 
         for (int i = 0; i < n; i++) {//Al inicio, solo el nodo origen tiene distancia 0
-            dist[i] = vertices.get(i).equals(src) ? 0.0 : Double.POSITIVE_INFINITY;//luego dist inicia con infinito
+            dist[i] = i == src.index ? 0.0 : Double.POSITIVE_INFINITY;//luego dist inicia con infinito
 //Si el vértice en la posición i es igual al vértice origen (src), entonces la distancia es 0.0. Si no, la distancia es infinita
             prev[i] = null;// nodo anterior es nulo,como inicia asi no ahy predecesor
             //de donde vienes para llegar al nodo
@@ -65,14 +236,13 @@ public class GraphLink<E extends Comparable<E>> {//grafo no dirigido(ida y vuelt
             }
             if (u < 0) break;
             visited[u] = true;//Marca el vértice u como visitado
-            Vertex<E> vU = vertices.get(u);//obj vertex al indice u
+            Vertex<E> vU = all[u];//obj vertex al indice u
             if (vU.equals(dst)) break;
 //Si el nodo actual vU es igual al nodo dest termina el bucle, porq ya se encontró el camino más corto hasta el destino
-            LinkedList<Edge<E>> adj = vU.getAdjList();// se obtiene la lista de aristas del vertice actual
-            for (int j = 0; j < adj.size(); j++) {// se recorre cada arista del nodo actual
-                Edge<E> e = adj.get(j);
-                Vertex<E> vV = e.getDestination();// se obtiene el nodo destino de la arista
-                int vIdx = vertices.indexOf(vV);
+            for (int j = 0; j < vU.degree(); j++) {// se recorre cada arista del nodo actual
+                Edge<E> e = vU.edgeAt(j);
+                Vertex<E> vV = e.other(vU);// se obtiene el nodo destino de la arista
+                int vIdx = vV.index;
                 if (vIdx < 0) continue;// si el nodo no esta en la lista lo ignora
                 double alt = dist[u] + e.getWeight();// calcula una ruta alternative tomando su distancia y peso
                 if (alt < dist[vIdx]) { //si la distancia alternativa es menor que la conocida
@@ -86,18 +256,170 @@ public class GraphLink<E extends Comparable<E>> {//grafo no dirigido(ida y vuelt
         Vertex<E> step = dst;// se empiza desde el nodo destino
         while (step != null) {// va reconstruyendo el camino
             path.add(0, step.getData());//se usa add 0 para que el camino quede en orden correcto
-            int idx = vertices.indexOf(step);
+            int idx = step.index;
             step = (idx >= 0) ? prev[idx] : null;// va a seguir retrocediendo hasta que prev quede null
         }
         return path; //se retorna los datos almacenados en la variable data
     }
 
+    //TABLAS DE RUTAS: se registran solas y se invalidan con cada cambio del grafo
+    void register(RouteTable<E> table) {
+        routeTables.add(table);
+    }
+
+    void unregister(RouteTable<E> table) throws IsEmpty, ItemNotFound {
+        routeTables.remove(table);
+    }
+
+    //copia de los vértices en orden, O(n)
+    @SuppressWarnings("unchecked")
+    Vertex<E>[] vertexArray() {
+        Object[] raw = vertices.toArray();
+        Vertex<E>[] out = new Vertex[raw.length];
+        System.arraycopy(raw, 0, out, 0, raw.length);
+        return out;
+    }
+
+    private void notifyVerticesChanged() {
+        for (int i = 0; i < routeTables.size(); i++) {
+            try {
+                routeTables.get(i).verticesChanged();
+            } catch (IsEmpty | ItemNotFound e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Asigna coordenadas físicas (pasillo, rack, nivel) a un vértice para las heurísticas de A*.
+     * @throws ItemNotFound si el vértice no existe
+     */
+    public void setCoordinates(E data, double aisle, double rack, double level) throws ItemNotFound, IsEmpty {
+        findVertex(data).setCoordinates(aisle, rack, level);
+    }
+
+    /**
+     * Camino mínimo con búsqueda A*: como Dijkstra, pero expande primero los
+     * vértices con menor costo acumulado + estimación al destino, así explora
+     * muchos menos nodos cuando la heurística es informativa. Con una
+     * heurística admisible el costo es el mismo que el de shortestPath: un
+     * vértice ya cerrado se reabre si aparece un camino más barato, así que
+     * no hace falta que la heurística sea consistente (las incluidas no lo
+     * son cuando solo algunos vértices tienen coordenadas).
+     * @return lista de vértices desde origin hasta destination (solo destination si no hay camino)
+     */
+    public LinkedList<E> aStar(E origin, E destination, Heuristic<E> heuristic) throws ItemNotFound, IsEmpty, ItemDuplicated {
+        if (vertices.isEmpty()) throw new IsEmpty("El grafo está vacío");
+        Vertex<E> src = findVertex(origin);
+        Vertex<E> dst = findVertex(destination);
+        int n = vertices.size();
+        double[] g = new double[n];//costo real desde el origen
+        int[] prev = new int[n];
+        boolean[] closed = new boolean[n];
+        @SuppressWarnings("unchecked")
+        Vertex<E>[] byIndex = new Vertex[n];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        Arrays.fill(prev, -1);
+        // montículo binario por f = g + h, con borrado perezoso
+        int[] heapV = new int[16];
+        double[] heapF = new double[16];
+        int size = 0;
+        g[src.index] = 0.0;
+        byIndex[src.index] = src;
+        heapV[0] = src.index;
+        heapF[size++] = heuristic.estimate(src, dst);
+        while (size > 0) {
+            int u = heapV[0];
+            size--;
+            int lastV = heapV[size];
+            double lastF = heapF[size];
+            int i = 0;
+            while (2 * i + 1 < size) {//bajar el último desde la raíz
+                int c = 2 * i + 1;
+                if (c + 1 < size && heapF[c + 1] < heapF[c]) c++;
+                if (heapF[c] >= lastF) break;
+                heapV[i] = heapV[c];
+                heapF[i] = heapF[c];
+                i = c;
+            }
+            heapV[i] = lastV;
+            heapF[i] = lastF;
+            if (closed[u]) continue;//entrada vieja: el vértice ya salió con un g menor
+            closed[u] = true;
+            if (u == dst.index) break;//con heurística admisible y reapertura el destino ya es óptimo
+            Vertex<E> vU = byIndex[u];
+            for (int a = 0; a < vU.degree(); a++) {
+                Edge<E> e = vU.edgeAt(a);
+                Vertex<E> w = e.other(vU);
+                int v = w.index;
+                if (v < 0) continue;
+                double alt = g[u] + e.getWeight();
+                if (alt < g[v]) {//también si v estaba cerrado: se reabre
+                    closed[v] = false;
+                    g[v] = alt;
+                    prev[v] = u;
+                    byIndex[v] = w;
+                    if (size == heapV.length) {
+                        heapV = Arrays.copyOf(heapV, size * 2);
+                        heapF = Arrays.copyOf(heapF, size * 2);
+                    }
+                    double f = alt + heuristic.estimate(w, dst);
+                    int j = size++;
+                    while (j > 0 && heapF[(j - 1) / 2] > f) {//subir el nuevo elemento
+                        heapV[j] = heapV[(j - 1) / 2];
+                        heapF[j] = heapF[(j - 1) / 2];
+                        j = (j - 1) / 2;
+                    }
+                    heapV[j] = v;
+                    heapF[j] = f;
+                }
+            }
+        }
+        LinkedList<E> path = new LinkedList<>();//mismo formato que shortestPath
+        for (int v = dst.index; v >= 0; v = prev[v]) {
+            path.add(0, byIndex[v] != null ? byIndex[v].getData() : destination);
+        }
+        return path;
+    }
+
     private Vertex<E> findVertex(E data) throws ItemNotFound, IsEmpty {
-        for (int i = 0; i < vertices.size(); i++) {
-            Vertex<E> v = vertices.get(i);
-            if (v.getData().equals(data)) return v;
+        try {
+            return byData.get(data);
+        } catch (ItemNotFound e) {
+            throw new ItemNotFound("Vértice no encontrado: " + data);
+        }
+    }
+
+    //true si existe la arista from->to (o from-to en no dirigido), O(1)
+    private boolean hasEdge(Vertex<E> from, Vertex<E> to) {
+        return edgeTable.containsKey(key(from, to));
+    }
+
+    private EdgeKey key(Vertex<E> a, Vertex<E> b) {
+        if (!directed && b.id < a.id) return new EdgeKey(b.id, a.id);//el par no dirigido se guarda ordenado
+        return new EdgeKey(a.id, b.id);
+    }
+
+    //clave de la tabla de aristas: ids de origen y destino
+    private static final class EdgeKey {
+        private final int a, b;
+
+        EdgeKey(int a, int b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof EdgeKey)) return false;
+            EdgeKey k = (EdgeKey) o;
+            return a == k.a && b == k.b;
+        }
+
+        @Override
+        public int hashCode() {
+            return a * 0x9E3779B1 + b;
         }
-        throw new ItemNotFound("Vértice no encontrado: " + data);
     }
 
     @Override
@@ -119,7 +441,7 @@ public class GraphLink<E extends Comparable<E>> {//grafo no dirigido(ida y vuelt
         boolean[] visited = new boolean[vertices.size()];//arreglo para marca si un vertice fue visitado o no
 //Busca el objeto Vertex cuyo dato (getData()) sea igual a start
         Vertex<E> startVertex = findVertex(start);
-        int idxStart = vertices.indexOf(startVertex);//btiene el índice del vértice de inicio 
+        int idxStart = startVertex.index;//btiene el índice del vértice de inicio 
         visited[idxStart] = true;//para marcarlo como visitado
         queue.add(startVertex);//lo añade a la cola como primer nodo por visitar
 
@@ -128,10 +450,9 @@ public class GraphLink<E extends Comparable<E>> {//grafo no dirigido(ida y vuelt
             queue.remove(0);//y se elimina
             result.add(current.getData());
 //se agrega su dato a result, indicando que ya fue visitado
-            LinkedList<Edge<E>> adj = current.getAdjList();//se obtiene la lista de aristas del nodo actual
-            for (int i = 0; i < adj.size(); i++) {
-                Vertex<E> neighbor = adj.get(i).getDestination();//se obtiene el vértice vecino (neighbor
-                int idx = vertices.indexOf(neighbor);//se busca su índice (idx
+            for (int i = 0; i < current.degree(); i++) {//se recorren las aristas del nodo actual
+                Vertex<E> neighbor = current.edgeAt(i).other(current);//se obtiene el vértice vecino (neighbor
+                int idx = neighbor.index;//se busca su índice (idx
                 if (!visited[idx]) {//si idx no ha sido visitado
                     visited[idx] = true;//se marca como visitado
                     queue.add(neighbor);//se añade a la cola
@@ -141,97 +462,123 @@ public class GraphLink<E extends Comparable<E>> {//grafo no dirigido(ida y vuelt
         return result;
     }
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    //busqueda de profundidad en niveles
+    //busqueda de profundidad en niveles (iterativa: la profundidad no depende de la pila del hilo)
     public LinkedList<E> dfs(E start) throws ItemNotFound, IsEmpty {
         LinkedList<E> result = new LinkedList<>();//creacion de una lista
         boolean[] visited = new boolean[vertices.size()];//arreglo de booleanos que marca si cada nodo fue visitado o no
         Vertex<E> startVertex = findVertex(start);//busca en la lista de vértices el nodo cuyo dato (E) sea igual a start
-        dfsRecursive(startVertex, visited, result);//llama función aux recursiva, para visitar cada nodo y vecinos
+        dfsIterative(startVertex, visited, result);//recorre con una pila explícita de marcos (vértice, próxima arista)
         return result;//al terminar devuelve la lista con el orden en que se visitaron los nodos
     }
 
-    private void dfsRecursive(Vertex<E> v, boolean[] visited, LinkedList<E> result) {
-        int idx = vertices.indexOf(v);//obtiene el índice del vértice actual
-        if (visited[idx]) return;//si el nodo ya fue visitado,no se hace nada y se sale 
-        visited[idx] = true;//marca el nodo actual como visitado
-        result.add(v.getData());//Agrega el dato del vértice (E
-
-        LinkedList<Edge<E>> adj = v.getAdjList();//obtiene la lista de aristas del nodo actual
-        for (int i = 0; i < adj.size(); i++) {//se recorre cada arista saliente
-            try {//para cada arista
-                dfsRecursive(adj.get(i).getDestination(), visited, result);//se obtiene el nodo destino
-            } catch (IsEmpty | ItemNotFound e) {
-                e.printStackTrace();//imprime error al saltar las excepciones
-            }
+    //pilas reutilizables: vértice y próxima arista a explorar de cada marco
+    private Object[] stackNode = new Object[16];
+    private int[] stackEdge = new int[16];
 
+    private void ensureStacks(int n) {
+        if (stackEdge.length < n) {
+            stackNode = new Object[n];
+            stackEdge = new int[n];
         }
     }
 
-    public boolean hasCycle() {
-    boolean[] visited = new boolean[vertices.size()];
-    for (int i = 0; i < vertices.size(); i++) {
-        try {
-            if (!visited[i]) {
-                if (hasCycleDFS(vertices.get(i), visited, null)) return true;
+    //visita en el mismo orden que la versión recursiva: cada marco retoma su lista de aristas donde quedó
+    private void dfsIterative(Vertex<E> v, boolean[] visited, LinkedList<E> result) {
+        int start = v.index;//obtiene el índice del vértice actual
+        if (visited[start]) return;//si el nodo ya fue visitado,no se hace nada y se sale
+        ensureStacks(visited.length);
+        int top = 0;
+        visited[start] = true;//marca el nodo actual como visitado
+        result.add(v.getData());//Agrega el dato del vértice (E
+        stackNode[top] = v;
+        stackEdge[top++] = 0;
+        while (top > 0) {
+            Vertex<E> current = vertex(top - 1);//nodo actual y su próxima arista
+            int e = stackEdge[top - 1];
+            if (e >= current.degree()) {//ya no quedan aristas: se desapila el marco
+                stackNode[--top] = null;
+                continue;
+            }
+            stackEdge[top - 1] = e + 1;
+            Vertex<E> next = current.edgeAt(e).other(current);//se obtiene el nodo destino
+            int idx = next.index;
+            if (idx >= 0 && !visited[idx]) {
+                visited[idx] = true;
+                result.add(next.getData());
+                stackNode[top] = next;
+                stackEdge[top++] = 0;
             }
-        } catch (IsEmpty | ItemNotFound e) {
-            e.printStackTrace();
         }
     }
-    return false;
-}
 
-    private boolean hasCycleDFS(Vertex<E> current, boolean[] visited, Vertex<E> parent) {
-        int idx = vertices.indexOf(current);
-        visited[idx] = true;
-        LinkedList<Edge<E>> adj = current.getAdjList();
-        for (int i = 0; i < adj.size(); i++) {
-            Vertex<E> neighbor = null;
-            try {
-                neighbor = adj.get(i).getDestination();
-            } catch (IsEmpty | ItemNotFound e) {
-                e.printStackTrace();
-            }
+    //ZONAS CONEXAS: union-find incremental; agregar aristas une zonas en O(α(n)),
+    //quitar la última arista de un par marca la estructura para reconstruirla en O(n + m)
 
-            int nIdx = vertices.indexOf(neighbor);
-            if (!visited[nIdx]) {
-                if (hasCycleDFS(neighbor, visited, current)) return true;
-            } else if (!neighbor.equals(parent)) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Indica si el grafo (sin importar el sentido de las aristas) tiene un ciclo.
+     * Un bosque tiene exactamente n - c pares unidos, con c zonas; cualquier par extra cierra un ciclo.
+     */
+    public boolean hasCycle() {
+        ensureZones();
+        return links > vertices.size() - zones.count();
     }
 
-public int countConnectedComponents() {//try catch para el itemnofound p
-    boolean[] visited = new boolean[vertices.size()];
-    int count = 0;
-    for (int i = 0; i < vertices.size(); i++) {
-        try {
-            if (!visited[i]) {
-                LinkedList<E> temp = new LinkedList<>();
-                dfsRecursive(vertices.get(i), visited, temp);
-                count++;
-            }
-        } catch (IsEmpty | ItemNotFound e) {
-            e.printStackTrace();
-        }
+    @SuppressWarnings("unchecked")
+    private Vertex<E> vertex(int frame) {
+        return (Vertex<E>) stackNode[frame];
     }
-    return count;
-}
 
+    /** @return cantidad de zonas conexas, O(α(n)) si no hubo eliminaciones desde la última consulta */
+    public int countConnectedComponents() {
+        ensureZones();
+        return zones.count();
+    }
+
+    /**
+     * Indica si se puede llegar de a a b recorriendo aristas en cualquier sentido.
+     * @throws ItemNotFound si alguno de los vértices no existe
+     */
+    public boolean isConnected(E a, E b) throws ItemNotFound, IsEmpty {
+        Vertex<E> va = findVertex(a);
+        Vertex<E> vb = findVertex(b);
+        ensureZones();
+        return zones.connected(va.index, vb.index);
+    }
 
+    /** @return vértices que no están unidos a ningún otro por aristas de ida ni de vuelta */
     public LinkedList<E> getIsolatedZones() {
+        ensureZones();
         LinkedList<E> isolated = new LinkedList<>();
-        for (int i = 0; i < vertices.size(); i++) {
-            try {
-                if (vertices.get(i).getAdjList().isEmpty()) {
-                    isolated.add(vertices.get(i).getData());
-            }
-        } catch (IsEmpty | ItemNotFound e) {
-            e.printStackTrace();
-        }
+        Object[] all = vertices.toArray();
+        for (Object o : all) {
+            Vertex<E> v = vertex(o);
+            if (zones.sizeOf(v.index) == 1) isolated.add(v.getData());
         }
         return isolated;
     }
+
+    //reconstruye zonas y pares tras una eliminación, O(n + m) con find casi constante
+    private void ensureZones() {
+        if (!zonesDirty) return;
+        Object[] all = vertices.toArray();
+        zones.reset(all.length);
+        links = 0;
+        for (Object o : all) {
+            Vertex<E> v = vertex(o);
+            for (int i = 0; i < v.degree(); i++) {
+                Edge<E> e = v.edgeAt(i);
+                if (e.getOrigin() != v) continue;//arista compartida: se cuenta desde su origen
+                Vertex<E> w = e.getDestination();
+                //cada par se cuenta una sola vez: desde el menor índice o desde el único extremo con arista
+                if (!directed || v.index <= w.index || !hasEdge(w, v)) links++;
+                zones.union(v.index, w.index);
+            }
+        }
+        zonesDirty = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Vertex<E> vertex(Object o) {
+        return (Vertex<E>) o;
+    }
 }
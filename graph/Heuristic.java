@@ -0,0 +1,56 @@
+package graph;
+
+/**
+ * Estimación del costo restante para la búsqueda A*.
+ * Para que A* devuelva el camino mínimo la estimación debe ser admisible:
+ * nunca mayor que el costo real. Si alguno de los vértices no tiene
+ * coordenadas las implementaciones incluidas devuelven 0; en un grafo con
+ * coordenadas parciales eso las vuelve inconsistentes (GraphLink.aStar lo
+ * tolera reabriendo vértices, a costa de expandir algunos más de una vez).
+ *
+ * @param <E> tipo de dato de los vértices
+ */
+public interface Heuristic<E extends Comparable<E>> {
+    /**
+     * @param from vértice actual
+     * @param to vértice destino
+     * @return costo estimado (>= 0) de ir de from a to
+     */
+    double estimate(Vertex<E> from, Vertex<E> to);
+
+    /** @return heurística nula: A* se comporta como Dijkstra */
+    static <E extends Comparable<E>> Heuristic<E> zero() {
+        return (from, to) -> 0.0;
+    }
+
+    /**
+     * Distancia Manhattan entre coordenadas (pasillos y racks en cuadrícula).
+     * Nada verifica la cota: si alguna arista pesa menos que costPerUnit por
+     * unidad de distancia entre sus extremos la ruta puede no ser la mínima.
+     * @param costPerUnit costo mínimo de avanzar una unidad; debe acotar por
+     *                    debajo el peso real de las aristas para ser admisible
+     */
+    static <E extends Comparable<E>> Heuristic<E> manhattan(double costPerUnit) {
+        return (from, to) -> {
+            if (!from.hasCoordinates() || !to.hasCoordinates()) return 0.0;
+            return costPerUnit * (Math.abs(from.getAisle() - to.getAisle())
+                + Math.abs(from.getRack() - to.getRack())
+                + Math.abs(from.getLevel() - to.getLevel()));
+        };
+    }
+
+    /**
+     * Distancia euclidiana entre coordenadas (siempre admisible si el peso
+     * de cada arista es al menos costPerUnit por unidad de longitud).
+     * @param costPerUnit costo mínimo por unidad de distancia
+     */
+    static <E extends Comparable<E>> Heuristic<E> euclidean(double costPerUnit) {
+        return (from, to) -> {
+            if (!from.hasCoordinates() || !to.hasCoordinates()) return 0.0;
+            double da = from.getAisle() - to.getAisle();
+            double dr = from.getRack() - to.getRack();
+            double dl = from.getLevel() - to.getLevel();
+            return costPerUnit * Math.sqrt(da * da + dr * dr + dl * dl);
+        };
+    }
+}
@@ -0,0 +1,524 @@
+package graph;
+
+import exceptions.IsEmpty;
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import list.HashTable;
+import list.LinkedList;
+
+/**
+ * Tabla de rutas precalculadas desde un conjunto de ubicaciones clave.
+ * Para cada clave guarda, sobre una copia compacta del grafo (arreglos CSR),
+ * la fila de distancias mínimas y el predecesor de cada vértice; todo en
+ * arreglos planos double[]/int[] de k*n posiciones. Las filas se calculan con
+ * Dijkstra en paralelo, una por clave.
+ * La tabla se registra en el grafo y se invalida de forma selectiva:
+ * - al quitar u->v solo se recalculan las claves cuyo árbol usaba esa arista,
+ * - al agregar u->v solo las claves a las que esa arista les acorta algo,
+ * - un cambio de vértices invalida todo.
+ * - al cambiar el peso de u->v la fila no se recalcula desde cero: se repara
+ *   reutilizando el árbol anterior (estilo SSSP dinámico), solo se vuelve a
+ *   asentar el subárbol que colgaba de una arista que subió y lo que mejora
+ *   por una arista que bajó.
+ * Las filas vencidas se recalculan en la siguiente consulta o con refresh().
+ *
+ * @param <E> tipo de dato de los vértices
+ */
+public class RouteTable<E extends Comparable<E>> {
+    private final GraphLink<E> graph;
+    private final E[] keys;
+    private final HashTable<E, Integer> keyRow;
+    private final boolean[] stale;
+    private int staleCount;
+    private final boolean[] repair;//filas a reparar por cambios de peso
+    private int repairCount;
+    // cambios de peso pendientes (índices de vértice de la copia); subió = el peso aumentó
+    private int[] changedFrom = new int[16];
+    private int[] changedTo = new int[16];
+    private boolean[] changedUp = new boolean[16];
+    private int changedCount;
+    private boolean topologyDirty;
+    private boolean verticesDirty;
+
+    // copia compacta del grafo
+    private int n;
+    private Object[] labels;
+    private HashTable<E, Integer> index;
+    private int[] offsets;
+    private int[] targets;
+    private double[] weights;
+    private int[] rOffsets;//aristas entrantes: rOffsets[v]..rOffsets[v+1] en rSources/rEdges
+    private int[] rSources;
+    private int[] rEdges;//posición de la arista en targets/weights
+    private int[] keyIndex;//índice de vértice de cada clave
+
+    // filas de resultados: fila r ocupa [r*n, (r+1)*n)
+    private double[] dist;
+    private int[] parent;
+
+    /**
+     * Construye la tabla y calcula todas las filas.
+     * @param graph grafo de ubicaciones
+     * @param keys ubicaciones clave (orígenes de la tabla)
+     * @throws ItemNotFound si alguna clave no es vértice del grafo
+     */
+    public RouteTable(GraphLink<E> graph, E[] keys) throws ItemNotFound, ItemDuplicated {
+        this.graph = graph;
+        this.keys = keys.clone();
+        this.keyRow = new HashTable<>();
+        for (int i = 0; i < keys.length; i++) keyRow.put(keys[i], i);
+        this.stale = new boolean[keys.length];
+        this.repair = new boolean[keys.length];
+        snapshot();
+        for (int r = 0; r < keys.length; r++) {
+            if (keyIndex[r] < 0) throw new ItemNotFound("Ubicación clave no encontrada: " + keys[r]);
+        }
+        markAllStale();
+        refresh();
+        graph.register(this);
+    }
+
+    /** @return cantidad de ubicaciones clave */
+    public int keyCount() {
+        return keys.length;
+    }
+
+    /** @return filas pendientes de recalcular */
+    public int staleRows() {
+        return staleCount;
+    }
+
+    /** @return filas pendientes de reparar por cambios de peso (sin contar las vencidas) */
+    public int repairRows() {
+        int count = 0;
+        for (int r = 0; r < keys.length; r++) if (repair[r] && !stale[r]) count++;
+        return count;
+    }
+
+    /**
+     * Distancia mínima desde una clave hasta cualquier vértice.
+     * @return distancia o Double.POSITIVE_INFINITY si no hay camino
+     * @throws ItemNotFound si from no es clave o to no es vértice
+     */
+    public double distance(E from, E to) throws ItemNotFound {
+        int row = row(from);
+        return dist[row * n + index.get(to)];
+    }
+
+    /**
+     * Camino mínimo desde una clave, con el mismo formato que GraphLink.shortestPath.
+     * @return lista de vértices desde from hasta to (solo to si no hay camino)
+     */
+    public LinkedList<E> path(E from, E to) throws ItemNotFound {
+        int row = row(from);
+        LinkedList<E> path = new LinkedList<>();
+        int base = row * n;
+        for (int v = index.get(to); v >= 0; v = parent[base + v]) {
+            try {
+                path.add(0, label(v));
+            } catch (ItemDuplicated ignored) {
+                // LinkedList no valida duplicados
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Siguiente vértice a visitar desde la clave from para llegar a to.
+     * @return el siguiente salto, o null si no hay camino o from == to
+     */
+    public E nextHop(E from, E to) throws ItemNotFound {
+        int row = row(from);
+        int base = row * n;
+        int src = keyIndex[row];
+        int v = index.get(to);
+        if (v == src || parent[base + v] < 0) return null;
+        while (parent[base + v] != src) v = parent[base + v];
+        return label(v);
+    }
+
+    /**
+     * Matriz k x k de distancias entre claves, en orden de construcción,
+     * aplanada por filas. Una clave cuyo vértice se quitó del grafo queda
+     * a distancia infinita.
+     */
+    public double[] matrix() {
+        ensureFresh();
+        int k = keys.length;
+        double[] m = new double[k * k];
+        for (int r = 0; r < k; r++) {
+            for (int c = 0; c < k; c++) {
+                m[r * k + c] = keyIndex[c] < 0 ? Double.POSITIVE_INFINITY : dist[r * n + keyIndex[c]];
+            }
+        }
+        return m;
+    }
+
+    /** Recalcula en paralelo las filas vencidas y repara las afectadas por cambios de peso. */
+    public void refresh() {
+        if (staleCount == 0 && repairCount == 0) return;
+        if (verticesDirty || topologyDirty) snapshot();
+        int[] rows = new int[keys.length];
+        int m = 0;
+        for (int r = 0; r < keys.length; r++) if (stale[r] || repair[r]) rows[m++] = r;
+        IntStream.range(0, m).parallel().forEach(i -> {
+            int r = rows[i];
+            if (stale[r]) dijkstra(r);
+            else repair(r);
+        });
+        for (int r = 0; r < keys.length; r++) {
+            stale[r] = false;
+            repair[r] = false;
+        }
+        staleCount = 0;
+        repairCount = 0;
+        changedCount = 0;
+    }
+
+    /** Desliga la tabla del grafo; deja de recibir invalidaciones. */
+    public void close() throws IsEmpty, ItemNotFound {
+        graph.unregister(this);
+    }
+
+    // --- invalidación, llamada por GraphLink ---
+
+    void edgeAdded(E src, E dest, double weight) {
+        topologyDirty = true;
+        if (verticesDirty) return;
+        Integer u = indexOf(src);
+        Integer v = indexOf(dest);
+        if (u == null || v == null) {
+            markAllStale();
+            return;
+        }
+        for (int r = 0; r < keys.length; r++) {
+            if (!stale[r] && dist[r * n + u] + weight < dist[r * n + v]) markStale(r);
+        }
+    }
+
+    void edgeRemoved(E src, E dest) {
+        topologyDirty = true;
+        if (verticesDirty) return;
+        Integer u = indexOf(src);
+        Integer v = indexOf(dest);
+        if (u == null || v == null) {
+            markAllStale();
+            return;
+        }
+        for (int r = 0; r < keys.length; r++) {
+            if (!stale[r] && parent[r * n + v] == u) markStale(r);//la arista era parte del árbol de r
+        }
+    }
+
+    void weightChanged(E src, E dest, double weight) {
+        if (verticesDirty) return;
+        Integer u = indexOf(src);
+        Integer v = indexOf(dest);
+        if (u == null || v == null) {
+            markAllStale();
+            return;
+        }
+        if (topologyDirty) {//la copia se rehace igual: se invalida como quitar + agregar
+            for (int r = 0; r < keys.length; r++) {
+                if (!stale[r] && (parent[r * n + v] == u || dist[r * n + u] + weight < dist[r * n + v])) markStale(r);
+            }
+            return;
+        }
+        boolean up = false;
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v) {
+                up = weight > weights[e];
+                weights[e] = weight;
+            }
+        }
+        boolean logged = false;
+        for (int r = 0; r < keys.length; r++) {
+            if (stale[r]) continue;
+            int base = r * n;
+            if ((up && parent[base + v] == u) || dist[base + u] + weight < dist[base + v]) {
+                if (!logged) {
+                    logChange(u, v, up);
+                    logged = true;
+                }
+                if (!repair[r]) {
+                    repair[r] = true;
+                    repairCount++;
+                }
+            }
+        }
+        if (changedCount > Math.max(64, n / 4)) {//demasiados cambios: sale más barato recalcular
+            for (int r = 0; r < keys.length; r++) if (repair[r]) markStale(r);
+        }
+    }
+
+    void verticesChanged() {
+        verticesDirty = true;
+        markAllStale();
+    }
+
+    // --- internos ---
+
+    private void ensureFresh() {
+        if (staleCount > 0 || repairCount > 0) refresh();
+    }
+
+    private void logChange(int u, int v, boolean up) {
+        if (changedCount == changedFrom.length) {
+            changedFrom = Arrays.copyOf(changedFrom, changedCount * 2);
+            changedTo = Arrays.copyOf(changedTo, changedCount * 2);
+            changedUp = Arrays.copyOf(changedUp, changedCount * 2);
+        }
+        changedFrom[changedCount] = u;
+        changedTo[changedCount] = v;
+        changedUp[changedCount++] = up;
+    }
+
+    private int row(E key) throws ItemNotFound {
+        ensureFresh();
+        return keyRow.get(key);
+    }
+
+    private Integer indexOf(E data) {
+        try {
+            return index.get(data);
+        } catch (ItemNotFound e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E label(int v) {
+        return (E) labels[v];
+    }
+
+    private void markStale(int r) {
+        if (!stale[r]) {
+            stale[r] = true;
+            staleCount++;
+        }
+    }
+
+    private void markAllStale() {
+        for (int r = 0; r < keys.length; r++) markStale(r);
+    }
+
+    // copia el grafo en arreglos CSR: offsets[v]..offsets[v+1] son las aristas de v
+    private void snapshot() {
+        Vertex<E>[] verts = graph.vertexArray();
+        int size = verts.length;
+        HashTable<E, Integer> idx = new HashTable<>();
+        Object[] names = new Object[size];
+        Object[][] adj = new Object[size][];
+        int edges = 0;
+        for (int i = 0; i < size; i++) {
+            names[i] = verts[i].getData();
+            try {
+                idx.put(verts[i].getData(), i);
+            } catch (ItemDuplicated ignored) {
+                // el grafo no admite vértices repetidos
+            }
+            adj[i] = verts[i].getAdjList().toArray();
+            edges += adj[i].length;
+        }
+        int[] off = new int[size + 1];
+        int[] tgt = new int[edges];
+        double[] w = new double[edges];
+        int e = 0;
+        for (int i = 0; i < size; i++) {
+            off[i] = e;
+            for (Object o : adj[i]) {
+                @SuppressWarnings("unchecked")
+                Edge<E> edge = (Edge<E>) o;
+                try {
+                    tgt[e] = idx.get(edge.other(verts[i]).getData());//en no dirigido la arista es compartida
+                } catch (ItemNotFound ex) {
+                    continue;//arista hacia un vértice que ya no está
+                }
+                w[e++] = edge.getWeight();
+            }
+        }
+        off[size] = e;
+        // aristas entrantes, para reparar filas sin recorrer todo el grafo
+        int[] rOff = new int[size + 1];
+        for (int i = 0; i < e; i++) rOff[tgt[i] + 1]++;
+        for (int v = 0; v < size; v++) rOff[v + 1] += rOff[v];
+        int[] rSrc = new int[e];
+        int[] rEdge = new int[e];
+        int[] fill = Arrays.copyOf(rOff, size);
+        for (int u = 0; u < size; u++) {
+            for (int i = off[u]; i < off[u + 1]; i++) {
+                int slot = fill[tgt[i]]++;
+                rSrc[slot] = u;
+                rEdge[slot] = i;
+            }
+        }
+        int[] kIdx = new int[keys.length];
+        for (int r = 0; r < keys.length; r++) {
+            try {
+                kIdx[r] = idx.get(keys[r]);
+            } catch (ItemNotFound ex) {
+                kIdx[r] = -1;//la clave se quitó después de construir la tabla: su fila queda sin caminos
+            }
+        }
+        if (verticesDirty || dist == null || size != n) {
+            dist = new double[keys.length * size];
+            parent = new int[keys.length * size];
+        }
+        n = size;
+        labels = names;
+        index = idx;
+        offsets = off;
+        targets = tgt;
+        weights = w;
+        rOffsets = rOff;
+        rSources = rSrc;
+        rEdges = rEdge;
+        keyIndex = kIdx;
+        topologyDirty = false;
+        verticesDirty = false;
+    }
+
+    // Dijkstra con montículo binario sobre la copia CSR; escribe solo en su fila
+    private void dijkstra(int row) {
+        int base = row * n;
+        for (int v = 0; v < n; v++) {
+            dist[base + v] = Double.POSITIVE_INFINITY;
+            parent[base + v] = -1;
+        }
+        int src = keyIndex[row];
+        if (src < 0) return;
+        int cap = targets.length + 1;
+        int[] heapV = new int[cap];
+        double[] heapD = new double[cap];
+        dist[base + src] = 0.0;
+        heapV[0] = src;
+        heapD[0] = 0.0;
+        settle(base, heapV, heapD, 1);
+    }
+
+    /**
+     * Repara una fila después de cambios de peso reutilizando su árbol:
+     * los vértices que colgaban de una arista que subió pierden su distancia y
+     * se siembran con su mejor arista entrante desde fuera de ese subárbol; los
+     * destinos de aristas que bajaron se siembran si mejoran. Desde esas
+     * semillas un Dijkstra normal asienta solo la zona afectada.
+     */
+    private void repair(int row) {
+        int base = row * n;
+        if (keyIndex[row] < 0) return;
+        boolean[] affected = new boolean[n];
+        int[] members = new int[n];
+        int count = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int v = changedTo[i];
+            if (changedUp[i] && parent[base + v] == changedFrom[i] && !affected[v]) {
+                affected[v] = true;
+                members[count++] = v;
+            }
+        }
+        if (count > 0) {
+            // hijos de cada vértice en el árbol actual (primer hijo / siguiente hermano)
+            int[] first = new int[n];
+            int[] next = new int[n];
+            Arrays.fill(first, -1);
+            for (int v = 0; v < n; v++) {
+                int p = parent[base + v];
+                if (p >= 0) {
+                    next[v] = first[p];
+                    first[p] = v;
+                }
+            }
+            for (int i = 0; i < count; i++) {//members crece mientras se recorre: BFS del subárbol
+                for (int c = first[members[i]]; c >= 0; c = next[c]) {
+                    if (!affected[c]) {
+                        affected[c] = true;
+                        members[count++] = c;
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                dist[base + members[i]] = Double.POSITIVE_INFINITY;
+                parent[base + members[i]] = -1;
+            }
+        }
+        int cap = targets.length + count + changedCount + 1;
+        int[] heapV = new int[cap];
+        double[] heapD = new double[cap];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int x = members[i];
+            for (int re = rOffsets[x]; re < rOffsets[x + 1]; re++) {
+                int y = rSources[re];
+                double alt = dist[base + y] + weights[rEdges[re]];
+                if (!affected[y] && alt < dist[base + x]) {
+                    dist[base + x] = alt;
+                    parent[base + x] = y;
+                }
+            }
+            if (dist[base + x] < Double.POSITIVE_INFINITY) size = push(heapV, heapD, size, x, dist[base + x]);
+        }
+        for (int i = 0; i < changedCount; i++) {
+            int u = changedFrom[i], v = changedTo[i];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                double alt = dist[base + u] + weights[e];
+                if (targets[e] == v && alt < dist[base + v]) {
+                    dist[base + v] = alt;
+                    parent[base + v] = u;
+                    size = push(heapV, heapD, size, v, alt);
+                }
+            }
+        }
+        settle(base, heapV, heapD, size);
+    }
+
+    // Dijkstra con borrado perezoso desde lo que ya hay en el montículo; escribe solo en la fila base
+    private void settle(int base, int[] heapV, double[] heapD, int size) {
+        while (size > 0) {
+            int u = heapV[0];
+            double d = heapD[0];
+            size--;
+            // bajar el último elemento desde la raíz
+            int lastV = heapV[size];
+            double lastD = heapD[size];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && heapD[c + 1] < heapD[c]) c++;
+                if (heapD[c] >= lastD) break;
+                heapV[i] = heapV[c];
+                heapD[i] = heapD[c];
+                i = c;
+            }
+            heapV[i] = lastV;
+            heapD[i] = lastD;
+            if (d > dist[base + u]) continue;//entrada vieja (borrado perezoso)
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double alt = d + weights[e];
+                if (alt < dist[base + v]) {
+                    dist[base + v] = alt;
+                    parent[base + v] = u;
+                    size = push(heapV, heapD, size, v, alt);
+                }
+            }
+        }
+    }
+
+    // agrega v al montículo y lo sube; devuelve el nuevo tamaño
+    private static int push(int[] heapV, double[] heapD, int size, int v, double d) {
+        int j = size;
+        while (j > 0) {
+            int p = (j - 1) / 2;
+            if (heapD[p] <= d) break;
+            heapV[j] = heapV[p];
+            heapD[j] = heapD[p];
+            j = p;
+        }
+        heapV[j] = v;
+        heapD[j] = d;
+        return size + 1;
+    }
+}
@@ -0,0 +1,157 @@
+package graph;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Optimizador de recorridos abiertos (inicio y fin fijos) sobre una matriz
+ * de distancias k x k aplanada por filas, como la de {@link RouteTable#matrix()}.
+ * Construye una solución con vecino más cercano y la mejora con 2-opt y
+ * Or-opt hasta no encontrar mejoras o agotar el presupuesto de tiempo.
+ * Varias búsquedas con semillas distintas corren en paralelo y se queda
+ * con el mejor recorrido. Admite matrices asimétricas (grafos dirigidos).
+ */
+public class TourOptimizer {
+    private final double[] dist;
+    private final int k;
+    private final boolean symmetric;
+
+    /**
+     * @param matrix distancias aplanadas por filas (k*k)
+     * @param k cantidad de paradas; la 0 es el inicio y la k-1 el fin
+     */
+    public TourOptimizer(double[] matrix, int k) {
+        if (k < 2 || matrix.length != k * k) throw new IllegalArgumentException("Matriz inválida para k=" + k);
+        this.dist = matrix;
+        this.k = k;
+        boolean sym = true;
+        for (int i = 0; i < k && sym; i++) {
+            for (int j = i + 1; j < k && sym; j++) sym = matrix[i * k + j] == matrix[j * k + i];
+        }
+        this.symmetric = sym;
+    }
+
+    /**
+     * Busca un buen orden de visita.
+     * @param budgetMillis presupuesto de tiempo total
+     * @param searches búsquedas paralelas (semillas distintas)
+     * @return orden de las paradas, empieza en 0 y termina en k-1
+     */
+    public int[] solve(long budgetMillis, int searches) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        int runs = Math.max(1, searches);
+        int[][] tours = new int[runs][];
+        IntStream.range(0, runs).parallel().forEach(s -> tours[s] = search(s, deadline));
+        int[] best = tours[0];
+        for (int[] t : tours) if (cost(t) < cost(best)) best = t;
+        return best;
+    }
+
+    /** @return costo total del recorrido */
+    public double cost(int[] tour) {
+        double c = 0;
+        for (int i = 0; i + 1 < tour.length; i++) c += dist[tour[i] * k + tour[i + 1]];
+        return c;
+    }
+
+    private int[] search(int seed, long deadline) {
+        int[] tour = nearestNeighbor(seed);
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = twoOpt(tour, deadline) | orOpt(tour, deadline);
+        }
+        return tour;
+    }
+
+    // vecino más cercano; con semilla > 0 elige al azar entre los dos más cercanos
+    private int[] nearestNeighbor(int seed) {
+        Random random = new Random(seed);
+        int[] tour = new int[k];
+        boolean[] used = new boolean[k];
+        tour[0] = 0;
+        used[0] = true;
+        used[k - 1] = true;
+        for (int pos = 1; pos < k - 1; pos++) {
+            int from = tour[pos - 1];
+            int best = -1, second = -1;
+            for (int c = 1; c < k - 1; c++) {
+                if (used[c]) continue;
+                double d = dist[from * k + c];
+                if (best < 0 || d < dist[from * k + best]) {
+                    second = best;
+                    best = c;
+                } else if (second < 0 || d < dist[from * k + second]) {
+                    second = c;
+                }
+            }
+            int pick = (seed > 0 && second >= 0 && random.nextBoolean()) ? second : best;
+            tour[pos] = pick;
+            used[pick] = true;
+        }
+        tour[k - 1] = k - 1;
+        return tour;
+    }
+
+    // invierte tramos tour[i..j]; los extremos fijos nunca se mueven
+    private boolean twoOpt(int[] tour, long deadline) {
+        boolean any = false;
+        for (int i = 1; i < k - 2; i++) {
+            if (System.nanoTime() >= deadline) return any;
+            for (int j = i + 1; j < k - 1; j++) {
+                int a = tour[i - 1], b = tour[i], c = tour[j], d = tour[j + 1];
+                double delta = dist[a * k + c] + dist[b * k + d] - dist[a * k + b] - dist[c * k + d];
+                if (!symmetric) {//en asimétrico el tramo invertido cambia de sentido
+                    for (int p = i; p < j; p++) {
+                        delta += dist[tour[p + 1] * k + tour[p]] - dist[tour[p] * k + tour[p + 1]];
+                    }
+                }
+                if (delta < -1e-9) {
+                    for (int l = i, r = j; l < r; l++, r--) {
+                        int t = tour[l];
+                        tour[l] = tour[r];
+                        tour[r] = t;
+                    }
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    // mueve tramos de 1 a 3 paradas a otra posición, sin invertirlos
+    private boolean orOpt(int[] tour, long deadline) {
+        boolean any = false;
+        for (int len = 1; len <= 3; len++) {
+            for (int i = 1; i + len < k; i++) {
+                if (System.nanoTime() >= deadline) return any;
+                int first = tour[i], last = tour[i + len - 1];
+                int before = tour[i - 1], after = tour[i + len];
+                double removeGain = dist[before * k + first] + dist[last * k + after] - dist[before * k + after];
+                for (int j = 0; j + 1 < k; j++) {
+                    if (j >= i - 1 && j < i + len) continue;//el hueco debe estar fuera del tramo
+                    int p = tour[j], q = tour[j + 1];
+                    double addCost = dist[p * k + first] + dist[last * k + q] - dist[p * k + q];
+                    if (addCost - removeGain < -1e-9) {
+                        move(tour, i, len, j);
+                        any = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return any;
+    }
+
+    // mueve tour[i..i+len) para que quede entre tour[j] y tour[j+1]
+    private void move(int[] tour, int i, int len, int j) {
+        int[] seg = new int[len];
+        System.arraycopy(tour, i, seg, 0, len);
+        if (j < i) {
+            System.arraycopy(tour, j + 1, tour, j + 1 + len, i - j - 1);
+            System.arraycopy(seg, 0, tour, j + 1, len);
+        } else {
+            System.arraycopy(tour, i + len, tour, i, j - i - len + 1);
+            System.arraycopy(seg, 0, tour, j - len + 1, len);
+        }
+    }
+}
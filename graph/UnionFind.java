@@ -0,0 +1,92 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Conjuntos disjuntos (union-find) sobre los índices 0..n-1, con compresión
+ * de caminos y unión por rango: find y union cuestan O(α(n)) amortizado.
+ * Lleva además la cantidad de conjuntos y el tamaño de cada uno.
+ * No admite separar conjuntos; quien lo usa debe reconstruirlo con reset.
+ */
+public class UnionFind {
+    private int[] parent = new int[16];
+    private byte[] rank = new byte[16];
+    private int[] size = new int[16];
+    private int n;
+    private int sets;
+
+    /** Vacía la estructura y crea n conjuntos unitarios. */
+    public void reset(int n) {
+        this.n = 0;
+        this.sets = 0;
+        ensure(n);
+        for (int i = 0; i < n; i++) add();
+    }
+
+    /** Agrega un conjunto unitario con el siguiente índice libre y lo devuelve. */
+    public int add() {
+        ensure(n + 1);
+        parent[n] = n;
+        rank[n] = 0;
+        size[n] = 1;
+        sets++;
+        return n++;
+    }
+
+    /** @return representante del conjunto de x */
+    public int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];//compresión por división a la mitad
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Une los conjuntos de a y b.
+     * @return true si estaban separados
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a), rb = find(b);
+        if (ra == rb) return false;
+        if (rank[ra] < rank[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+        if (rank[ra] == rank[rb]) rank[ra]++;
+        sets--;
+        return true;
+    }
+
+    /** @return true si a y b están en el mismo conjunto */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /** @return cantidad de elementos del conjunto de x */
+    public int sizeOf(int x) {
+        return size[find(x)];
+    }
+
+    /** @return cantidad de conjuntos */
+    public int count() {
+        return sets;
+    }
+
+    /** @return cantidad de elementos */
+    public int size() {
+        return n;
+    }
+
+    private void ensure(int capacity) {
+        if (capacity > parent.length) {
+            int c = Math.max(capacity, parent.length * 2);
+            parent = Arrays.copyOf(parent, c);
+            rank = Arrays.copyOf(rank, c);
+            size = Arrays.copyOf(size, c);
+        }
+    }
+}
@@ -13,8 +13,13 @@ import list.LinkedList;
  */
 public class Vertex<E extends Comparable<E>> implements Comparable<Vertex<E>> {
     private final E data;
-    private final LinkedList<Edge<E>> adjList;
+    private Edge<E>[] edges;             // aristas incidentes; cada una guarda su posición (slot) aquí
+    private int degree;
     private VertexLabel label;
+    private double aisle, rack, level;   // coordenadas físicas opcionales (pasillo, rack, nivel)
+    private boolean located;             // true si se asignaron coordenadas
+    int index = -1;                      // posición en la lista de vértices del grafo (la mantiene GraphLink)
+    int id = -1;                         // identificador fijo dentro del grafo, para la tabla de aristas
 
     /** Estados posibles de un vértice durante la exploración */
     public enum VertexLabel {
@@ -29,7 +34,7 @@ public class Vertex<E extends Comparable<E>> implements Comparable<Vertex<E>> {
      */
     public Vertex(E data) {
         this.data = data;
-        this.adjList = new LinkedList<>();
+        this.edges = newEdges(4);
         this.label = VertexLabel.UNVISITED;
     }
 
@@ -48,45 +53,132 @@ public class Vertex<E extends Comparable<E>> implements Comparable<Vertex<E>> {
         this.label = label;
     }
 
+    /**
+     * Asigna la posición física del vértice en el almacén.
+     * @param aisle pasillo
+     * @param rack rack dentro del pasillo
+     * @param level nivel (altura)
+     */
+    public void setCoordinates(double aisle, double rack, double level) {
+        this.aisle = aisle;
+        this.rack = rack;
+        this.level = level;
+        this.located = true;
+    }
+
+    /** @return true si el vértice tiene coordenadas asignadas */
+    public boolean hasCoordinates() {
+        return located;
+    }
+
+    /** @return pasillo (0 si no tiene coordenadas) */
+    public double getAisle() {
+        return aisle;
+    }
+
+    /** @return rack (0 si no tiene coordenadas) */
+    public double getRack() {
+        return rack;
+    }
+
+    /** @return nivel (0 si no tiene coordenadas) */
+    public double getLevel() {
+        return level;
+    }
+
     /**
      * Añade una arista saliente a este vértice.
      * @param edge arista a agregar
      * @throws ItemDuplicated si ya existe una arista al mismo destino
-     * @throws IsEmpty nunca ocurre aquí, pero declarado por la firma de LinkedList.add
+     * @throws IsEmpty nunca ocurre aquí, se mantiene por compatibilidad
      * @throws ItemNotFound 
      */
     public void addEdge(Edge<E> edge) throws ItemDuplicated, IsEmpty, ItemNotFound {
         // Prevent duplicate edges to the same destination
-        for (int i = 0; i < adjList.size(); i++) {
-            if (adjList.get(i).getDestination().equals(edge.getDestination())) {
+        for (int i = 0; i < degree; i++) {
+            if (edges[i].other(this).equals(edge.getDestination())) {
                 throw new ItemDuplicated("Arista duplicada hacia: " + edge.getDestination().getData());
             }
         }
-        adjList.add(edge);
+        attach(edge);
     }
 
     /**
-     * Elimina la arista que va de este vértice a dest.
+     * Elimina la arista que va de este vértice a dest (recorre las aristas;
+     * GraphLink borra en O(1) usando la posición guardada en la arista).
      * @param dest vértice destino de la arista a quitar
      * @throws IsEmpty si no hay aristas en este vértice
      * @throws ItemNotFound si no existe arista hacia dest
      */
     public void removeEdgeTo(Vertex<E> dest) throws IsEmpty, ItemNotFound {
-        if (adjList.isEmpty()) {
+        if (degree == 0) {
             throw new IsEmpty("No hay aristas que eliminar en vértice: " + data);
         }
-        for (int i = 0; i < adjList.size(); i++) {
-            if (adjList.get(i).getDestination().equals(dest)) {
-                adjList.remove(i);
+        for (int i = 0; i < degree; i++) {
+            if (edges[i].other(this).equals(dest)) {
+                detach(edges[i]);
                 return;
             }
         }
         throw new ItemNotFound("Arista no encontrada hacia: " + dest.getData());
     }
 
-    /** @return la lista de aristas salientes */
+    /** @return copia de la lista de aristas incidentes, en el orden actual */
     public LinkedList<Edge<E>> getAdjList() {
-        return adjList;
+        LinkedList<Edge<E>> list = new LinkedList<>();
+        for (int i = 0; i < degree; i++) list.add(edges[i]);
+        return list;
+    }
+
+    /** @return cantidad de aristas incidentes */
+    public int degree() {
+        return degree;
+    }
+
+    /** @return la i-ésima arista incidente, O(1) */
+    public Edge<E> edgeAt(int i) {
+        return edges[i];
+    }
+
+    //agrega la arista al final y guarda su posición en el slot de este extremo
+    void attach(Edge<E> edge) {
+        if (degree == edges.length) {
+            Edge<E>[] grown = newEdges(degree * 2);
+            System.arraycopy(edges, 0, grown, 0, degree);
+            edges = grown;
+        }
+        setSlot(edge, degree);
+        edges[degree++] = edge;
+    }
+
+    //quita la arista en O(1): la última ocupa su lugar
+    void detach(Edge<E> edge) {
+        int slot = slotOf(edge);
+        Edge<E> last = edges[--degree];
+        edges[slot] = last;
+        setSlot(last, slot);
+        edges[degree] = null;
+        setSlot(edge, -1);
+    }
+
+    //true si la arista sigue enlazada a este vértice
+    boolean holds(Edge<E> edge) {
+        int slot = slotOf(edge);
+        return slot >= 0 && slot < degree && edges[slot] == edge;
+    }
+
+    private int slotOf(Edge<E> edge) {
+        return edge.getOrigin() == this || edge.getOrigin() == null ? edge.originSlot : edge.destSlot;
+    }
+
+    private void setSlot(Edge<E> edge, int slot) {
+        if (edge.getOrigin() == this || edge.getOrigin() == null) edge.originSlot = slot;
+        else edge.destSlot = slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Comparable<E>> Edge<E>[] newEdges(int n) {
+        return (Edge<E>[]) new Edge[n];
     }
 
     @Override
@@ -107,6 +199,11 @@ public class Vertex<E extends Comparable<E>> implements Comparable<Vertex<E>> {
 
     @Override
     public String toString() {
-        return data + " -> " + adjList.toString();
+        StringBuilder sb = new StringBuilder(data + " -> [");
+        for (int i = 0; i < degree; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(edges[i].toString(this));
+        }
+        return sb.append("]").toString();
     }
 }
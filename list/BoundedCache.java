@@ -0,0 +1,300 @@
+package list;
+
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+
+/**
+ * Caché acotada de lectura directa (read-through): get busca la clave y, si
+ * no está, la pide al Loader y la guarda. El límite es un peso total (1 por
+ * entrada si no se indica Weigher) y el reemplazo se elige con Policy:
+ * - LRU: desaloja la entrada usada hace más tiempo.
+ * - TINY_LFU (W-TinyLFU): una ventana LRU chica (1% del peso) recibe las
+ *   entradas nuevas; al salir de la ventana una entrada solo entra a la zona
+ *   principal si su frecuencia estimada supera a la de la víctima que
+ *   desplazaría. La zona principal es una SLRU (20% prueba, 80% protegida).
+ *   Con tráfico sesgado retiene las claves populares aunque un barrido de
+ *   claves de una sola vez pase por la caché.
+ * Cada operación toma el monitor de la caché; el Loader se invoca fuera de
+ * él, así una carga lenta no bloquea los aciertos de otros hilos (dos hilos
+ * pueden cargar la misma clave a la vez; se guarda la primera). Si durante
+ * una carga llega un invalidate (de cualquier clave) o un put, el valor
+ * cargado se devuelve pero no se guarda: podría ser anterior al cambio que
+ * motivó la invalidación.
+ *
+ * @param <K> tipo de clave
+ * @param <V> tipo de valor
+ */
+public class BoundedCache<K, V> {
+    /** Política de reemplazo. */
+    public enum Policy { LRU, TINY_LFU }
+
+    /** Fuente de los valores que no están en la caché. */
+    public interface Loader<K, V> {
+        /** @throws ItemNotFound si la clave no existe en la fuente (no se guarda nada) */
+        V load(K key) throws ItemNotFound;
+    }
+
+    /** Peso de un valor respecto del límite de la caché. */
+    public interface Weigher<V> {
+        /** @return peso (>= 1) */
+        int weigh(V value);
+    }
+
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    private static final class Entry<K, V> {
+        final K key;
+        V value;
+        int weight;
+        int queue;
+        Entry<K, V> prev, next;
+
+        Entry(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final Policy policy;
+    private final long maxWeight;
+    private final Weigher<? super V> weigher;
+    private final HashTable<K, Entry<K, V>> index = new HashTable<>();
+    @SuppressWarnings("unchecked")
+    private final Entry<K, V>[] heads = new Entry[3];//centinelas de listas circulares, la cabeza es la más vieja
+    private final long[] weights = new long[3];
+    private final long windowMax, protectedMax, mainMax;
+    private final FrequencySketch sketch;
+    private long hits, misses, loads, evictions, rejections;
+    private long generation;//crece con cada invalidate/put: detecta cargas que quedaron viejas
+
+    /** Caché con peso 1 por entrada: maxEntries entradas como máximo. */
+    public BoundedCache(Policy policy, long maxEntries) {
+        this(policy, maxEntries, null);
+    }
+
+    /**
+     * @param maxWeight peso total máximo
+     * @param weigher peso de cada valor (null: 1 por entrada)
+     */
+    public BoundedCache(Policy policy, long maxWeight, Weigher<? super V> weigher) {
+        if (maxWeight < 1) throw new IllegalArgumentException("Peso máximo inválido: " + maxWeight);
+        this.policy = policy;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        for (int q = 0; q < heads.length; q++) {
+            heads[q] = new Entry<>(null, null, 0);
+            heads[q].prev = heads[q].next = heads[q];
+        }
+        if (policy == Policy.LRU) {
+            windowMax = maxWeight;//LRU puro: todo es ventana
+            mainMax = protectedMax = 0;
+            sketch = null;
+        } else {
+            windowMax = Math.max(1, maxWeight / 100);
+            mainMax = maxWeight - windowMax;
+            protectedMax = mainMax * 8 / 10;
+            sketch = new FrequencySketch(maxWeight);
+        }
+    }
+
+    /**
+     * @return el valor de la clave, cargándolo con loader si no está en la caché
+     * @throws ItemNotFound si loader no la encuentra
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader) throws ItemNotFound {
+        long seen;
+        synchronized (this) {
+            Entry<K, V> e = index.getOrDefault(key, null);
+            if (sketch != null) sketch.increment(hashOf(key));
+            if (e != null) {
+                hits++;
+                touch(e);
+                return e.value;
+            }
+            misses++;
+            seen = generation;
+        }
+        V value = loader.load(key);
+        synchronized (this) {
+            loads++;
+            Entry<K, V> e = index.getOrDefault(key, null);
+            if (e != null) return e.value;//otro hilo la cargó mientras tanto
+            if (generation != seen) return value;//se invalidó durante la carga: no se guarda
+            insert(key, value);
+            return value;
+        }
+    }
+
+    /** @return el valor si está en la caché, o null (no carga ni cuenta como acceso) */
+    public synchronized V getIfPresent(K key) {
+        Entry<K, V> e = index.getOrDefault(key, null);
+        return e == null ? null : e.value;
+    }
+
+    /** Guarda o reemplaza el valor de la clave. */
+    public synchronized void put(K key, V value) {
+        generation++;
+        Entry<K, V> e = index.getOrDefault(key, null);
+        if (e != null) remove(e);
+        insert(key, value);
+    }
+
+    /** Quita la clave de la caché (no hace nada si no está). */
+    public synchronized void invalidate(K key) {
+        generation++;
+        Entry<K, V> e = index.getOrDefault(key, null);
+        if (e != null) remove(e);
+    }
+
+    /** Vacía la caché; las estadísticas se conservan. */
+    public synchronized void invalidateAll() {
+        generation++;
+        index.clear();
+        for (int q = 0; q < heads.length; q++) {
+            heads[q].prev = heads[q].next = heads[q];
+            weights[q] = 0;
+        }
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /** @return cantidad de entradas */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /** @return peso total de las entradas */
+    public synchronized long weightedSize() {
+        return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+    }
+
+    /** @return peso máximo */
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /** @return valores pedidos al Loader con éxito */
+    public synchronized long loads() {
+        return loads;
+    }
+
+    /** @return entradas desalojadas por falta de lugar */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /** @return entradas nuevas que TinyLFU no admitió en la zona principal (incluidas en evictions) */
+    public synchronized long rejections() {
+        return rejections;
+    }
+
+    /** @return aciertos / accesos, 0 si no hubo accesos */
+    public synchronized double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static int hashOf(Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    //acierto: pasa al final de su lista; en TinyLFU un acierto en prueba la promueve a protegida
+    private void touch(Entry<K, V> e) {
+        if (e.queue == PROBATION) {
+            move(e, PROTECTED);
+            while (weights[PROTECTED] > protectedMax) move(heads[PROTECTED].next, PROBATION);
+        } else {
+            move(e, e.queue);
+        }
+    }
+
+    private void insert(K key, V value) {
+        int w = weigher == null ? 1 : Math.max(1, weigher.weigh(value));
+        if (w > maxWeight) {//nunca entraría
+            evictions++;
+            return;
+        }
+        Entry<K, V> e = new Entry<>(key, value, w);
+        try {
+            index.put(key, e);
+        } catch (ItemDuplicated impossible) {
+            return;//quien llama verificó que no está
+        }
+        link(e, WINDOW);
+        if (policy == Policy.LRU) {
+            while (weights[WINDOW] > windowMax) evict(heads[WINDOW].next);
+        } else {
+            while (weights[WINDOW] > windowMax) admit(heads[WINDOW].next);
+        }
+    }
+
+    //la entrada más vieja de la ventana compite por entrar a la zona principal
+    private void admit(Entry<K, V> candidate) {
+        move(candidate, PROBATION);
+        while (weights[PROBATION] + weights[PROTECTED] > mainMax) {
+            Entry<K, V> victim = heads[PROBATION].next;
+            if (victim == candidate) victim = victim.next;//la víctima es la más vieja que no sea el candidato
+            if (victim == heads[PROBATION]) victim = heads[PROTECTED].next;
+            if (victim == heads[PROTECTED]) {//solo queda el candidato y no entra
+                rejections++;
+                evict(candidate);
+                return;
+            }
+            if (sketch.frequency(hashOf(candidate.key)) > sketch.frequency(hashOf(victim.key))) {
+                evict(victim);
+            } else {
+                rejections++;
+                evict(candidate);
+                return;
+            }
+        }
+    }
+
+    private void evict(Entry<K, V> e) {
+        remove(e);
+        evictions++;
+    }
+
+    private void remove(Entry<K, V> e) {
+        unlink(e);
+        try {
+            index.remove(e.key);
+        } catch (ItemNotFound impossible) {
+            // toda entrada enlazada está en el índice
+        }
+    }
+
+    private void move(Entry<K, V> e, int queue) {
+        unlink(e);
+        link(e, queue);
+    }
+
+    //agrega al final (más reciente) de la lista queue
+    private void link(Entry<K, V> e, int queue) {
+        Entry<K, V> head = heads[queue];
+        e.queue = queue;
+        e.prev = head.prev;
+        e.next = head;
+        head.prev.next = e;
+        head.prev = e;
+        weights[queue] += e.weight;
+    }
+
+    private void unlink(Entry<K, V> e) {
+        e.prev.next = e.next;
+        e.next.prev = e.prev;
+        e.prev = e.next = null;
+        weights[e.queue] -= e.weight;
+    }
+}
@@ -0,0 +1,68 @@
+package list;
+
+/**
+ * Estimador de frecuencia de acceso (count-min) con contadores de 4 bits,
+ * 16 por long. Cada clave incrementa 4 contadores elegidos por hashes
+ * independientes y su frecuencia es el mínimo de los 4, así las colisiones
+ * solo pueden sobreestimar. Tras 10 incrementos por contador se dividen
+ * todos a la mitad (envejecimiento): lo que fue popular hace mucho pierde peso.
+ * Ocupa 8 bytes cada 16 contadores, sin importar cuántas claves distintas vea.
+ */
+public class FrequencySketch {
+    private static final long[] SEEDS = {0x97cb3127L, 0xc2b2ae3d27d4eb4fL, 0x9e3779b97f4a7c15L, 0x165667b19e3779f9L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int counterMask;//contadores - 1 (potencia de dos)
+    private final int sampleSize;
+    private int additions;
+
+    /** @param expectedKeys claves que se esperan retener (capacidad de la caché) */
+    public FrequencySketch(long expectedKeys) {
+        int longs = Integer.highestOneBit((int) Math.max(16, Math.min(expectedKeys, 1 << 26)));
+        if (longs < expectedKeys && longs < 1 << 26) longs <<= 1;
+        table = new long[longs];
+        counterMask = longs * 16 - 1;
+        sampleSize = 10 * longs;
+    }
+
+    /** Cuenta un acceso a la clave con ese hashCode. */
+    public void increment(int hashCode) {
+        int h = HashTable.spread(hashCode);
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int c = counter(h, i);
+            int slot = c >>> 4, shift = (c & 15) << 2;
+            if (((table[slot] >>> shift) & 0xf) < MAX_COUNT) {
+                table[slot] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) reset();
+    }
+
+    /** @return frecuencia estimada (0 a 15) */
+    public int frequency(int hashCode) {
+        int h = HashTable.spread(hashCode);
+        int min = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int c = counter(h, i);
+            min = Math.min(min, (int) (table[c >>> 4] >>> ((c & 15) << 2)) & 0xf);
+        }
+        return min;
+    }
+
+    //índice del contador de la fila i
+    private int counter(int h, int i) {
+        long x = (h + SEEDS[i]) * SEEDS[i];
+        x += x >>> 32;
+        return (int) x & counterMask;
+    }
+
+    //divide todos los contadores a la mitad
+    private void reset() {
+        for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+        additions /= 2;
+    }
+}
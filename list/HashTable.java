@@ -5,6 +5,9 @@ import exceptions.ItemNotFound;
  * HashTable personalizado para el Sistema de Gestión y Optimización de Inventarios en Almacenes.
  * Colisiones resueltas por encadenamiento usando nodos HashNode<K,V>.
  * No utiliza librerías de Java Collections.
+ * El crecimiento es incremental (como en Redis): al superar la carga se crea
+ * la tabla nueva y cada put/remove posterior migra unos pocos buckets de la
+ * vieja, así ningún put paga el costo de mover todos los pares.
  *
  * @param <K> tipo de clave
  * @param <V> tipo de valor
@@ -12,9 +15,28 @@ import exceptions.ItemNotFound;
 public class HashTable<K, V> {
     private static final int DEFAULT_CAPACITY = 37;// modulo 37
     private static final double DEFAULT_LOAD_FACTOR = 0.75;//llenado como max 75%(27.8)
+    private static final int DEGENERATE_CHAIN = 8;//con carga <= 0.75 una cadena así casi nunca ocurre por azar
+    private static final int TREEIFY_THRESHOLD = 8;//una cadena de este largo pasa a ser un árbol AVL
+    private static final int UNTREEIFY_THRESHOLD = 6;//y vuelve a ser cadena al achicarse (histéresis)
+    private static final int MIGRATE_BUCKETS = 2;//buckets con pares migrados por operación
+    private static final int MIGRATE_EMPTY_VISITS = 10;//buckets vacíos revisados por cada uno de esos
     private HashNode<K, V>[] table;//array de listas enlazadas
     private int capacity;
+    private HashNode<K, V>[] oldTable;//tabla que se está vaciando, null si no hay migración en curso
+    private int migrateIndex;//buckets de oldTable por debajo de este índice ya se migraron
     private int size;
+    private HashMode mode = HashMode.AUTO;
+    private boolean spreading;//true: se mezclan los bits de hashCode() antes del módulo
+
+    /** Modos de la función hash. */
+    public enum HashMode {
+        /** hashCode() sin signo, módulo la capacidad */
+        DIRECT,
+        /** mezcla los bits de hashCode() antes del módulo (claves con patrones) */
+        SPREAD,
+        /** DIRECT hasta que un put encuentra una cadena degenerada; desde ahí SPREAD */
+        AUTO
+    }
     /**
      * Construye una HashTable con capacidad inicial por defecto.
      */
@@ -24,31 +46,87 @@ public class HashTable<K, V> {
         this.table = (HashNode<K, V>[]) new HashNode[capacity];
         this.size = 0;
     }
+
     /**
-     * Función hash basada en hashCode(), acotada por la capacidad.
+     * Construye una HashTable dimensionada para expectedSize pares: una carga
+     * masiva de ese tamaño no dispara ningún crecimiento.
+     * @param expectedSize cantidad de pares esperada
      */
-    private int hash(K key) {
-        return (key == null ? 0 : Math.abs(key.hashCode())) % capacity;
+    @SuppressWarnings("unchecked")
+    public HashTable(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Tamaño esperado negativo: " + expectedSize);
+        this.capacity = Math.max(DEFAULT_CAPACITY, nextPrime((int) (expectedSize / DEFAULT_LOAD_FACTOR) + 1));
+        this.table = (HashNode<K, V>[]) new HashNode[capacity];
+        this.size = 0;
+    }
+    /** Función hash basada en hashCode(), mezclada si la tabla está en modo SPREAD. */
+    private int hashOf(K key) {
+        int h = key == null ? 0 : key.hashCode();
+        return spreading ? spread(h) : h;
+    }
+
+    /**
+     * Acota el hash por la cantidad de buckets. Se descarta el bit de signo en
+     * vez de usar Math.abs, que deja negativo a Integer.MIN_VALUE.
+     */
+    private static int index(int h, int buckets) {
+        return (h & 0x7fffffff) % buckets;
     }//Calcula el índice del bucket donde irá una clave
 
+    //durante una migración cada clave vive en una sola de las dos tablas:
+    //en la vieja si su bucket todavía no se migró, si no en la nueva
+    private HashNode<K, V>[] tableFor(int h) {
+        if (oldTable != null && index(h, oldTable.length) >= migrateIndex) return oldTable;
+        return table;
+    }
+
+    //finalizador de MurmurHash3: cada bit de entrada afecta a todos los de salida
+    static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
     /**
      * Inserta un par (key,value). Lanza ItemDuplicated si la clave ya existe.
      */
     public void put(K key, V value) throws ItemDuplicated {
-        int idx = hash(key);//pocicion dentro del ht
-        HashNode<K, V> node = table[idx];//toma el primer nodo
+        if (oldTable != null) migrate();
+        int h = hashOf(key);
+        HashNode<K, V>[] buckets = tableFor(h);
+        int idx = index(h, buckets.length);//pocicion dentro del ht
+        HashNode<K, V> node = buckets[idx];//toma el primer nodo
+        if (node instanceof TreeBin) {//bucket convertido en árbol: O(log n) aunque los hash choquen
+            TreeBin<K, V> bin = (TreeBin<K, V>) node;
+            if (bin.find(h, key) != null) throw new ItemDuplicated("Clave duplicada: " + key);
+            bin.insert(new TreeNode<>(h, key, value));
+            size++;
+            if ((double) size / capacity >= DEFAULT_LOAD_FACTOR) rehash();
+            return;
+        }
+        int chain = 1;//largo de la cadena una vez insertado
         while (node != null) {
             if ((key == null && node.getKey() == null) || (key != null && key.equals(node.getKey()))) {//Compara la clave que se quiere insertar con la de los nodos existentes.
                 throw new ItemDuplicated("Clave duplicada: " + key);
             }
             node = node.getNext();//Continúa al siguiente nodo de la lista en caso no haya coincidencia aún.
+            chain++;
         }
         HashNode<K, V> newNode = new HashNode<>(key, value);
-        newNode.setNext(table[idx]);//El nuevo nodo se coloca al inicio de la lista enlazada.
-        table[idx] = newNode;//La cabeza de la lista en la posición idx ahora es el nuevo nodo.
+        newNode.setNext(buckets[idx]);//El nuevo nodo se coloca al inicio de la lista enlazada.
+        buckets[idx] = newNode;//La cabeza de la lista en la posición idx ahora es el nuevo nodo.
         size++;
         if ((double) size / capacity >= DEFAULT_LOAD_FACTOR) { //si excede la capacidad de 0.75
             rehash();// rehash, duplica el tamanio
+        } else if (chain >= DEGENERATE_CHAIN && mode == HashMode.AUTO && !spreading) {
+            finishMigration();//la migración usa la función hash con la que se ubicaron los pares
+            spreading = true;//las claves se agrupan mal con hashCode() directo
+            rebuild(capacity);//si aun así la cadena sigue larga, rebuild la convierte en árbol
+        } else if (chain >= TREEIFY_THRESHOLD) {
+            treeify(buckets, idx);//hashCode() iguales o que chocan: mezclar bits no alcanza
         }
     }
 
@@ -56,29 +134,60 @@ public class HashTable<K, V> {
      * Obtiene el valor asociado a la clave. Lanza ItemNotFound si no existe.
      */
     public V get(K key) throws ItemNotFound {
-        int idx = hash(key);//calcula la pocicion
-        HashNode<K, V> node = table[idx];//Toma el primer nodo de la lista enlazada que está en esa posición del arreglo.
+        HashNode<K, V> node = lookup(key);
+        if (node == null) throw new ItemNotFound("Clave no encontrada: " + key);
+        return node.getValue();
+    }
+
+    /**
+     * Obtiene el valor asociado a la clave, o fallback si no existe. No lanza
+     * excepciones: conviene cuando las ausencias son frecuentes (crear una
+     * excepción cuesta más que la búsqueda).
+     */
+    public V getOrDefault(K key, V fallback) {
+        HashNode<K, V> node = lookup(key);
+        return node == null ? fallback : node.getValue();
+    }
+
+    //nodo con la clave, o null
+    private HashNode<K, V> lookup(K key) {
+        int h = hashOf(key);
+        HashNode<K, V>[] buckets = tableFor(h);
+        HashNode<K, V> node = buckets[index(h, buckets.length)];//Toma el primer nodo de la lista enlazada que está en esa posición del arreglo.
+        if (node instanceof TreeBin) return ((TreeBin<K, V>) node).find(h, key);
         while (node != null) {
             if ((key == null && node.getKey() == null) || (key != null && key.equals(node.getKey()))) {//Compara la clave que se busca con la del nodo actual:
-                return node.getValue();
+                return node;
             }
             node = node.getNext();//Si no encontró aún la clave, avanza al siguiente nodo en la lista enlazada.
         }
-        throw new ItemNotFound("Clave no encontrada: " + key);
+        return null;
     }
 
     /**
      * Remueve el par con la clave dada y retorna su valor. Lanza ItemNotFound si no existe.
      */
     public V remove(K key) throws ItemNotFound {
-        int idx = hash(key);//pisicion
-        HashNode<K, V> node = table[idx];//primer node de la lista enlazada 
+        if (oldTable != null) migrate();
+        int h = hashOf(key);
+        HashNode<K, V>[] buckets = tableFor(h);
+        int idx = index(h, buckets.length);//pisicion
+        HashNode<K, V> node = buckets[idx];//primer node de la lista enlazada 
+        if (node instanceof TreeBin) {
+            TreeBin<K, V> bin = (TreeBin<K, V>) node;
+            TreeNode<K, V> found = bin.find(h, key);
+            if (found == null) throw new ItemNotFound("Clave no encontrada: " + key);
+            bin.delete(found);
+            size--;
+            if (bin.count <= UNTREEIFY_THRESHOLD) buckets[idx] = untreeify(bin.first);
+            return found.getValue();
+        }
         HashNode<K, V> prev = null;//como es el primer el anteriior es null
         while (node != null) {
             if ((key == null && node.getKey() == null) || (key != null && key.equals(node.getKey()))) {//Si no son null pero son iguales usando .equals()
                 V val = node.getValue();//Guarda el valor del nodo que se va a eliminar
                 if (prev == null) {
-                    table[idx] = node.getNext();
+                    buckets[idx] = node.getNext();
                 } else {
                     prev.setNext(node.getNext());//Si está más adelante, el nodo anterior (prev) apunta al siguiente del actual (node.getNext()), eliminando así el nodo actual de la cadena.
                 }
@@ -95,12 +204,7 @@ public class HashTable<K, V> {
      * Verifica si existe la clave.
      */
     public boolean containsKey(K key) {
-        try {
-            get(key);
-            return true;
-        } catch (ItemNotFound e) {
-            return false;
-        }
+        return lookup(key) != null;
     }
 
     /** @return número de pares almacenados */
@@ -112,32 +216,421 @@ public class HashTable<K, V> {
     public boolean isEmpty() {
         return size == 0;
     }
+
+    /** @return cantidad de buckets (de la tabla nueva, si hay una migración en curso) */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** @return true si hay un rehash incremental en curso (quedan pares en la tabla vieja) */
+    public boolean isRehashing() {
+        return oldTable != null;
+    }
+
+    /** @return factor de carga actual (pares / buckets) */
+    public double loadFactor() {
+        return (double) size / capacity;
+    }
+
+    /** @return modo configurado de la función hash */
+    public HashMode getHashMode() {
+        return mode;
+    }
+
+    /** @return true si la tabla está mezclando los bits de hashCode() (SPREAD o AUTO ya activado) */
+    public boolean isSpreading() {
+        return spreading;
+    }
+
+    /**
+     * Cambia el modo de la función hash; reubica los pares si cambia la función.
+     * AUTO conserva la función actual y vuelve a vigilar las cadenas.
+     */
+    public void setHashMode(HashMode mode) {
+        this.mode = mode;
+        boolean wanted = mode == HashMode.AUTO ? spreading : mode == HashMode.SPREAD;
+        if (wanted != spreading) {
+            finishMigration();
+            spreading = wanted;
+            rebuild(capacity);
+        }
+    }
+
+    /**
+     * Histograma de largos de cadena: h[i] es la cantidad de buckets con i pares.
+     * El largo del arreglo menos uno es la sonda más larga posible.
+     * Durante una migración incluye los buckets que faltan migrar de la tabla vieja.
+     */
+    public int[] chainLengthHistogram() {
+        int[] h = new int[longestChain() + 1];
+        for (int i = 0; i < bucketCount(); i++) h[length(i)]++;
+        return h;
+    }
+
+    /** @return largo de la cadena más larga, O(capacidad + n) */
+    public int longestChain() {
+        int longest = 0;
+        for (int i = 0; i < bucketCount(); i++) longest = Math.max(longest, length(i));
+        return longest;
+    }
+
+    /** @return cantidad de buckets convertidos en árbol */
+    public int treeBinCount() {
+        int bins = 0;
+        for (int i = 0; i < bucketCount(); i++) {
+            if (bucket(i) instanceof TreeBin) bins++;
+        }
+        return bins;
+    }
+
+    // buckets a recorrer: los de la tabla y, si hay migración, los que faltan migrar de la vieja
+    private int bucketCount() {
+        return oldTable == null ? capacity : capacity + oldTable.length - migrateIndex;
+    }
+
+    private HashNode<K, V> bucket(int i) {
+        return i < capacity ? table[i] : oldTable[migrateIndex + i - capacity];
+    }
+
+    // pares del bucket i
+    private int length(int i) {
+        HashNode<K, V> node = bucket(i);
+        if (node instanceof TreeBin) return ((TreeBin<K, V>) node).count;
+        int len = 0;
+        for (; node != null; node = node.getNext()) len++;
+        return len;
+    }
+
+    // primer nodo de la cadena del bucket i; en un árbol, los nodos siguen enlazados por next
+    private HashNode<K, V> head(int i) {
+        HashNode<K, V> node = bucket(i);
+        return node instanceof TreeBin ? ((TreeBin<K, V>) node).first : node;
+    }
+
+    /**
+     * Devuelve todas las claves almacenadas (sin orden definido).
+     * Cada clave se inserta al inicio de la lista, así el recorrido es O(n).
+     */
+    public LinkedList<K> keys() {
+        LinkedList<K> result = new LinkedList<>();
+        for (int i = 0; i < bucketCount(); i++) {
+            for (HashNode<K, V> node = head(i); node != null; node = node.getNext()) {
+                try {
+                    result.add(0, node.getKey());
+                } catch (ItemDuplicated ignored) {
+                    // LinkedList no valida duplicados
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve todos los valores almacenados (sin orden definido).
+     */
+    public LinkedList<V> values() {
+        LinkedList<V> result = new LinkedList<>();
+        for (int i = 0; i < bucketCount(); i++) {
+            for (HashNode<K, V> node = head(i); node != null; node = node.getNext()) {
+                try {
+                    result.add(0, node.getValue());
+                } catch (ItemDuplicated ignored) {
+                    // LinkedList no valida duplicados
+                }
+            }
+        }
+        return result;
+    }
  //Esta anotación le dice al compilador que ignore la advertencia de tipo genérico
     @SuppressWarnings("unchecked")
     public void clear() {
         this.table = (HashNode<K, V>[]) new HashNode[capacity];//Crea un nuevo arreglo vacío de nodos hash del mismo tamaño 
+        this.oldTable = null;
         this.size = 0;//einicia el contador de elementos en la tabla
     }
 
-    //Suprime la advertencia de casting al crear un arreglo genéric
-    //REHASHEO
+    //REHASHEO: crece al primo siguiente del doble, un módulo primo reparte mejor que uno par.
+    //Solo crea la tabla nueva; los pares se mudan de a poco en cada put/remove (migrate).
+    //Cada put migra al menos MIGRATE_BUCKETS índices y la tabla nueva admite ~0.75 * capacidad
+    //vieja puts antes de volver a crecer, así que la migración termina antes de hacer falta otra
     @SuppressWarnings("unchecked")
-    private void rehash() {// duplica cuando se ingresa el modulo 9
-        HashNode<K, V>[] oldTable = table;
-        int oldCap = capacity;
-        capacity *= 2;
+    private void rehash() {
+        finishMigration();
+        oldTable = table;
+        migrateIndex = 0;
+        capacity = nextPrime(capacity * 2 + 1);
         table = (HashNode<K, V>[]) new HashNode[capacity];
-        size = 0;
-        for (int i = 0; i < oldCap; i++) {
-            HashNode<K, V> node = oldTable[i];
+    }
+
+    //muda hasta MIGRATE_BUCKETS buckets con pares de la tabla vieja a la nueva,
+    //revisando como mucho MIGRATE_EMPTY_VISITS vacíos por cada uno (tope de trabajo por operación)
+    private void migrate() {
+        int moved = 0, empty = MIGRATE_BUCKETS * MIGRATE_EMPTY_VISITS;
+        while (migrateIndex < oldTable.length && moved < MIGRATE_BUCKETS) {
+            HashNode<K, V> head = oldTable[migrateIndex];
+            oldTable[migrateIndex++] = null;
+            if (head == null) {
+                if (--empty == 0) break;
+                continue;
+            }
+            moved++;
+            HashNode<K, V> node = head instanceof TreeBin ? untreeify(((TreeBin<K, V>) head).first) : head;
             while (node != null) {
-                try {
-                    put(node.getKey(), node.getValue());
-                } catch (ItemDuplicated ignored) {
-                    // no puede ocurrir aquí
+                HashNode<K, V> next = node.getNext();
+                place(node);
+                node = next;
+            }
+        }
+        if (migrateIndex == oldTable.length) oldTable = null;
+    }
+
+    //completa de una vez la migración en curso (antes de cambiar la función hash o reconstruir)
+    private void finishMigration() {
+        while (oldTable != null) migrate();
+    }
+
+    //enlaza un nodo existente en su bucket de la tabla nueva
+    private void place(HashNode<K, V> node) {
+        int h = hashOf(node.getKey());
+        int idx = index(h, capacity);
+        HashNode<K, V> head = table[idx];
+        if (head instanceof TreeBin) {
+            ((TreeBin<K, V>) head).insert(asTreeNode(node, h));
+            return;
+        }
+        node.setNext(head);
+        table[idx] = node;
+        int len = 0;
+        for (HashNode<K, V> n = node; n != null && len < TREEIFY_THRESHOLD; n = n.getNext()) len++;
+        if (len >= TREEIFY_THRESHOLD) treeify(table, idx);
+    }
+
+    //reubica los nodos existentes (sin crear nuevos) en una tabla de newCapacity buckets;
+    //los árboles se deshacen y se vuelven a armar donde la cadena nueva lo amerite
+    @SuppressWarnings("unchecked")
+    private void rebuild(int newCapacity) {
+        finishMigration();
+        HashNode<K, V>[] previous = table;
+        capacity = newCapacity;
+        table = (HashNode<K, V>[]) new HashNode[capacity];
+        int[] lengths = new int[capacity];
+        for (HashNode<K, V> head : previous) {
+            HashNode<K, V> node = head instanceof TreeBin ? untreeify(((TreeBin<K, V>) head).first) : head;
+            while (node != null) {
+                HashNode<K, V> next = node.getNext();
+                int idx = index(hashOf(node.getKey()), capacity);
+                node.setNext(table[idx]);
+                table[idx] = node;
+                lengths[idx]++;
+                node = next;
+            }
+        }
+        for (int i = 0; i < capacity; i++) {
+            if (lengths[i] >= TREEIFY_THRESHOLD) treeify(table, i);
+        }
+    }
+
+    //convierte la cadena del bucket idx de buckets en un árbol; reutiliza los nodos que ya fueron de un árbol
+    private void treeify(HashNode<K, V>[] buckets, int idx) {
+        TreeBin<K, V> bin = new TreeBin<>();
+        HashNode<K, V> node = buckets[idx];
+        while (node != null) {
+            HashNode<K, V> next = node.getNext();
+            bin.insert(asTreeNode(node, hashOf(node.getKey())));
+            node = next;
+        }
+        buckets[idx] = bin;
+    }
+
+    private static <K, V> TreeNode<K, V> asTreeNode(HashNode<K, V> node, int h) {
+        TreeNode<K, V> t = node instanceof TreeNode ? (TreeNode<K, V>) node : new TreeNode<>(h, node.getKey(), node.getValue());
+        t.hash = h;
+        return t;
+    }
+
+    //vuelve a cadena simple: los nodos ya están enlazados por next, solo se sueltan los punteros del árbol
+    private static <K, V> HashNode<K, V> untreeify(TreeNode<K, V> first) {
+        for (TreeNode<K, V> t = first; t != null; t = (TreeNode<K, V>) t.getNext()) {
+            t.left = t.right = t.prev = null;
+        }
+        return first;
+    }
+
+    static int nextPrime(int n) {
+        for (int c = n | 1; ; c += 2) {
+            boolean prime = true;
+            for (int d = 3; (long) d * d <= c && prime; d += 2) prime = c % d != 0;
+            if (prime) return c;
+        }
+    }
+
+    /**
+     * Nodo de un bucket convertido en árbol. Sigue enlazado por next con los
+     * demás nodos del bucket (los recorridos no cambian) y además forma un AVL
+     * ordenado por hash, luego por clase y compareTo de la clave, y por último
+     * por orden de llegada, así el orden es total aunque las claves no sean Comparable.
+     */
+    static final class TreeNode<K, V> extends HashNode<K, V> {
+        int hash;//hash completo (antes del módulo)
+        long seq;//desempate final, único dentro del bucket
+        int height = 1;
+        TreeNode<K, V> left, right;
+        TreeNode<K, V> prev;//anterior en la cadena next, para desenlazar en O(1)
+
+        TreeNode(int hash, K key, V value) {
+            super(key, value);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Cabeza de un bucket convertido en árbol: table[idx] apunta a ella.
+     * Búsqueda, inserción y borrado en O(log n) aun si todos los hashCode()
+     * del bucket son iguales (claves Comparable) y O(n) en el peor caso si no lo son.
+     * La recursión está acotada por la altura AVL (~1.44 log n).
+     */
+    static final class TreeBin<K, V> extends HashNode<K, V> {
+        TreeNode<K, V> root;
+        TreeNode<K, V> first;//cabeza de la cadena next
+        int count;
+        private long nextSeq;
+
+        TreeBin() {
+            super(null, null);
+        }
+
+        /** @return el nodo con esa clave, o null */
+        TreeNode<K, V> find(int h, K key) {
+            return find(root, h, key);
+        }
+
+        private static <K, V> TreeNode<K, V> find(TreeNode<K, V> p, int h, K key) {
+            while (p != null) {
+                if (h != p.hash) {
+                    p = h < p.hash ? p.left : p.right;
+                    continue;
                 }
-                node = node.getNext();
+                K pk = p.getKey();
+                if (key == pk || (key != null && key.equals(pk))) return p;
+                int c = compareComparable(key, pk);
+                if (c != 0) {
+                    p = c < 0 ? p.left : p.right;
+                    continue;
+                }
+                //mismo hash y sin orden natural entre ambas claves: puede estar de cualquier lado
+                TreeNode<K, V> q = find(p.right, h, key);
+                if (q != null) return q;
+                p = p.left;
             }
+            return null;
+        }
+
+        /** Agrega un nodo que no está en el bucket. */
+        void insert(TreeNode<K, V> t) {
+            t.seq = nextSeq++;
+            t.left = t.right = t.prev = null;
+            t.height = 1;
+            t.setNext(first);
+            if (first != null) first.prev = t;
+            first = t;
+            count++;
+            root = insert(root, t);
+        }
+
+        /** Quita un nodo que está en el bucket. */
+        void delete(TreeNode<K, V> t) {
+            TreeNode<K, V> next = (TreeNode<K, V>) t.getNext();
+            if (t.prev == null) first = next;
+            else t.prev.setNext(next);
+            if (next != null) next.prev = t.prev;
+            count--;
+            root = delete(root, t);
+        }
+
+        private static <K, V> TreeNode<K, V> insert(TreeNode<K, V> p, TreeNode<K, V> t) {
+            if (p == null) return t;
+            if (order(t, p) < 0) p.left = insert(p.left, t);
+            else p.right = insert(p.right, t);
+            return balance(p);
+        }
+
+        //el orden es total, así que se llega exactamente al nodo t
+        private static <K, V> TreeNode<K, V> delete(TreeNode<K, V> p, TreeNode<K, V> t) {
+            if (p == t) {
+                if (p.left == null) return p.right;
+                if (p.right == null) return p.left;
+                TreeNode<K, V> s = p.right;//sucesor inorden, se engancha en lugar de p
+                while (s.left != null) s = s.left;
+                s.right = deleteMin(p.right);
+                s.left = p.left;
+                return balance(s);
+            }
+            if (order(t, p) < 0) p.left = delete(p.left, t);
+            else p.right = delete(p.right, t);
+            return balance(p);
+        }
+
+        private static <K, V> TreeNode<K, V> deleteMin(TreeNode<K, V> p) {
+            if (p.left == null) return p.right;
+            p.left = deleteMin(p.left);
+            return balance(p);
+        }
+
+        private static int order(TreeNode<?, ?> a, TreeNode<?, ?> b) {
+            if (a.hash != b.hash) return a.hash < b.hash ? -1 : 1;
+            Object ka = a.getKey(), kb = b.getKey();
+            int c;
+            if (ka == null || kb == null) c = ka == null ? (kb == null ? 0 : -1) : 1;
+            else if (ka.getClass() != kb.getClass()) c = ka.getClass().getName().compareTo(kb.getClass().getName());
+            else c = compareComparable(ka, kb);
+            return c != 0 ? c : Long.compare(a.seq, b.seq);
+        }
+
+        //compareTo solo entre claves no nulas de la misma clase Comparable; 0 si no se pueden ordenar
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static int compareComparable(Object a, Object b) {
+            if (a == null || b == null || a.getClass() != b.getClass() || !(a instanceof Comparable)) return 0;
+            try {
+                return ((Comparable) a).compareTo(b);
+            } catch (ClassCastException e) {
+                return 0;//Comparable de otro tipo
+            }
+        }
+
+        private static int height(TreeNode<?, ?> n) {
+            return n == null ? 0 : n.height;
+        }
+
+        private static <K, V> TreeNode<K, V> balance(TreeNode<K, V> n) {
+            int bf = height(n.left) - height(n.right);
+            if (bf > 1) {
+                if (height(n.left.left) < height(n.left.right)) n.left = rotateLeft(n.left);
+                return rotateRight(n);
+            }
+            if (bf < -1) {
+                if (height(n.right.right) < height(n.right.left)) n.right = rotateRight(n.right);
+                return rotateLeft(n);
+            }
+            n.height = 1 + Math.max(height(n.left), height(n.right));
+            return n;
+        }
+
+        private static <K, V> TreeNode<K, V> rotateRight(TreeNode<K, V> y) {
+            TreeNode<K, V> x = y.left;
+            y.left = x.right;
+            x.right = y;
+            y.height = 1 + Math.max(height(y.left), height(y.right));
+            x.height = 1 + Math.max(height(x.left), height(x.right));
+            return x;
+        }
+
+        private static <K, V> TreeNode<K, V> rotateLeft(TreeNode<K, V> x) {
+            TreeNode<K, V> y = x.right;
+            x.right = y.left;
+            y.left = x;
+            x.height = 1 + Math.max(height(x.left), height(x.right));
+            y.height = 1 + Math.max(height(y.left), height(y.right));
+            return y;
         }
     }
 }
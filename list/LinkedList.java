@@ -6,10 +6,12 @@ import graph.Vertex;
 
 public class LinkedList<T> implements TDAList<T> {
     private LinkedNode<T> head;
+    private LinkedNode<T> tail;//último nodo: add al final en O(1)
     private int size;
 
     public LinkedList() {
         head = null;
+        tail = null;
         size = 0;
     }
 
@@ -18,12 +20,9 @@ public class LinkedList<T> implements TDAList<T> {
     if (head == null) {
         head = newNode;
     } else {
-        LinkedNode<T> curr = head;
-        while (curr.getNext() != null) {
-            curr = curr.getNext();
-        }
-        curr.setNext(newNode);
+        tail.setNext(newNode);
     }
+    tail = newNode;
     size++;
 }
 
@@ -37,6 +36,10 @@ public class LinkedList<T> implements TDAList<T> {
         if (index == 0) {
             newNode.setNext(head);
             head = newNode;
+            if (tail == null) tail = newNode;
+        } else if (index == size) {
+            tail.setNext(newNode);
+            tail = newNode;
         } else {
             LinkedNode<T> curr = head;
             for (int i = 0; i < index - 1; i++) {
@@ -53,6 +56,7 @@ public class LinkedList<T> implements TDAList<T> {
             throw new IsEmpty("La lista ya está vacía");
         }
         head = null;
+        tail = null;
         size = 0;
     }
 
@@ -125,6 +129,7 @@ public class LinkedList<T> implements TDAList<T> {
         if (index == 0) {
             T old = head.getData();
             head = head.getNext();
+            if (head == null) tail = null;
             size--;
             return old;
         }
@@ -134,6 +139,7 @@ public class LinkedList<T> implements TDAList<T> {
         }
         T old = curr.getNext().getData();
         curr.setNext(curr.getNext().getNext());
+        if (curr.getNext() == null) tail = curr;
         size--;
         return old;
     }
@@ -162,6 +168,17 @@ public class LinkedList<T> implements TDAList<T> {
         return indexOf(data) >= 0;
     }
 
+    // copia los elementos en orden en un arreglo, en O(n) (get(i) en bucle sería O(n^2))
+    public Object[] toArray() {
+        Object[] out = new Object[size];
+        LinkedNode<T> curr = head;
+        for (int i = 0; i < size; i++) {
+            out[i] = curr.getData();
+            curr = curr.getNext();
+        }
+        return out;
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder("[");
         LinkedNode<T> curr = head;
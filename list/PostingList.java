@@ -0,0 +1,268 @@
+package list;
+
+/**
+ * Lista de publicación (posting list) comprimida para índices invertidos.
+ * Guarda identificadores enteros en orden creciente codificados como
+ * diferencias (delta) en bytes de longitud variable (varint), de modo que
+ * listas de millones de ids densos ocupan ~1 byte por entrada.
+ * Cada SKIP_INTERVAL entradas se guarda un punto de salto (último id previo
+ * y posición en bytes) para que la intersección pueda avanzar sin decodificar
+ * todo el bloque intermedio.
+ */
+public class PostingList {
+    /** Valor devuelto por el cursor cuando ya no quedan ids. */
+    public static final int NO_MORE = Integer.MAX_VALUE;
+    private static final int SKIP_INTERVAL = 64;
+
+    private byte[] data;
+    private int length;      // bytes usados en data
+    private int size;        // cantidad de ids
+    private int last;        // último id agregado
+    private int[] skipBase;  // id anterior al inicio de cada bloque
+    private int[] skipOffset;// posición en bytes del inicio de cada bloque
+
+    public PostingList() {
+        data = new byte[16];
+        skipBase = new int[4];
+        skipOffset = new int[4];
+        last = -1;
+    }
+
+    /** @return cantidad de ids en la lista */
+    public int size() {
+        return size;
+    }
+
+    /** @return true si la lista no tiene ids */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return bytes ocupados por la codificación */
+    public int byteSize() {
+        return length;
+    }
+
+    /**
+     * Agrega un id manteniendo el orden. Si es mayor que el último se añade
+     * al final en O(1); si no, la lista se reconstruye en O(n).
+     * @return false si el id ya estaba presente
+     */
+    public boolean add(int id) {
+        if (id < 0) throw new IllegalArgumentException("Id negativo: " + id);
+        if (id > last) {
+            append(id);
+            return true;
+        }
+        int[] ids = toArray();
+        int pos = search(ids, id);
+        if (pos >= 0) return false;
+        pos = -pos - 1;
+        rebuild(ids, pos, id, -1);
+        return true;
+    }
+
+    /**
+     * Elimina un id reconstruyendo la codificación, O(n).
+     * @return false si el id no estaba presente
+     */
+    public boolean remove(int id) {
+        if (id > last || id < 0) return false;
+        int[] ids = toArray();
+        int pos = search(ids, id);
+        if (pos < 0) return false;
+        rebuild(ids, -1, 0, pos);
+        return true;
+    }
+
+    /** @return true si el id está presente */
+    public boolean contains(int id) {
+        return cursor().advance(id) == id;
+    }
+
+    /** Decodifica todos los ids en un arreglo ordenado. */
+    public int[] toArray() {
+        int[] out = new int[size];
+        Cursor c = cursor();
+        for (int i = 0; i < size; i++) out[i] = c.next();
+        return out;
+    }
+
+    /** @return un cursor nuevo posicionado antes del primer id */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Intersección (AND) de varias listas. Recorre la lista más corta y
+     * avanza las demás con saltos, así el costo depende de la lista menor.
+     * @return ids presentes en todas las listas, en orden creciente
+     */
+    public static int[] intersect(PostingList[] lists) {
+        if (lists.length == 0) return new int[0];
+        PostingList[] sorted = lists.clone();
+        // ordenar por tamaño (pocas listas: inserción directa)
+        for (int i = 1; i < sorted.length; i++) {
+            PostingList cur = sorted[i];
+            int j = i - 1;
+            while (j >= 0 && sorted[j].size > cur.size) {
+                sorted[j + 1] = sorted[j];
+                j--;
+            }
+            sorted[j + 1] = cur;
+        }
+        if (sorted[0].size == 0) return new int[0];
+        Cursor[] cursors = new Cursor[sorted.length];
+        for (int i = 0; i < sorted.length; i++) cursors[i] = sorted[i].cursor();
+        int[] out = new int[sorted[0].size];
+        int n = 0;
+        int candidate = cursors[0].next();
+        while (candidate != NO_MORE) {
+            int i = 1;
+            for (; i < cursors.length; i++) {
+                int got = cursors[i].advance(candidate);
+                if (got == NO_MORE) return trim(out, n);
+                if (got != candidate) {
+                    // la lista i saltó más allá: el conductor la alcanza
+                    candidate = cursors[0].advance(got);
+                    break;
+                }
+            }
+            if (i == cursors.length) {
+                out[n++] = candidate;
+                candidate = cursors[0].next();
+            }
+        }
+        return trim(out, n);
+    }
+
+    /**
+     * Unión (OR) de varias listas mediante mezcla de k cursores.
+     * @return ids presentes en al menos una lista, en orden creciente y sin repetir
+     */
+    public static int[] union(PostingList[] lists) {
+        int total = 0;
+        Cursor[] cursors = new Cursor[lists.length];
+        int[] heads = new int[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            total += lists[i].size;
+            cursors[i] = lists[i].cursor();
+            heads[i] = cursors[i].next();
+        }
+        int[] out = new int[total];
+        int n = 0;
+        while (true) {
+            int min = NO_MORE;
+            for (int h : heads) if (h < min) min = h;
+            if (min == NO_MORE) break;
+            out[n++] = min;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] == min) heads[i] = cursors[i].next();
+            }
+        }
+        return trim(out, n);
+    }
+
+    /**
+     * Cursor de lectura secuencial con avance por saltos.
+     */
+    public class Cursor {
+        private int offset;  // próxima posición en bytes
+        private int index;   // cantidad de ids ya leídos
+        private int current = -1;
+
+        /** @return el siguiente id o NO_MORE */
+        public int next() {
+            if (index >= size) return current = NO_MORE;
+            int delta = 0, shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            index++;
+            return current = current + delta;
+        }
+
+        /** @return el primer id >= target o NO_MORE */
+        public int advance(int target) {
+            if (current >= target) return current;
+            // saltar bloques completos cuyo último id es < target
+            int block = index / SKIP_INTERVAL;
+            int blocks = (size + SKIP_INTERVAL - 1) / SKIP_INTERVAL;
+            int jump = block;
+            while (jump + 1 < blocks && skipBase[jump + 1] < target) jump++;
+            if (jump > block) {
+                offset = skipOffset[jump];
+                index = jump * SKIP_INTERVAL;
+                current = skipBase[jump];
+            }
+            int v;
+            do {
+                v = next();
+            } while (v < target);
+            return v;
+        }
+    }
+
+    private void append(int id) {
+        if (size % SKIP_INTERVAL == 0) {
+            int block = size / SKIP_INTERVAL;
+            if (block == skipBase.length) {
+                skipBase = grow(skipBase);
+                skipOffset = grow(skipOffset);
+            }
+            skipBase[block] = last;
+            skipOffset[block] = length;
+        }
+        int delta = id - last;
+        if (length + 5 > data.length) {
+            byte[] bigger = new byte[data.length * 2];
+            System.arraycopy(data, 0, bigger, 0, length);
+            data = bigger;
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = id;
+        size++;
+    }
+
+    // reconstruye insertando 'value' en insertAt y/o omitiendo la posición skip
+    private void rebuild(int[] ids, int insertAt, int value, int skip) {
+        length = 0;
+        size = 0;
+        last = -1;
+        for (int i = 0; i <= ids.length; i++) {
+            if (i == insertAt) append(value);
+            if (i < ids.length && i != skip) append(ids[i]);
+        }
+    }
+
+    private static int search(int[] ids, int id) {
+        int lo = 0, hi = ids.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids[mid] < id) lo = mid + 1;
+            else if (ids[mid] > id) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private static int[] grow(int[] a) {
+        int[] b = new int[a.length * 2];
+        System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
+
+    private static int[] trim(int[] a, int n) {
+        if (n == a.length) return a;
+        int[] b = new int[n];
+        System.arraycopy(a, 0, b, 0, n);
+        return b;
+    }
+}
@@ -0,0 +1,104 @@
+package list;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cola circular acotada de múltiples productores y un solo consumidor (MPSC).
+ * Cada casilla lleva un número de secuencia: los productores reservan una
+ * posición con un CAS sobre la cola y publican el elemento avanzando la
+ * secuencia de su casilla; el consumidor lee sin CAS porque es el único
+ * que mueve la cabeza. No usa bloqueos.
+ *
+ * @param <T> tipo de elemento
+ */
+public class RingBuffer<T> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // solo la toca el consumidor
+
+    /**
+     * @param capacity capacidad mínima; se redondea a la potencia de 2 siguiente
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacidad inválida: " + capacity);
+        int cap = Integer.highestOneBit(capacity);
+        if (cap < capacity) cap <<= 1;
+        slots = new Object[cap];
+        sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequences.set(i, i);
+        mask = cap - 1;
+    }
+
+    /** @return capacidad real de la cola */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Intenta encolar sin bloquear. Seguro para varios hilos productores.
+     * @return false si la cola está llena
+     */
+    public boolean offer(T element) {
+        if (element == null) throw new NullPointerException("Elemento nulo");
+        long pos;
+        while (true) {
+            pos = tail.get();
+            long seq = sequences.get((int) pos & mask);
+            long dif = seq - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;//casilla reservada
+            } else if (dif < 0) {
+                return false;//la casilla aún no fue consumida: cola llena
+            }
+            // otro productor ganó la casilla: reintentar con la nueva cola
+        }
+        int idx = (int) pos & mask;
+        slots[idx] = element;
+        sequences.lazySet(idx, pos + 1);//publica el elemento al consumidor
+        return true;
+    }
+
+    /**
+     * Desencola un elemento. Solo debe llamarlo el hilo consumidor.
+     * @return el elemento o null si la cola está vacía
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        int idx = (int) head & mask;
+        if (sequences.get(idx) != head + 1) return null;
+        T element = (T) slots[idx];
+        slots[idx] = null;
+        sequences.lazySet(idx, head + slots.length);//libera la casilla para la próxima vuelta
+        head++;
+        return element;
+    }
+
+    /**
+     * Desencola hasta max elementos en out. Solo para el hilo consumidor.
+     * @return cantidad de elementos copiados
+     */
+    public int drain(T[] out, int max) {
+        int n = 0;
+        int limit = Math.min(max, out.length);
+        while (n < limit) {
+            T e = poll();
+            if (e == null) break;
+            out[n++] = e;
+        }
+        return n;
+    }
+
+    /** @return cantidad aproximada de elementos encolados */
+    public int size() {
+        long s = tail.get() - head;
+        return (int) Math.max(0, Math.min(s, slots.length));
+    }
+
+    /** @return true si no hay elementos (aproximado para productores) */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,21 @@
+package modelo;
+
+/**
+ * Observador de cambios en las categorías de un {@link Record}.
+ * Lo usa el índice invertido de categorías para mantenerse sincronizado.
+ */
+public interface CategoryListener {
+    /**
+     * Se invoca después de asignar una categoría nueva al registro.
+     * @param record registro modificado
+     * @param category categoría agregada
+     */
+    void categoryAdded(Record record, String category);
+
+    /**
+     * Se invoca después de quitar una categoría del registro.
+     * @param record registro modificado
+     * @param category categoría eliminada
+     */
+    void categoryRemoved(Record record, String category);
+}
@@ -9,6 +9,7 @@ public class Item implements Comparable<Item> {
     private String name;
     private int quantity;
     private String location;
+    private ItemListener listener;
 
     /**
      * Crea un ítem con los datos básicos.
@@ -47,7 +48,19 @@ public class Item implements Comparable<Item> {
      * @param location nueva ubicación
      */
     public void setLocation(String location) {
+        String old = this.location;
         this.location = location;
+        if (listener != null && (old == null ? location != null : !old.equals(location))) {
+            listener.locationChanged(this, old, location);
+        }
+    }
+
+    /**
+     * Registra el observador que recibe los cambios de ubicación y stock.
+     * @param listener observador (null para desligar el ítem)
+     */
+    public void setListener(ItemListener listener) {
+        this.listener = listener;
     }
 
     /**
@@ -56,7 +69,9 @@ public class Item implements Comparable<Item> {
      */
     public void addStock(int amount) {
         if (amount > 0) {
+            int old = quantity;
             quantity += amount;
+            if (listener != null) listener.quantityChanged(this, old, quantity);
         }
     }
 
@@ -66,7 +81,9 @@ public class Item implements Comparable<Item> {
      */
     public void removeStock(int amount) {
         if (amount > 0 && amount <= quantity) {
+            int old = quantity;
             quantity -= amount;
+            if (listener != null) listener.quantityChanged(this, old, quantity);
         }
     }
 
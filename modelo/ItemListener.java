@@ -0,0 +1,24 @@
+package modelo;
+
+/**
+ * Observador de cambios sobre un {@link Item}.
+ * Permite que el sistema mantenga sus índices secundarios sincronizados
+ * cuando un ítem cambia de ubicación o de stock fuera de InventorySystem.
+ */
+public interface ItemListener {
+    /**
+     * Se invoca después de que el ítem cambió de ubicación.
+     * @param item ítem modificado
+     * @param oldLocation ubicación anterior
+     * @param newLocation ubicación nueva
+     */
+    void locationChanged(Item item, String oldLocation, String newLocation);
+
+    /**
+     * Se invoca después de que el ítem cambió su cantidad en stock.
+     * @param item ítem modificado
+     * @param oldQuantity cantidad anterior
+     * @param newQuantity cantidad nueva
+     */
+    void quantityChanged(Item item, int oldQuantity, int newQuantity);
+}
@@ -15,6 +15,7 @@ public class Record implements Comparable<Record> {
     private int quantity;
     private String location;
     private ArrayList<String> categories;
+    private CategoryListener listener;
 
     /**
      * Crea un registro de ítem con categorías vacías.
@@ -87,6 +88,7 @@ public class Record implements Comparable<Record> {
             int idx = categories.indexOf(category);
             if (idx < 0) {
                 categories.add(category);
+                if (listener != null) listener.categoryAdded(this, category);
             }
         }
     }
@@ -106,6 +108,7 @@ public class Record implements Comparable<Record> {
             throw new ItemNotFound("Categoría no encontrada: " + category);
         }
         categories.remove(idx);
+        if (listener != null) listener.categoryRemoved(this, category);
     }
 
     /**
@@ -116,6 +119,14 @@ public class Record implements Comparable<Record> {
         return categories;
     }
 
+    /**
+     * Registra el observador que recibe los cambios de categorías.
+     * @param listener observador (null para desligar el registro)
+     */
+    public void setListener(CategoryListener listener) {
+        this.listener = listener;
+    }
+
     @Override
     public int compareTo(Record other) {
         return this.code.compareTo(other.code);
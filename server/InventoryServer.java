@@ -0,0 +1,413 @@
+package server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.IsEmpty;
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import list.HashTable;
+import list.LinkedList;
+import modelo.Item;
+import sistema.CommandQueue;
+import sistema.InventorySystem;
+
+/**
+ * Servicio HTTP/JSON embebido sobre com.sun.net.httpserver. Endpoints:
+ * <pre>
+ * GET    /items/{código}                   consulta
+ * POST   /items                            alta: {"code","name","quantity","location"}
+ * PUT    /items/{código}                   cambia quantity y/o location
+ * DELETE /items/{código}                   baja
+ * POST   /items/{código}/reserve           {"quantity":n}, 409 si el stock no alcanza
+ * POST   /items/{código}/release           {"quantity":n}, devuelve unidades al stock
+ * GET    /items?from=A&amp;to=B&amp;limit=n        ítems con código en [A, B]
+ * GET    /items?prefix=P&amp;limit=n             ítems cuyo código empieza con P
+ * GET    /route?from=A&amp;to=B                 ruta mínima entre ubicaciones
+ * POST   /batch                            [{"op":"get","code":...}, ...]
+ * GET    /metrics                          métricas del sistema en texto
+ * </pre>
+ * /batch acepta las operaciones get, create, update, delete, reserve,
+ * release, range, prefix y route con los mismos campos que el endpoint
+ * individual (más "code" donde va en la ruta) y devuelve un arreglo de
+ * {"status","body"} en el mismo orden; un error en una operación no corta
+ * las demás.
+ * Las peticiones se atienden en un pool de hilos y todas pasan por una
+ * CommandQueue: un único hilo escritor aplica las operaciones (el lote de
+ * /batch entero en un solo turno) y arma la respuesta, así el JSON refleja
+ * un estado consistente del ítem. Las respuestas llevan Content-Length, lo
+ * que permite reusar la conexión (keep-alive de HTTP/1.1).
+ * Mientras el servidor está abierto el sistema no debe usarse directamente.
+ * <p>
+ * Requisito para quien lo embebe: el servidor HTTP del JDK escribe
+ * encabezados y cuerpo por separado, y con el algoritmo de Nagle y el ACK
+ * demorado del cliente cada respuesta en una conexión reusada tarda ~40 ms.
+ * Conviene lanzar la JVM con -Dsun.net.httpserver.nodelay=true (o fijarla
+ * antes de crear el primer HttpServer del proceso, como hace ConsoleMain).
+ * La clase no la fija porque es una propiedad global de la JVM.
+ */
+public class InventoryServer implements AutoCloseable {
+    /** Tamaño máximo del cuerpo de una petición. */
+    public static final int MAX_BODY = 1 << 20;
+    /** Operaciones máximas por /batch. */
+    public static final int MAX_BATCH = 10_000;
+    /** Resultados por omisión y máximos de range y prefix. */
+    public static final int DEFAULT_LIMIT = 100, MAX_LIMIT = 10_000;
+
+    /** Respuesta ya serializada. */
+    private static final class Response {
+        final int status;
+        final String body;//JSON
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, Json.quote(new StringBuilder("{\"error\":"), message).append('}').toString());
+        }
+    }
+
+    private final HttpServer http;
+    private final ExecutorService workers;
+    private final CommandQueue queue;
+
+    /**
+     * Crea el servidor (todavía no atiende: ver start).
+     * @param system sistema a exponer; desde aquí solo lo usa la cola del servidor
+     * @param address dirección y puerto (puerto 0 = uno libre)
+     * @param threads hilos que atienden peticiones
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public InventoryServer(InventorySystem system, InetSocketAddress address, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("Hilos inválidos: " + threads);
+        this.queue = new CommandQueue(system);
+        this.http = HttpServer.create(address, 1024);
+        AtomicInteger ids = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "http-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.workers = Executors.newFixedThreadPool(threads, factory);
+        http.setExecutor(workers);
+        http.createContext("/", this::handle);
+    }
+
+    /** Servidor en el puerto dado con dos hilos por procesador. */
+    public InventoryServer(InventorySystem system, int port) throws IOException {
+        this(system, new InetSocketAddress(port), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Empieza a atender peticiones. */
+    public void start() {
+        http.start();
+    }
+
+    /** @return puerto en el que escucha */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar conexiones, espera hasta un segundo a las peticiones en
+     * curso y aplica los comandos pendientes.
+     */
+    @Override
+    public void close() {
+        http.stop(1);
+        workers.shutdown();
+        queue.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = dispatch(exchange);
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = Response.error(503, "servidor cerrándose");
+        } catch (RuntimeException e) {
+            response = Response.error(500, String.valueOf(e.getMessage()));
+        }
+        send(exchange, response);
+    }
+
+    private Response dispatch(HttpExchange exchange) throws IOException, InterruptedException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/items")) {
+            if (method.equals("POST")) return call("create", Json.object(Json.parse(body(exchange)), "El ítem"));
+            if (!method.equals("GET")) return notAllowed();
+            HashTable<String, Object> query = query(exchange);
+            return call(query.containsKey("prefix") ? "prefix" : "range", query);
+        }
+        if (path.startsWith("/items/")) {
+            String rest = path.substring("/items/".length());
+            int slash = rest.indexOf('/');
+            String code = slash < 0 ? rest : rest.substring(0, slash);
+            String action = slash < 0 ? null : rest.substring(slash + 1);
+            if (code.isEmpty()) return Response.error(404, "ruta desconocida: " + path);
+            String op;
+            HashTable<String, Object> args;
+            if (action == null) {
+                switch (method) {
+                    case "GET": op = "get"; args = new HashTable<>(); break;
+                    case "PUT": op = "update"; args = Json.object(Json.parse(body(exchange)), "El cuerpo"); break;
+                    case "DELETE": op = "delete"; args = new HashTable<>(); break;
+                    default: return notAllowed();
+                }
+            } else if (action.equals("reserve") || action.equals("release")) {
+                if (!method.equals("POST")) return notAllowed();
+                op = action;
+                args = Json.object(Json.parse(body(exchange)), "El cuerpo");
+            } else {
+                return Response.error(404, "ruta desconocida: " + path);
+            }
+            put(args, "code", code);
+            return call(op, args);
+        }
+        if (path.equals("/route")) {
+            if (!method.equals("GET")) return notAllowed();
+            return call("route", query(exchange));
+        }
+        if (path.equals("/batch")) {
+            if (!method.equals("POST")) return notAllowed();
+            Object parsed = Json.parse(body(exchange));
+            if (!(parsed instanceof Object[])) throw new IllegalArgumentException("El lote debe ser un arreglo");
+            Object[] ops = (Object[]) parsed;
+            if (ops.length > MAX_BATCH) throw new IllegalArgumentException("Más de " + MAX_BATCH + " operaciones");
+            return await(queue.submit(s -> batch(s, ops)));
+        }
+        if (path.equals("/metrics")) {
+            if (!method.equals("GET")) return notAllowed();
+            String text = await(queue.submit(s -> s.metricsSnapshot().toString()));
+            return new Response(200, Json.quote(new StringBuilder("{\"metrics\":"), text).append('}').toString());
+        }
+        return Response.error(404, "ruta desconocida: " + path);
+    }
+
+    private Response call(String op, HashTable<String, Object> args) throws InterruptedException {
+        return await(queue.submit(s -> apply(s, op, args)));
+    }
+
+    private static <R> R await(CompletableFuture<R> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // ------------------------------------------- operaciones (hilo escritor)
+
+    private static Response batch(InventorySystem s, Object[] ops) {
+        StringBuilder sb = new StringBuilder(64 * ops.length + 2).append('[');
+        for (int i = 0; i < ops.length; i++) {
+            Response r;
+            try {
+                HashTable<String, Object> args = Json.object(ops[i], "Cada operación");
+                String op = Json.string(args, "op");
+                if (op == null) throw new IllegalArgumentException("Falta op");
+                r = apply(s, op, args);
+            } catch (IllegalArgumentException e) {
+                r = Response.error(400, e.getMessage());
+            }
+            if (i > 0) sb.append(',');
+            sb.append("{\"status\":").append(r.status).append(",\"body\":").append(r.body).append('}');
+        }
+        return new Response(200, sb.append(']').toString());
+    }
+
+    //ejecuta una operación y traduce las excepciones del sistema a códigos HTTP
+    private static Response apply(InventorySystem s, String op, HashTable<String, Object> args) {
+        try {
+            switch (op) {
+                case "get":
+                    return item(200, s.getItem(code(args)));
+                case "create": {
+                    String location = Json.string(args, "location");
+                    if (location == null) throw new IllegalArgumentException("Falta location");
+                    int quantity = Json.integer(args, "quantity", 0);
+                    Item item = new Item(code(args), Json.string(args, "name"), quantity, location);
+                    s.addItem(item);
+                    return item(201, item);
+                }
+                case "update": {
+                    Item item = s.getItem(code(args));
+                    int quantity = Json.integer(args, "quantity", item.getQuantity());
+                    if (quantity < 0) throw new IllegalArgumentException("Cantidad no puede ser negativa");
+                    String location = Json.string(args, "location");
+                    if (quantity > item.getQuantity()) item.addStock(quantity - item.getQuantity());
+                    else if (quantity < item.getQuantity()) item.removeStock(item.getQuantity() - quantity);
+                    if (location != null) item.setLocation(location);
+                    return item(200, item);
+                }
+                case "delete":
+                    s.removeItem(code(args));
+                    return new Response(200, Json.quote(new StringBuilder("{\"deleted\":"), code(args)).append('}').toString());
+                case "reserve": {
+                    String code = code(args);
+                    if (!s.reserveStock(code, Json.integer(args, "quantity", 0))) {
+                        return Response.error(409, "stock insuficiente: quedan " + s.getItem(code).getQuantity());
+                    }
+                    return item(200, s.getItem(code));
+                }
+                case "release": {
+                    int quantity = Json.integer(args, "quantity", 0);
+                    if (quantity <= 0) throw new IllegalArgumentException("Cantidad a devolver inválida: " + quantity);
+                    Item item = s.getItem(code(args));
+                    item.addStock(quantity);
+                    return item(200, item);
+                }
+                case "range": {
+                    Iterator<Item> it = s.iterateItems(Json.string(args, "from"), Json.string(args, "to"));
+                    int limit = limit(args);
+                    StringBuilder sb = new StringBuilder("[");
+                    for (int n = 0; n < limit && it.hasNext(); n++) {
+                        if (n > 0) sb.append(',');
+                        itemJson(sb, it.next());
+                    }
+                    return new Response(200, sb.append(']').toString());
+                }
+                case "prefix": {
+                    String prefix = Json.string(args, "prefix");
+                    if (prefix == null) throw new IllegalArgumentException("Falta prefix");
+                    return new Response(200, items(s.searchByCode(prefix, limit(args))));
+                }
+                case "route": {
+                    String from = Json.string(args, "from"), to = Json.string(args, "to");
+                    if (from == null || to == null) throw new IllegalArgumentException("Faltan from y to");
+                    LinkedList<String> path = s.findRoute(from, to);
+                    StringBuilder sb = new StringBuilder("{\"from\":");
+                    Json.quote(sb, from).append(",\"to\":");
+                    Json.quote(sb, to).append(",\"reachable\":").append(path.size() > 1 || from.equals(to)).append(",\"path\":[");
+                    Object[] steps = path.toArray();
+                    for (int i = 0; i < steps.length; i++) {
+                        if (i > 0) sb.append(',');
+                        Json.quote(sb, (String) steps[i]);
+                    }
+                    return new Response(200, sb.append("]}").toString());
+                }
+                default:
+                    return Response.error(400, "operación desconocida: " + op);
+            }
+        } catch (ItemNotFound | IsEmpty e) {
+            return Response.error(404, e.getMessage());
+        } catch (ItemDuplicated e) {
+            return Response.error(409, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {//p.ej. UncheckedIOException del índice persistente
+            return Response.error(500, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static String code(HashTable<String, Object> args) {
+        String code = Json.string(args, "code");
+        if (code == null || code.isEmpty()) throw new IllegalArgumentException("Falta code");
+        return code;
+    }
+
+    private static int limit(HashTable<String, Object> args) {
+        int limit = Json.integer(args, "limit", DEFAULT_LIMIT);
+        if (limit < 1 || limit > MAX_LIMIT) throw new IllegalArgumentException("limit fuera de [1, " + MAX_LIMIT + "]");
+        return limit;
+    }
+
+    private static Response item(int status, Item item) {
+        return new Response(status, itemJson(new StringBuilder(96), item).toString());
+    }
+
+    private static String items(LinkedList<Item> list) {
+        StringBuilder sb = new StringBuilder("[");
+        Object[] array = list.toArray();
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) sb.append(',');
+            itemJson(sb, (Item) array[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static StringBuilder itemJson(StringBuilder sb, Item item) {
+        sb.append("{\"code\":");
+        Json.quote(sb, item.getCode()).append(",\"name\":");
+        Json.quote(sb, item.getName()).append(",\"quantity\":").append(item.getQuantity()).append(",\"location\":");
+        return Json.quote(sb, item.getLocation()).append('}');
+    }
+
+    // ------------------------------------------------------------ HTTP
+
+    private static String body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY + 1);
+            if (bytes.length > MAX_BODY) throw new IllegalArgumentException("Cuerpo mayor a " + MAX_BODY + " bytes");
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    //parámetros de la consulta; limit se convierte a número
+    private static HashTable<String, Object> query(HttpExchange exchange) {
+        HashTable<String, Object> args = new HashTable<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return args;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (key.equals("limit")) {
+                try {
+                    put(args, key, Long.parseLong(value));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("limit debe ser un entero");
+                }
+            } else {
+                put(args, key, value);
+            }
+        }
+        return args;
+    }
+
+    //pone o reemplaza el valor de la clave
+    private static void put(HashTable<String, Object> args, String key, Object value) {
+        try {
+            if (args.containsKey(key)) args.remove(key);
+            args.put(key, value);
+        } catch (ItemNotFound | ItemDuplicated impossible) {
+            // se verificó la clave antes
+        }
+    }
+
+    private static Response notAllowed() {
+        return Response.error(405, "método no permitido");
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);//longitud fija: la conexión sigue abierta
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package server;
+
+import exceptions.ItemDuplicated;
+import java.util.Arrays;
+import list.HashTable;
+
+/**
+ * JSON mínimo para el servicio HTTP. parse devuelve HashTable para los
+ * objetos, Object[] para los arreglos, String, Long o Double para los
+ * números, Boolean y null. Los errores de sintaxis se informan con
+ * IllegalArgumentException (el servidor responde 400).
+ */
+final class Json {
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int pos;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /** @return el valor del documento completo */
+    static Object parse(String text) {
+        Json p = new Json(text);
+        Object value = p.value();
+        p.skipSpaces();
+        if (p.pos != text.length()) throw p.error("texto después del valor");
+        return value;
+    }
+
+    /** Agrega s como cadena JSON (null si s es null). */
+    static StringBuilder quote(StringBuilder sb, String s) {
+        if (s == null) return sb.append("null");
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    /** @return el campo de texto, o null si falta */
+    static String string(HashTable<String, Object> obj, String key) {
+        Object v = obj.getOrDefault(key, null);
+        if (v == null || v instanceof String) return (String) v;
+        throw new IllegalArgumentException(key + " debe ser texto");
+    }
+
+    /** @return el campo entero, o fallback si falta */
+    static int integer(HashTable<String, Object> obj, String key, int fallback) {
+        Object v = obj.getOrDefault(key, null);
+        if (v == null) return fallback;
+        if (!(v instanceof Long) || (Long) v != ((Long) v).intValue()) throw new IllegalArgumentException(key + " debe ser un entero");
+        return ((Long) v).intValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    static HashTable<String, Object> object(Object v, String what) {
+        if (v instanceof HashTable) return (HashTable<String, Object>) v;
+        throw new IllegalArgumentException(what + " debe ser un objeto");
+    }
+
+    private Object value() {
+        skipSpaces();
+        if (pos == text.length()) throw error("fin inesperado");
+        char c = text.charAt(pos);
+        if ((c == '{' || c == '[') && depth == MAX_DEPTH) throw error("anidamiento mayor a " + MAX_DEPTH);
+        switch (c) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return number();
+                throw error("valor inesperado");
+        }
+    }
+
+    private HashTable<String, Object> object() {
+        HashTable<String, Object> obj = new HashTable<>();
+        pos++;
+        skipSpaces();
+        if (peek() == '}') {
+            pos++;
+            return obj;
+        }
+        depth++;
+        while (true) {
+            skipSpaces();
+            if (peek() != '"') throw error("se esperaba una clave");
+            String key = string();
+            skipSpaces();
+            if (peek() != ':') throw error("se esperaba ':'");
+            pos++;
+            try {
+                obj.put(key, value());
+            } catch (ItemDuplicated e) {
+                throw error("clave repetida: " + key);
+            }
+            skipSpaces();
+            char c = peek();
+            pos++;
+            if (c == '}') {
+                depth--;
+                return obj;
+            }
+            if (c != ',') throw error("se esperaba ',' o '}'");
+        }
+    }
+
+    private Object[] array() {
+        Object[] items = new Object[8];
+        int n = 0;
+        pos++;
+        skipSpaces();
+        if (peek() == ']') {
+            pos++;
+            return new Object[0];
+        }
+        depth++;
+        while (true) {
+            if (n == items.length) items = Arrays.copyOf(items, n * 2);
+            items[n++] = value();
+            skipSpaces();
+            char c = peek();
+            pos++;
+            if (c == ']') {
+                depth--;
+                return Arrays.copyOf(items, n);
+            }
+            if (c != ',') throw error("se esperaba ',' o ']'");
+        }
+    }
+
+    private String string() {
+        pos++;
+        int start = pos;
+        while (pos < text.length() && text.charAt(pos) != '"' && text.charAt(pos) != '\\') pos++;
+        if (pos < text.length() && text.charAt(pos) == '"') return text.substring(start, pos++);//sin escapes
+        StringBuilder sb = new StringBuilder(text.substring(start, pos));
+        while (true) {
+            if (pos >= text.length()) throw error("cadena sin cerrar");
+            char c = text.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= text.length()) throw error("cadena sin cerrar");
+            c = text.charAt(pos++);
+            switch (c) {
+                case '"': case '\\': case '/': sb.append(c); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) throw error("escape \\u inválido");
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("escape \\u inválido");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("escape inválido");
+            }
+        }
+    }
+
+    private Object number() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E' || c == '+') decimal = true;
+            else if (c != '-' && (c < '0' || c > '9')) break;
+            pos++;
+        }
+        String s = text.substring(start, pos);
+        try {
+            return decimal ? (Object) Double.parseDouble(s) : (Object) Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw error("número inválido: " + s);
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) throw error("valor inesperado");
+        pos += word.length();
+        return value;
+    }
+
+    private char peek() {
+        if (pos >= text.length()) throw error("fin inesperado");
+        return text.charAt(pos);
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON inválido en la posición " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,167 @@
+package sistema;
+
+import exceptions.IsEmpty;
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import list.HashTable;
+import list.LinkedList;
+import list.PostingList;
+import modelo.CategoryListener;
+import modelo.Record;
+
+/**
+ * Índice invertido categoría -> registros para el Sistema de Gestión y Optimización de Inventarios en Almacenes.
+ * Cada registro recibe un id entero secuencial; cada categoría guarda una
+ * {@link PostingList} comprimida y ordenada con los ids que la tienen.
+ * Las consultas AND se resuelven intersectando listas (costo guiado por la
+ * categoría más rara) y las OR mezclando listas.
+ * Los ids no se reutilizan, así las altas siempre se agregan al final de la lista.
+ */
+public class CategoryIndex implements CategoryListener {
+    private final HashTable<String, Integer> idsByCode;
+    private final HashTable<String, PostingList> postings;
+    private Record[] recordsById;
+    private int nextId;
+
+    public CategoryIndex() {
+        idsByCode = new HashTable<>();
+        postings = new HashTable<>();
+        recordsById = new Record[16];
+        nextId = 0;
+    }
+
+    /**
+     * Indexa un registro con todas sus categorías actuales.
+     * @throws ItemDuplicated si el código ya estaba indexado
+     */
+    public void add(Record record) throws ItemDuplicated {
+        int id = nextId++;
+        idsByCode.put(record.getCode(), id);
+        if (id == recordsById.length) {
+            Record[] bigger = new Record[recordsById.length * 2];
+            System.arraycopy(recordsById, 0, bigger, 0, recordsById.length);
+            recordsById = bigger;
+        }
+        recordsById[id] = record;
+        for (int i = 0; i < record.getCategories().size(); i++) {
+            try {
+                postingFor(record.getCategories().get(i)).add(id);
+            } catch (IsEmpty | ItemNotFound ignored) {
+                // índice dentro del rango de la lista
+            }
+        }
+        record.setListener(this);
+    }
+
+    /**
+     * Quita un registro de todas sus listas de categorías.
+     * @throws ItemNotFound si el código no estaba indexado
+     */
+    public void remove(Record record) throws ItemNotFound {
+        int id = idsByCode.remove(record.getCode());
+        for (int i = 0; i < record.getCategories().size(); i++) {
+            try {
+                dropFrom(record.getCategories().get(i), id);
+            } catch (IsEmpty ignored) {
+                // índice dentro del rango de la lista
+            }
+        }
+        recordsById[id] = null;
+        record.setListener(null);
+    }
+
+    @Override
+    public void categoryAdded(Record record, String category) {
+        try {
+            postingFor(category).add(idsByCode.get(record.getCode()));
+        } catch (ItemNotFound | ItemDuplicated ignored) {
+            // el registro está indexado mientras tiene este observador
+        }
+    }
+
+    @Override
+    public void categoryRemoved(Record record, String category) {
+        try {
+            dropFrom(category, idsByCode.get(record.getCode()));
+        } catch (ItemNotFound ignored) {
+            // el registro está indexado mientras tiene este observador
+        }
+    }
+
+    /** @return cantidad de registros con la categoría dada */
+    public int count(String category) {
+        try {
+            return postings.get(category).size();
+        } catch (ItemNotFound e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Registros que tienen TODAS las categorías indicadas (AND).
+     * @return lista en orden de alta (vacía si alguna categoría no existe)
+     */
+    public LinkedList<Record> all(String... categories) {
+        PostingList[] lists = new PostingList[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            try {
+                lists[i] = postings.get(categories[i]);
+            } catch (ItemNotFound e) {
+                return new LinkedList<>();
+            }
+        }
+        return toRecords(PostingList.intersect(lists));
+    }
+
+    /**
+     * Registros que tienen AL MENOS UNA de las categorías indicadas (OR).
+     * @return lista en orden de alta y sin repetidos
+     */
+    public LinkedList<Record> any(String... categories) {
+        PostingList[] lists = new PostingList[categories.length];
+        int n = 0;
+        for (String category : categories) {
+            try {
+                lists[n++] = postings.get(category);
+            } catch (ItemNotFound e) {
+                n--; // categoría inexistente: no aporta ids
+            }
+        }
+        PostingList[] present = new PostingList[n];
+        System.arraycopy(lists, 0, present, 0, n);
+        return toRecords(PostingList.union(present));
+    }
+
+    private PostingList postingFor(String category) throws ItemDuplicated {
+        try {
+            return postings.get(category);
+        } catch (ItemNotFound e) {
+            PostingList list = new PostingList();
+            postings.put(category, list);
+            return list;
+        }
+    }
+
+    private void dropFrom(String category, int id) {
+        try {
+            PostingList list = postings.get(category);
+            list.remove(id);
+            if (list.isEmpty()) postings.remove(category);
+        } catch (ItemNotFound ignored) {
+            // la categoría ya no tenía ids
+        }
+    }
+
+    // se arma de atrás hacia adelante: add(0, x) en LinkedList es O(1)
+    private LinkedList<Record> toRecords(int[] ids) {
+        LinkedList<Record> result = new LinkedList<>();
+        for (int i = ids.length - 1; i >= 0; i--) {
+            try {
+                result.add(0, recordsById[ids[i]]);
+            } catch (ItemDuplicated ignored) {
+                // LinkedList no valida duplicados
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package sistema;
+
+/**
+ * Evento inmutable del {@link ChangeFeed}. Los campos que usa cada tipo:
+ * <pre>
+ * ITEM_ADDED        key=código  value=ubicación            newQuantity
+ * ITEM_REMOVED      key=código  value=ubicación            oldQuantity
+ * STOCK_CHANGED     key=código  value=ubicación            oldQuantity, newQuantity, count=cambios fusionados
+ * LOCATION_CHANGED  key=código  value=nueva ubicación      previous=ubicación anterior
+ * ROUTE_OPENED      key=origen  value=destino              weight
+ * ROUTE_CLOSED      key=origen  value=destino
+ * GAP               count=eventos perdidos (desde sequence) por atrasarse
+ * </pre>
+ */
+public final class ChangeEvent {
+    /** Tipo de cambio. */
+    public enum Type {
+        ITEM_ADDED, ITEM_REMOVED, STOCK_CHANGED, LOCATION_CHANGED, ROUTE_OPENED, ROUTE_CLOSED,
+        /** El suscriptor se atrasó más que la capacidad del feed: debe reconstruir su vista. */
+        GAP
+    }
+
+    private final long sequence;
+    private final long timestamp;
+    private final Type type;
+    private final String key;
+    private final String value;
+    private final String previous;
+    private final int oldQuantity;
+    private final int newQuantity;
+    private final double weight;
+    private final long count;
+
+    ChangeEvent(long sequence, long timestamp, Type type, String key, String value, String previous,
+                int oldQuantity, int newQuantity, double weight, long count) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.key = key;
+        this.value = value;
+        this.previous = previous;
+        this.oldQuantity = oldQuantity;
+        this.newQuantity = newQuantity;
+        this.weight = weight;
+        this.count = count;
+    }
+
+    /** @return número de secuencia (crece de a uno; en GAP, el primero perdido) */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /** @return momento de publicación (epoch en milisegundos) */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** @return código del ítem u origen de la ruta */
+    public String getKey() {
+        return key;
+    }
+
+    /** @return ubicación del ítem o destino de la ruta */
+    public String getValue() {
+        return value;
+    }
+
+    /** @return ubicación anterior (LOCATION_CHANGED) */
+    public String getPrevious() {
+        return previous;
+    }
+
+    public int getOldQuantity() {
+        return oldQuantity;
+    }
+
+    public int getNewQuantity() {
+        return newQuantity;
+    }
+
+    /** @return peso de la ruta abierta */
+    public double getWeight() {
+        return weight;
+    }
+
+    /** @return cambios de stock fusionados (STOCK_CHANGED) o eventos perdidos (GAP); 1 en los demás */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append('#').append(sequence).append(' ').append(type);
+        switch (type) {
+            case ITEM_ADDED: return sb.append(' ').append(key).append(" @").append(value).append(" q=").append(newQuantity).toString();
+            case ITEM_REMOVED: return sb.append(' ').append(key).append(" @").append(value).append(" q=").append(oldQuantity).toString();
+            case STOCK_CHANGED:
+                sb.append(' ').append(key).append(' ').append(oldQuantity).append("->").append(newQuantity);
+                return count > 1 ? sb.append(" (x").append(count).append(')').toString() : sb.toString();
+            case LOCATION_CHANGED: return sb.append(' ').append(key).append(' ').append(previous).append("->").append(value).toString();
+            case ROUTE_OPENED: return sb.append(' ').append(key).append('-').append(value).append(" w=").append(weight).toString();
+            case ROUTE_CLOSED: return sb.append(' ').append(key).append('-').append(value).toString();
+            default: return sb.append(" perdidos=").append(count).toString();
+        }
+    }
+}
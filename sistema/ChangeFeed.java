@@ -0,0 +1,362 @@
+package sistema;
+
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import list.HashTable;
+import modelo.Item;
+
+/**
+ * Feed de cambios (CDC) de InventorySystem: altas, bajas, cambios de stock y
+ * de ubicación y rutas abiertas o cerradas se publican como
+ * {@link ChangeEvent} con número de secuencia en un buffer circular.
+ * Cada suscriptor lleva su propio cursor y consume a su ritmo con poll, así
+ * puede mantener una vista derivada (stock por zona, tablero...) sin
+ * recorrer el inventario. Si un suscriptor se atrasa más que la capacidad:
+ * - con BLOCK el sistema espera a que avance (contrapresión: nunca pierde
+ *   eventos, pero el suscriptor no debe correr en el hilo que modifica el sistema),
+ * - con DROP_OLDEST se pisan los eventos viejos y el suscriptor recibe un
+ *   GAP con la cantidad perdida, señal para reconstruir su vista.
+ * Con una ventana de fusión mayor a cero los cambios de stock de un mismo
+ * código dentro de la ventana salen como un solo STOCK_CHANGED (cantidad
+ * inicial y final); un cambio neto nulo no se publica. El orden se respeta
+ * por código: cualquier otro evento del código publica antes su stock
+ * pendiente. Entre códigos distintos un cambio de stock puede salir después
+ * de eventos posteriores de otros códigos.
+ * Sin suscriptores no se guarda nada.
+ */
+public class ChangeFeed {
+    /** Qué hacer cuando el suscriptor más lento tiene el buffer lleno. */
+    public enum Overflow { BLOCK, DROP_OLDEST }
+
+    /** Capacidad por omisión, en eventos. */
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final long BLOCK_PARK_NANOS = 20_000L;
+
+    /** Cambio de stock en espera de la ventana; cola FIFO intrusiva. */
+    private static final class Pending {
+        final String code;
+        final String location;
+        final int oldQuantity;
+        int newQuantity;
+        long count = 1;
+        final long since;
+        boolean done;
+        Pending next;
+
+        Pending(String code, String location, int oldQuantity, int newQuantity, long since) {
+            this.code = code;
+            this.location = location;
+            this.oldQuantity = oldQuantity;
+            this.newQuantity = newQuantity;
+            this.since = since;
+        }
+    }
+
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private final Overflow overflow;
+    private final long windowNanos;
+    private final ReentrantLock lock = new ReentrantLock();//productores y vaciado de la ventana
+    private final Object subscribersLock = new Object();//close no toma lock: el productor puede estar esperando en BLOCK
+    private volatile long published;//última secuencia publicada (0 = ninguna)
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private final HashTable<String, Pending> pending = new HashTable<>();
+    private Pending oldest, newest;
+    private long coalesced;
+
+    /** Feed con la capacidad por omisión, sin fusión y DROP_OLDEST. */
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY, 0, Overflow.DROP_OLDEST);
+    }
+
+    /**
+     * @param capacity eventos retenidos (potencia de 2 siguiente)
+     * @param coalesceWindowMillis ventana de fusión de cambios de stock (0 = sin fusión)
+     * @param overflow política con el buffer lleno
+     */
+    public ChangeFeed(int capacity, long coalesceWindowMillis, Overflow overflow) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacidad inválida: " + capacity);
+        if (coalesceWindowMillis < 0) throw new IllegalArgumentException("Ventana inválida: " + coalesceWindowMillis);
+        int cap = Integer.highestOneBit(capacity);
+        if (cap < capacity) cap <<= 1;
+        ring = new AtomicReferenceArray<>(cap);
+        mask = cap - 1;
+        this.overflow = overflow;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis);
+    }
+
+    /** Suscripción que recibe los eventos publicados desde ahora. */
+    public Subscription subscribe() {
+        lock.lock();
+        try {
+            return register(published + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suscripción que empieza en la secuencia dada (p.ej. la última que
+     * procesó un consumidor que se reinicia). Si esos eventos ya no están en
+     * el buffer el primer poll devuelve un GAP.
+     */
+    public Subscription subscribe(long fromSequence) {
+        if (fromSequence < 1) throw new IllegalArgumentException("Secuencia inválida: " + fromSequence);
+        lock.lock();
+        try {
+            return register(Math.min(fromSequence, published + 1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Publica ya los cambios de stock que esperan la ventana de fusión. */
+    public void flush() {
+        lock.lock();
+        try {
+            while (oldest != null) emit(popOldest());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return última secuencia publicada (0 si ninguna) */
+    public long lastSequence() {
+        return published;
+    }
+
+    /** @return capacidad real del buffer */
+    public int capacity() {
+        return ring.length();
+    }
+
+    /** @return suscripciones abiertas */
+    public int subscriberCount() {
+        return subscriptions.length;
+    }
+
+    /** @return cambios de stock absorbidos por la fusión */
+    public long coalesced() {
+        lock.lock();
+        try {
+            return coalesced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ------------------------------------------ productores (InventorySystem)
+
+    void itemAdded(Item item) {
+        publish(ChangeEvent.Type.ITEM_ADDED, item.getCode(), item.getLocation(), null, 0, item.getQuantity(), 0);
+    }
+
+    void itemRemoved(Item item) {
+        publish(ChangeEvent.Type.ITEM_REMOVED, item.getCode(), item.getLocation(), null, item.getQuantity(), 0, 0);
+    }
+
+    void locationChanged(Item item, String oldLocation, String newLocation) {
+        publish(ChangeEvent.Type.LOCATION_CHANGED, item.getCode(), newLocation, oldLocation, item.getQuantity(), item.getQuantity(), 0);
+    }
+
+    void routeChanged(String from, String to, boolean opened, double weight) {
+        publish(opened ? ChangeEvent.Type.ROUTE_OPENED : ChangeEvent.Type.ROUTE_CLOSED, from, to, null, 0, 0, opened ? weight : 0);
+    }
+
+    void stockChanged(Item item, int oldQuantity, int newQuantity) {
+        if (subscriptions.length == 0) return;
+        if (windowNanos == 0) {
+            publish(ChangeEvent.Type.STOCK_CHANGED, item.getCode(), item.getLocation(), null, oldQuantity, newQuantity, 0);
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            expire(now);
+            Pending p = pending.getOrDefault(item.getCode(), null);
+            if (p != null) {
+                p.newQuantity = newQuantity;
+                p.count++;
+                coalesced++;
+                return;
+            }
+            p = new Pending(item.getCode(), item.getLocation(), oldQuantity, newQuantity, now);
+            try {
+                pending.put(p.code, p);
+            } catch (ItemDuplicated impossible) {
+                // se verificó que no estaba
+            }
+            if (newest == null) oldest = p;
+            else newest.next = p;
+            newest = p;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(ChangeEvent.Type type, String key, String value, String previous,
+                         int oldQuantity, int newQuantity, double weight) {
+        if (subscriptions.length == 0) return;
+        lock.lock();
+        try {
+            expire(System.nanoTime());
+            if (type != ChangeEvent.Type.ROUTE_OPENED && type != ChangeEvent.Type.ROUTE_CLOSED) {
+                Pending p = pending.getOrDefault(key, null);//el stock pendiente del código sale antes
+                if (p != null) emit(p);
+            }
+            append(type, key, value, previous, oldQuantity, newQuantity, weight, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //publica los pendientes cuya ventana venció; con el lock tomado
+    private void expire(long now) {
+        while (oldest != null && (oldest.done || now - oldest.since >= windowNanos)) {
+            Pending p = popOldest();
+            if (!p.done) emit(p);
+        }
+    }
+
+    private Pending popOldest() {
+        Pending p = oldest;
+        oldest = p.next;
+        if (oldest == null) newest = null;
+        p.next = null;
+        return p;
+    }
+
+    private void emit(Pending p) {
+        if (p.done) return;
+        p.done = true;//si sigue en la cola FIFO se descarta al llegar al frente
+        try {
+            pending.remove(p.code);
+        } catch (ItemNotFound impossible) {
+            // todo pendiente no emitido está en la tabla
+        }
+        if (p.newQuantity == p.oldQuantity) return;//cambio neto nulo
+        append(ChangeEvent.Type.STOCK_CHANGED, p.code, p.location, null, p.oldQuantity, p.newQuantity, 0, p.count);
+    }
+
+    //escribe el evento en la siguiente secuencia; con el lock tomado
+    private void append(ChangeEvent.Type type, String key, String value, String previous,
+                        int oldQuantity, int newQuantity, double weight, long count) {
+        long seq = published + 1;
+        if (overflow == Overflow.BLOCK) {
+            while (seq - slowest() >= ring.length()) LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        ring.set((int) seq & mask, new ChangeEvent(seq, System.currentTimeMillis(), type, key, value, previous,
+                                                   oldQuantity, newQuantity, weight, count));
+        published = seq;
+    }
+
+    //menor secuencia pendiente de leer entre las suscripciones
+    private long slowest() {
+        long min = Long.MAX_VALUE;
+        for (Subscription s : subscriptions) min = Math.min(min, s.next);
+        return min;
+    }
+
+    private Subscription register(long next) {
+        Subscription s = new Subscription(next);
+        synchronized (subscribersLock) {
+            Subscription[] copy = new Subscription[subscriptions.length + 1];
+            System.arraycopy(subscriptions, 0, copy, 0, subscriptions.length);
+            copy[copy.length - 1] = s;
+            subscriptions = copy;
+        }
+        return s;
+    }
+
+    private void unregister(Subscription s) {
+        synchronized (subscribersLock) {
+            Subscription[] current = subscriptions;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != s) continue;
+                Subscription[] copy = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, copy, 0, i);
+                System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                subscriptions = copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cursor de un consumidor sobre el feed. Cada suscripción debe leerse
+     * desde un solo hilo; distintas suscripciones son independientes.
+     */
+    public final class Subscription implements AutoCloseable {
+        private volatile long next;//siguiente secuencia a leer
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Copia en out los eventos disponibles, sin esperar. Si el consumidor
+         * perdió eventos (DROP_OLDEST) devuelve primero un GAP.
+         * @return cantidad de eventos copiados
+         */
+        public int poll(ChangeEvent[] out) {
+            if (windowNanos > 0 && oldest != null && lock.tryLock()) {//vence la ventana aunque no haya más cambios
+                try {
+                    expire(System.nanoTime());
+                } finally {
+                    lock.unlock();
+                }
+            }
+            int n = 0;
+            long last = published;
+            long cursor = next;
+            while (n < out.length && cursor <= last) {
+                ChangeEvent e = ring.get((int) cursor & mask);
+                if (e == null || e.getSequence() != cursor) {//pisado por una vuelta posterior
+                    long first = published - ring.length() + 1;
+                    out[n++] = new ChangeEvent(cursor, System.currentTimeMillis(), ChangeEvent.Type.GAP,
+                                               null, null, null, 0, 0, 0, first - cursor);
+                    cursor = first;
+                    continue;
+                }
+                out[n++] = e;
+                cursor++;
+            }
+            next = cursor;
+            return n;
+        }
+
+        /**
+         * Como poll(out) pero espera hasta timeoutMillis a que haya eventos.
+         * @return cantidad de eventos copiados (0 si venció el plazo)
+         */
+        public int poll(ChangeEvent[] out, long timeoutMillis) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (true) {
+                int n = poll(out);
+                if (n > 0 || System.nanoTime() - deadline >= 0) return n;
+                LockSupport.parkNanos(this, 100_000L);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+        }
+
+        /** @return siguiente secuencia que devolverá poll */
+        public long position() {
+            return next;
+        }
+
+        /** @return eventos publicados que aún no leyó */
+        public long lag() {
+            return published - next + 1;
+        }
+
+        /** Deja de recibir eventos (y de frenar al productor con BLOCK). */
+        @Override
+        public void close() {
+            unregister(this);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package sistema;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import list.RingBuffer;
+import modelo.Item;
+
+/**
+ * Fachada asíncrona de InventorySystem basada en una cola de comandos.
+ * Muchos hilos productores encolan comandos en un {@link RingBuffer} acotado
+ * y un único hilo escritor los aplica en lotes sobre el sistema; cada
+ * comando devuelve un CompletableFuture con su resultado o con la excepción
+ * del sistema (ItemNotFound, ItemDuplicated, ...).
+ * Como solo el escritor toca InventorySystem no hace falta ningún bloqueo,
+ * y drenar en lotes amortiza el costo de despertar y coordinar hilos.
+ * Mientras la cola está abierta nadie más debe usar el sistema directamente.
+ * Los futuros se completan en el hilo escritor: las continuaciones pesadas
+ * deben usar las variantes *Async para no frenar la cola.
+ */
+public class CommandQueue implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int DEFAULT_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    /** Operación a ejecutar sobre el sistema en el hilo escritor. */
+    public interface Operation<R> {
+        R apply(InventorySystem system) throws Exception;
+    }
+
+    /** Comando encolado: operación más su futuro de respuesta. */
+    private static final class Command<R> {
+        final Operation<R> operation;
+        final CompletableFuture<R> result = new CompletableFuture<>();
+
+        Command(Operation<R> operation) {
+            this.operation = operation;
+        }
+
+        void run(InventorySystem system) {
+            try {
+                result.complete(operation.apply(system));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final InventorySystem system;
+    private final RingBuffer<Command<?>> queue;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    /** Cola con capacidad y tamaño de lote por defecto. */
+    public CommandQueue(InventorySystem system) {
+        this(system, DEFAULT_CAPACITY, DEFAULT_BATCH);
+    }
+
+    /**
+     * @param system sistema sobre el que se aplican los comandos
+     * @param capacity capacidad de la cola (potencia de 2 siguiente)
+     * @param batchSize máximo de comandos aplicados por vuelta del escritor
+     */
+    public CommandQueue(InventorySystem system, int capacity, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Lote inválido: " + batchSize);
+        this.system = system;
+        this.queue = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::drainLoop, "inventory-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Encola addItem. */
+    public CompletableFuture<Void> addItem(Item item) {
+        return submit(s -> {
+            s.addItem(item);
+            return null;
+        });
+    }
+
+    /** Encola removeItem; el futuro indica si el ítem existía. */
+    public CompletableFuture<Boolean> removeItem(String code) {
+        return submit(s -> s.removeItem(code));
+    }
+
+    /** Encola getItem; falla con ItemNotFound si no existe. */
+    public CompletableFuture<Item> getItem(String code) {
+        return submit(s -> s.getItem(code));
+    }
+
+    /** Encola un ingreso de stock; el futuro trae la cantidad resultante. */
+    public CompletableFuture<Integer> addStock(String code, int amount) {
+        return submit(s -> {
+            Item it = s.getItem(code);
+            it.addStock(amount);
+            return it.getQuantity();
+        });
+    }
+
+    /** Encola un retiro de stock; el futuro trae la cantidad resultante. */
+    public CompletableFuture<Integer> removeStock(String code, int amount) {
+        return submit(s -> {
+            Item it = s.getItem(code);
+            it.removeStock(amount);
+            return it.getQuantity();
+        });
+    }
+
+    /** Encola una reserva de stock; el futuro indica si el stock alcanzó. */
+    public CompletableFuture<Boolean> reserveStock(String code, int amount) {
+        return submit(s -> s.reserveStock(code, amount));
+    }
+
+    /**
+     * Encola la apertura o cierre de una ruta "A-B" con peso 1. A diferencia
+     * de InventorySystem.toggleEdge no imprime nada: el error (formato
+     * inválido, ubicación o ruta inexistente, ruta repetida) viaja en el futuro.
+     */
+    public CompletableFuture<Void> toggleEdge(String edge, boolean enable) {
+        String[] parts = edge.split("-");
+        if (parts.length != 2) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("Ruta inválida, se esperaba A-B: " + edge));
+            return failed;
+        }
+        return setEdge(parts[0], parts[1], enable, 1.0);
+    }
+
+    /** Encola la apertura (con el peso dado) o cierre de la ruta from-to. */
+    public CompletableFuture<Void> setEdge(String from, String to, boolean enable, double weight) {
+        return submit(s -> {
+            s.setEdge(from, to, enable, weight);
+            return null;
+        });
+    }
+
+    /** @return comandos pendientes (aproximado) */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Deja de aceptar comandos, aplica los pendientes y detiene el escritor.
+     * Si el hilo que cierra es interrumpido igual espera al escritor (los
+     * pendientes son finitos) y vuelve con la marca de interrupción puesta.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        Command<?> late;
+        while ((late = queue.poll()) != null) {//encolados en carrera con el cierre
+            late.result.completeExceptionally(new IllegalStateException("Cola de comandos cerrada"));
+        }
+    }
+
+    /**
+     * Encola una operación arbitraria; se aplica sola en el hilo escritor,
+     * así que puede combinar varias llamadas al sistema sin que otro comando
+     * se intercale (p.ej. leer un ítem y serializarlo).
+     */
+    public <R> CompletableFuture<R> submit(Operation<R> operation) {
+        Command<R> cmd = new Command<>(operation);
+        if (!running) {
+            cmd.result.completeExceptionally(new IllegalStateException("Cola de comandos cerrada"));
+            return cmd.result;
+        }
+        int spins = 0;
+        while (!queue.offer(cmd)) {//cola llena: contrapresión sobre el productor
+            if (!running) {
+                cmd.result.completeExceptionally(new IllegalStateException("Cola de comandos cerrada"));
+                return cmd.result;
+            }
+            if (++spins < 64) Thread.onSpinWait();
+            else LockSupport.parkNanos(10_000L);
+        }
+        if (parked) LockSupport.unpark(writer);
+        if (!running && !writer.isAlive()) {//el escritor ya terminó: nadie aplicará este comando
+            cmd.result.completeExceptionally(new IllegalStateException("Cola de comandos cerrada"));
+        }
+        return cmd.result;
+    }
+
+    private void drainLoop() {
+        @SuppressWarnings("unchecked")
+        Command<?>[] batch = new Command[batchSize];
+        while (true) {
+            int n = queue.drain(batch, batchSize);
+            for (int i = 0; i < n; i++) {
+                batch[i].run(system);
+                batch[i] = null;
+            }
+            if (n > 0) continue;
+            if (!running) {
+                if (queue.isEmpty()) return;
+                continue;
+            }
+            parked = true;
+            if (queue.isEmpty()) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            parked = false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package sistema;
+
+import list.LinkedList;
+
+/**
+ * Resultado de una importación masiva: filas leídas, importadas y rechazadas.
+ * Cada fila rechazada se cuenta, pero solo se guarda el mensaje de las
+ * primeras MAX_ERRORS para que un archivo muy dañado no llene la memoria.
+ */
+public class ImportReport {
+    /** Mensajes de error que se conservan como máximo. */
+    public static final int MAX_ERRORS = 100;
+
+    private long rows;
+    private long imported;
+    private long rejected;
+    private final LinkedList<String> errors = new LinkedList<>();
+
+    void row() {
+        rows++;
+    }
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) errors.add("línea " + line + ": " + message);
+    }
+
+    /** @return registros leídos (sin contar encabezado ni líneas en blanco) */
+    public long getRows() {
+        return rows;
+    }
+
+    /** @return ítems insertados en el sistema */
+    public long getImported() {
+        return imported;
+    }
+
+    /** @return filas rechazadas por formato inválido o código repetido */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** @return "línea N: motivo" de las primeras MAX_ERRORS filas rechazadas */
+    public LinkedList<String> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("filas=").append(rows).append(" importadas=").append(imported).append(" rechazadas=").append(rejected);
+        for (Object error : errors.toArray()) sb.append("\n  ").append(error);
+        if (rejected > errors.size()) sb.append("\n  ... y ").append(rejected - errors.size()).append(" más");
+        return sb.toString();
+    }
+}
@@ -2,22 +2,77 @@ package sistema;
 
 import exceptions.*;
 import graph.GraphLink;
+import graph.Heuristic;
+import graph.RouteTable;
+import graph.TourOptimizer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import list.*;
 import modelo.Item;
+import modelo.ItemListener;
+import modelo.Record;
 import tree.*;
 
 /**
  * InventorySystem para el Sistema de Gestión y Optimización de Inventarios en Almacenes.
  * Agrupa estructuras:
- * - B+ Tree para categorías de ítems,
+ * - B+ Tree de ítems ordenados por código,
  * - Grafo para ubicaciones,
- * - HashTable para búsqueda rápida.
+ * - HashTable para búsqueda rápida,
+ * - LocationIndex para consultar ítems y stock por ubicación,
+ * - registros (Record) con índice invertido de categorías,
+ * - SearchIndex para búsquedas por prefijo y aproximadas,
+ * - StockMonitor para stock bajo y alertas de reposición,
+ * - RouteTable opcional con rutas precalculadas entre ubicaciones clave,
+ * - Metrics con contadores y latencias de las operaciones principales,
+ * - índice persistente opcional por código (DiskBPlusTree) que sobrevive reinicios.
  */
 public class InventorySystem {
+    /** Ítems que importItems acumula antes de cada addItems. */
+    public static final int IMPORT_BATCH = 8192;
+
     private final BPlusTree<Item> bPlusTree;
     private final GraphLink<String> graph;
     private final HashTable<String, Item> hashTable;
     private final AVLTree<Item> avl;
+    private final LocationIndex locationIndex;
+    private final ItemListener tracker;
+    private final HashTable<String, Record> records;
+    private final CategoryIndex categoryIndex;
+    private final SearchIndex searchIndex;
+    private final StockMonitor stockMonitor;
+    private RouteTable<String> routeTable;
+    private RouteTable<String> simulationTable;//rutas desde "Entrada" para simulate, se reparan con cada cambio
+    private Heuristic<String> heuristic = Heuristic.zero();//sin escala conocida solo la nula es segura
+    private final Metrics metrics = new Metrics();
+    private DiskBPlusTree<String, Item> diskIndex;//copia en disco por código, null si no se abrió
+    private BoundedCache<String, Item> itemCache;//caché de getItem, null si no se habilitó
+    private BoundedCache.Loader<String, Item> itemLoader;
+    private ChangeFeed changeFeed;//feed de cambios, null si no se habilitó
+
+    /** Algoritmo de ruteo usado por simulate. */
+    public enum RoutingMode {
+        /** Dijkstra clásico (o la tabla precalculada si existe). */
+        DIJKSTRA,
+        /** A* guiado por las coordenadas de las ubicaciones (heurística de setRoutingHeuristic). */
+        A_STAR
+    }
 
     /**
      * Inicializa el sistema con estructuras vacías.
@@ -25,9 +80,15 @@ public class InventorySystem {
      */
     public InventorySystem() throws ItemDuplicated {
         bPlusTree = new BPlusTree<>();
-        graph     = new GraphLink<>();
+        graph     = new GraphLink<>(false);//los pasillos se recorren en ambos sentidos
         hashTable = new HashTable<>();
         avl       = new AVLTree<>();
+        locationIndex = new LocationIndex();
+        tracker   = new IndexTracker();
+        records   = new HashTable<>();
+        categoryIndex = new CategoryIndex();
+        searchIndex = new SearchIndex();
+        stockMonitor = new StockMonitor();
     }
 
     /**
@@ -35,27 +96,154 @@ public class InventorySystem {
      * - lo inserta en el B+ Tree,
      * - en la tabla hash,
      * - registra su ubicación en el grafo si aún no está,
-     * - lo inserta en el árbol AVL.
-     * @throws ItemDuplicated si el ítem ya existe en B+ Tree o AVL
+     * - lo inserta en el árbol AVL,
+     * - lo indexa por ubicación y observa sus movimientos y cambios de stock,
+     * - lo indexa por código y nombre para búsquedas,
+     * - lo ordena por cantidad en el monitor de stock.
+     * @throws ItemDuplicated si el código ya existe (no se toca ninguna estructura)
      * @throws ItemNotFound  
      * @throws IsEmpty       
      */
     public void addItem(Item item) throws IsEmpty, ItemNotFound, ItemDuplicated {
-        // 1) Árbol B+
-        bPlusTree.insert(item);
-        // 2) HashTable
-        hashTable.put(item.getCode(), item);
-        // 3) Grafo de ubicaciones
+        long t0 = metrics.start(Metrics.Op.ADD_ITEM);
+        try {
+            // el B+ Tree no rechaza códigos repetidos: se valida antes de insertar
+            if (hashTable.containsKey(item.getCode())) {
+                throw new ItemDuplicated("Clave duplicada: " + item.getCode());
+            }
+            // 1) Árbol B+
+            bPlusTree.insert(item);
+            // 2) HashTable
+            hashTable.put(item.getCode(), item);
+            // 3) Grafo de ubicaciones
+            try {
+                graph.addVertex(item.getLocation());
+            } catch (ItemDuplicated ignored) {
+                // la ubicación ya estaba presente, seguimos
+            }
+            // 4) Árbol AVL
+            try {
+                avl.insert(item);
+            } catch (ItemDuplicated ignored) {
+                // si ya existía en AVL, seguimos
+            }
+            // 5) Índice por ubicación
+            locationIndex.add(item);
+            item.setListener(tracker);
+            // 6) Índice de búsqueda
+            searchIndex.add(item);
+            // 7) Monitor de stock
+            stockMonitor.add(item);
+            // 8) Índice persistente
+            persist(item);
+            ChangeFeed feed = changeFeed;
+            if (feed != null) feed.itemAdded(item);
+        } finally {
+            metrics.stop(Metrics.Op.ADD_ITEM, t0);
+        }
+    }
+
+    /**
+     * Ingesta por lotes usando el pool común de fork-join.
+     * @see #addItems(Item[], Executor)
+     */
+    public void addItems(Item[] batch) throws IsEmpty, ItemNotFound, ItemDuplicated {
+        addItems(batch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Ingesta por lotes: las estructuras son independientes entre sí, así que
+     * cada una recibe el lote completo en su propio worker y el método espera
+     * a que todas terminen (barrera de confirmación) antes de volver.
+     * Cada estructura sigue siendo escrita por un solo hilo, por eso no
+     * necesitan sincronización; el rendimiento queda acotado por la más lenta
+     * del lote y no por la suma de todas en cada ítem.
+     * El lote se valida antes de tocar ninguna estructura: si un código está
+     * repetido (en el lote o en el sistema) no se inserta nada.
+     * En las métricas el lote se mide como ADD_ITEMS y sus ítems se suman a ADD_ITEM.
+     * @param batch ítems a insertar
+     * @param executor ejecutor de los workers
+     * @throws ItemDuplicated si algún código ya existe o se repite en el lote
+     */
+    public void addItems(Item[] batch, Executor executor) throws IsEmpty, ItemNotFound, ItemDuplicated {
+        long t0 = metrics.start(Metrics.Op.ADD_ITEMS);
+        try {
+            insertBatch(batch, executor);
+            metrics.add(Metrics.Op.ADD_ITEM, batch.length);//solo lotes confirmados
+        } finally {
+            metrics.stop(Metrics.Op.ADD_ITEMS, t0);
+        }
+    }
+
+    private void insertBatch(Item[] batch, Executor executor) throws IsEmpty, ItemNotFound, ItemDuplicated {
+        HashTable<String, Item> seen = new HashTable<>(batch.length);
+        for (Item item : batch) {
+            if (hashTable.containsKey(item.getCode())) {
+                throw new ItemDuplicated("Clave duplicada: " + item.getCode());
+            }
+            seen.put(item.getCode(), item);//lanza ItemDuplicated si se repite en el lote
+        }
+        CompletableFuture<?>[] workers = {
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) uncheck(() -> bPlusTree.insert(item));
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) uncheck(() -> hashTable.put(item.getCode(), item));
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) {
+                    if (item.getLocation() == null) continue;
+                    try {
+                        graph.addVertex(item.getLocation());
+                    } catch (ItemDuplicated ignored) {
+                        // la ubicación ya estaba presente, seguimos
+                    }
+                }
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) uncheck(() -> avl.insert(item));
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) uncheck(() -> locationIndex.add(item));
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) searchIndex.add(item);
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) uncheck(() -> stockMonitor.add(item));
+            }, executor),
+            CompletableFuture.runAsync(() -> {
+                for (Item item : batch) persist(item);//sin índice persistente no hace nada
+            }, executor)
+        };
         try {
-            graph.addVertex(item.getLocation());
-        } catch (ItemDuplicated ignored) {
-            // la ubicación ya estaba presente, seguimos
+            CompletableFuture.allOf(workers).join();//barrera: todas las estructuras confirmadas
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof ItemDuplicated) throw (ItemDuplicated) cause;
+            if (cause instanceof ItemNotFound) throw (ItemNotFound) cause;
+            if (cause instanceof IsEmpty) throw (IsEmpty) cause;
+            if (cause instanceof UncheckedIOException) throw (UncheckedIOException) cause;
+            throw e;
         }
-        // 4) Árbol AVL
+        for (Item item : batch) item.setListener(tracker);
+        ChangeFeed feed = changeFeed;
+        if (feed != null) {
+            for (Item item : batch) feed.itemAdded(item);//después de la barrera: solo ítems confirmados
+        }
+    }
+
+    /** Operación de una estructura que puede lanzar las excepciones del sistema. */
+    private interface StructureOp {
+        void run() throws IsEmpty, ItemNotFound, ItemDuplicated;
+    }
+
+    // dentro de un worker las excepciones viajan envueltas hasta la barrera
+    private static void uncheck(StructureOp op) {
         try {
-            avl.insert(item);
-        } catch (ItemDuplicated ignored) {
-            // si ya existía en AVL, seguimos
+            op.run();
+        } catch (IsEmpty | ItemNotFound | ItemDuplicated e) {
+            throw new CompletionException(e);
         }
     }
 
@@ -67,19 +255,40 @@ public class InventorySystem {
      * @throws IsEmpty      
      */
     public boolean removeItem(String code) throws IsEmpty, ItemNotFound {
-        Item it = hashTable.get(code);
-        if (it == null) {
-            return false;
-        }
-        bPlusTree.delete(it);
-        hashTable.remove(code);
-        // Eliminar del AVL
+        long t0 = metrics.start(Metrics.Op.REMOVE_ITEM);
         try {
-            avl.delete(it);
-        } catch (ItemNotFound ignored) {
-            // no debería pasar si hashTable lo devolvió
+            Item it = hashTable.get(code);
+            if (it == null) {
+                return false;
+            }
+            bPlusTree.delete(it);
+            hashTable.remove(code);
+            locationIndex.remove(it, it.getLocation());
+            it.setListener(null);
+            searchIndex.remove(it);
+            stockMonitor.remove(it);
+            // Eliminar del AVL
+            try {
+                avl.delete(it);
+            } catch (ItemNotFound ignored) {
+                // no debería pasar si hashTable lo devolvió
+            }
+            invalidate(code);
+            if (diskIndex != null) {
+                try {
+                    diskIndex.delete(code);
+                } catch (ItemNotFound ignored) {
+                    // el índice se sincroniza al abrirse, no debería faltar
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            ChangeFeed feed = changeFeed;
+            if (feed != null) feed.itemRemoved(it);
+            return true;
+        } finally {
+            metrics.stop(Metrics.Op.REMOVE_ITEM, t0);
         }
-        return true;
     }
 
     /**
@@ -89,11 +298,327 @@ public class InventorySystem {
      * @throws IsEmpty      
      */
     public Item getItem(String code) throws ItemNotFound, IsEmpty {
-        Item it = hashTable.get(code);
-        if (it == null) {
-            throw new ItemNotFound("Ítem no encontrado: " + code);
+        long t0 = metrics.start(Metrics.Op.GET_ITEM);
+        try {
+            BoundedCache<String, Item> cache = itemCache;
+            if (cache != null) return cache.get(code, itemLoader);
+            Item it = hashTable.get(code);
+            if (it == null) {
+                throw new ItemNotFound("Ítem no encontrado: " + code);
+            }
+            return it;
+        } finally {
+            metrics.stop(Metrics.Op.GET_ITEM, t0);
+        }
+    }
+
+    /**
+     * Reserva unidades de un ítem para un pedido: las descuenta del stock
+     * solo si alcanzan (removeStock, en cambio, ignora un retiro mayor al stock).
+     * @param amount unidades a reservar (positivas)
+     * @return true si se reservaron, false si el stock no alcanza
+     * @throws ItemNotFound si el ítem no existe
+     * @throws IllegalArgumentException si amount no es positivo
+     */
+    public boolean reserveStock(String code, int amount) throws ItemNotFound, IsEmpty {
+        if (amount <= 0) throw new IllegalArgumentException("Cantidad a reservar inválida: " + amount);
+        Item it = getItem(code);
+        if (it.getQuantity() < amount) return false;
+        it.removeStock(amount);
+        return true;
+    }
+
+    /**
+     * Busca ítems cuyo código empieza con el prefijo dado (SKU parcial).
+     * @param prefix prefijo del código
+     * @param k máximo de resultados, en orden de código
+     */
+    public LinkedList<Item> searchByCode(String prefix, int k) {
+        return searchIndex.byCodePrefix(prefix, k);
+    }
+
+    /**
+     * Busca ítems por nombre tolerando errores de tipeo. Primero intenta
+     * coincidencias exactas o por prefijo de palabra; si faltan resultados
+     * completa con nombres a distancia de edición <= maxEdits.
+     * @param query texto escrito por el operador
+     * @param maxEdits máximo de ediciones permitidas (0 = sin tolerancia)
+     * @param k máximo de resultados
+     */
+    public LinkedList<Item> searchByName(String query, int maxEdits, int k) {
+        LinkedList<Item> result = searchIndex.byNamePrefix(query, k);
+        if (result.size() < k && maxEdits > 0) {
+            LinkedList<Item> fuzzy = searchIndex.byNameFuzzy(query, maxEdits, k);
+            for (int i = 0; i < fuzzy.size() && result.size() < k; i++) {
+                try {
+                    Item it = fuzzy.get(i);
+                    if (result.indexOf(it) < 0) result.add(it);
+                } catch (IsEmpty | ItemNotFound ignored) {
+                    // índice dentro del rango
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Página del catálogo ordenado por código, en O(log n + pageSize).
+     * @param page número de página (desde 0)
+     * @param pageSize ítems por página
+     */
+    public LinkedList<Item> getItemsPage(int page, int pageSize) {
+        return avl.page(page, pageSize);
+    }
+
+    /** @return cantidad de ítems registrados */
+    public int getItemCount() {
+        return avl.size();
+    }
+
+    /**
+     * @param k cantidad de ítems
+     * @return los k ítems con menos stock, de menor a mayor cantidad
+     */
+    public LinkedList<Item> getLowestStock(int k) {
+        return stockMonitor.lowest(k);
+    }
+
+    /** @return ítems cuyo stock está por debajo de su punto de reorden */
+    public LinkedList<Item> getItemsBelowReorderPoint() {
+        return stockMonitor.belowReorderPoint();
+    }
+
+    /**
+     * Configura el punto de reorden de un ítem.
+     * @param code código del ítem
+     * @param reorderPoint cantidad mínima deseada
+     * @throws ItemNotFound si el ítem no existe
+     */
+    public void setReorderPoint(String code, int reorderPoint) throws ItemNotFound, ItemDuplicated {
+        stockMonitor.setReorderPoint(hashTable.get(code), reorderPoint);
+    }
+
+    /**
+     * Suscribe un observador que se notifica cuando un ítem cruza su punto de reorden.
+     */
+    public void addStockAlertListener(StockAlertListener listener) {
+        stockMonitor.addListener(listener);
+    }
+
+    /**
+     * Ítems almacenados en una ubicación, sin recorrer todo el inventario.
+     * @param location ubicación (vértice del grafo)
+     * @return lista de ítems (vacía si no hay ninguno)
+     */
+    public LinkedList<Item> getItemsAt(String location) {
+        return locationIndex.itemsAt(location);
+    }
+
+    /**
+     * Códigos de los ítems almacenados en una ubicación.
+     * @param location ubicación (vértice del grafo)
+     */
+    public LinkedList<String> getCodesAt(String location) {
+        return locationIndex.codesAt(location);
+    }
+
+    /**
+     * Unidades totales en stock en una ubicación, en O(1).
+     * @param location ubicación (vértice del grafo)
+     */
+    public long getStockAt(String location) {
+        return locationIndex.stockAt(location);
+    }
+
+    /**
+     * Registra un Record y lo indexa por sus categorías. Las categorías que
+     * se agreguen o quiten después sobre el registro se reflejan en el índice.
+     * @throws ItemDuplicated si ya existe un registro con ese código
+     */
+    public void addRecord(Record record) throws ItemDuplicated {
+        records.put(record.getCode(), record);
+        categoryIndex.add(record);
+    }
+
+    /**
+     * Elimina un Record y lo quita del índice de categorías.
+     * @throws ItemNotFound si no existe
+     */
+    public Record removeRecord(String code) throws ItemNotFound {
+        Record r = records.remove(code);
+        categoryIndex.remove(r);
+        return r;
+    }
+
+    /**
+     * Recupera un Record por su código.
+     * @throws ItemNotFound si no existe
+     */
+    public Record getRecord(String code) throws ItemNotFound {
+        return records.get(code);
+    }
+
+    /**
+     * Registros que pertenecen a todas las categorías dadas,
+     * p.ej. findByAllCategories("fragil", "refrigerado").
+     */
+    public LinkedList<Record> findByAllCategories(String... categories) {
+        return categoryIndex.all(categories);
+    }
+
+    /**
+     * Registros que pertenecen a alguna de las categorías dadas.
+     */
+    public LinkedList<Record> findByAnyCategory(String... categories) {
+        return categoryIndex.any(categories);
+    }
+
+    /** @return cantidad de registros con la categoría dada */
+    public int countCategory(String category) {
+        return categoryIndex.count(category);
+    }
+
+    /**
+     * Abre (o crea) el índice persistente por código en file y lo sincroniza
+     * con el sistema: los ítems que están en disco y no en memoria se cargan
+     * (un reinicio recupera el inventario sin reconstruir el índice) y los de
+     * memoria se escriben en disco. Desde ahí altas, bajas y cambios de stock o
+     * ubicación se reflejan en el índice; llegan al archivo al desalojarse de
+     * la caché de páginas o en closeDiskIndex.
+     * Si falla la escritura en disco durante una operación se lanza
+     * UncheckedIOException y la copia en disco deja de estar al día.
+     * @param file archivo del índice
+     * @param cachePages páginas de 8 KB que se mantienen en memoria
+     * @throws IOException si el archivo no es un índice válido o falla la E/S
+     * @throws IllegalStateException si ya hay un índice abierto
+     */
+    public void openDiskIndex(Path file, int cachePages) throws IOException, IsEmpty, ItemNotFound, ItemDuplicated {
+        if (diskIndex != null) throw new IllegalStateException("El índice persistente ya está abierto");
+        DiskBPlusTree<String, Item> index = new DiskBPlusTree<>(file, Codec.STRING, ItemCodec.INSTANCE,
+                                                                DiskBPlusTree.DEFAULT_PAGE_SIZE, cachePages);
+        try {
+            Object[] resident = hashTable.values().toArray();
+            Arrays.sort(resident);//en orden de código las escrituras recorren las hojas en secuencia
+            class Missing implements Visitor<Item> {
+                Item[] items = new Item[16];
+                int count;
+
+                @Override
+                public boolean visit(Item item) {
+                    if (!hashTable.containsKey(item.getCode())) {
+                        if (count == items.length) items = Arrays.copyOf(items, count * 2);
+                        items[count++] = item;
+                    }
+                    return true;
+                }
+            }
+            Missing missing = new Missing();
+            index.forEach(missing);
+            if (missing.count > 0) addItems(Arrays.copyOf(missing.items, missing.count));
+            for (Object o : resident) {
+                Item item = (Item) o;
+                index.put(item.getCode(), item);
+            }
+            index.flush();
+        } catch (IOException | IsEmpty | ItemNotFound | ItemDuplicated | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+        diskIndex = index;
+    }
+
+    /** Escribe y cierra el índice persistente; no hace nada si no está abierto. */
+    public void closeDiskIndex() throws IOException {
+        if (diskIndex == null) return;
+        try {
+            diskIndex.close();
+        } finally {
+            diskIndex = null;
+        }
+    }
+
+    /** @return el índice persistente, o null si no está abierto */
+    public DiskBPlusTree<String, Item> getDiskIndex() {
+        return diskIndex;
+    }
+
+    /**
+     * Pone una caché acotada delante de getItem, que lee de hashTable en los
+     * fallos. Pensada para cuando los ítems viven en un almacenamiento más
+     * lento: con tráfico sesgado (pocos códigos concentran casi todas las
+     * consultas) TINY_LFU retiene mejor los códigos populares que LRU.
+     * removeItem y los cambios de stock o ubicación invalidan la entrada.
+     * Reemplaza la caché anterior, si había.
+     * @param policy política de reemplazo
+     * @param maxItems ítems que se mantienen en caché
+     */
+    public void enableItemCache(BoundedCache.Policy policy, long maxItems) {
+        enableItemCache(new BoundedCache<>(policy, maxItems), hashTable::get);
+    }
+
+    /**
+     * Como enableItemCache(policy, maxItems) pero con la caché y la fuente de
+     * los fallos dadas (por ejemplo otro motor de almacenamiento, o una caché
+     * con Weigher para limitar por bytes).
+     * @param cache caché a usar (se vacía)
+     * @param loader fuente de los ítems que no están en la caché
+     */
+    public void enableItemCache(BoundedCache<String, Item> cache, BoundedCache.Loader<String, Item> loader) {
+        cache.invalidateAll();
+        itemLoader = loader;
+        itemCache = cache;
+    }
+
+    /** Quita la caché de getItem; no hace nada si no estaba. */
+    public void disableItemCache() {
+        itemCache = null;
+        itemLoader = null;
+    }
+
+    /** @return la caché de getItem, o null si no está habilitada */
+    public BoundedCache<String, Item> getItemCache() {
+        return itemCache;
+    }
+
+    /**
+     * Habilita el feed de cambios: desde ahora cada alta, baja, cambio de
+     * stock o de ubicación y cada ruta abierta o cerrada se publica para los
+     * suscriptores (vistas derivadas, réplicas, tableros). Reemplaza al feed
+     * anterior si lo había.
+     * @param capacity eventos retenidos para suscriptores atrasados
+     * @param coalesceMillis ventana de fusión de cambios de stock por código (0 = sin fusión)
+     * @param overflow política con el buffer lleno
+     * @return el feed, para suscribirse
+     */
+    public ChangeFeed enableChangeFeed(int capacity, long coalesceMillis, ChangeFeed.Overflow overflow) {
+        changeFeed = new ChangeFeed(capacity, coalesceMillis, overflow);
+        return changeFeed;
+    }
+
+    /** Deja de publicar cambios; no hace nada si no estaba. */
+    public void disableChangeFeed() {
+        ChangeFeed feed = changeFeed;
+        changeFeed = null;
+        if (feed != null) feed.flush();
+    }
+
+    /** @return el feed de cambios, o null si no está habilitado */
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    private void invalidate(String code) {
+        BoundedCache<String, Item> cache = itemCache;
+        if (cache != null) cache.invalidate(code);
+    }
+
+    private void persist(Item item) {
+        if (diskIndex == null) return;
+        try {
+            diskIndex.put(item.getCode(), item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return it;
     }
 
     /** Muestra por consola la estructura del B+ Tree. */
@@ -110,40 +635,529 @@ public class InventorySystem {
      * Muestra recorrido In-Order del AVL.
      */
     public void displayAVL() {
-        System.out.println("Recorrido In-Order del AVL:");
-        avl.inOrder();
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)), false);
+        out.println("Recorrido In-Order del AVL:");
+        try {
+            avl.inOrder(out);
+        } catch (IOException ignored) {
+            // PrintWriter no lanza IOException
+        }
+        out.println();
+        out.flush();
+    }
+
+    /**
+     * Exporta los ítems ordenados por código, uno por línea, en el destino dado.
+     * Se escribe a través de un BufferedWriter; el destino no se cierra.
+     * @param out destino (archivo, socket, etc.)
+     * @throws IOException si falla la escritura
+     */
+    public void exportAVL(Writer out) throws IOException {
+        BufferedWriter buffered = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out, 1 << 16);
+        for (Item item : avl) {
+            buffered.write(item.toString());
+            buffered.newLine();
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Importa ítems desde un archivo CSV o JSON Lines.
+     * @see #importItems(ReadableByteChannel, ItemFormat)
+     */
+    public ImportReport importItems(Path file, ItemFormat format) throws IOException, IsEmpty, ItemNotFound {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importItems(in, format);
+        }
+    }
+
+    /**
+     * Importación masiva en streaming: lee los registros de a uno y los
+     * inserta con addItems en lotes de IMPORT_BATCH, así la memoria usada por
+     * la carga no crece con el tamaño de la entrada. Las filas inválidas
+     * (formato, cantidad, campos faltantes o código ya existente) se
+     * rechazan una por una y quedan en el reporte; el resto se importa.
+     * @param in entrada en UTF-8 (no se cierra)
+     * @param format formato de la entrada
+     * @return filas leídas, importadas y rechazadas
+     * @throws IOException si falla la lectura (lo ya importado queda en el sistema)
+     */
+    public ImportReport importItems(ReadableByteChannel in, ItemFormat format) throws IOException, IsEmpty, ItemNotFound {
+        ImportReport report = new ImportReport();
+        ItemParser parser = new ItemParser(in, format);
+        Item[] batch = new Item[IMPORT_BATCH];
+        HashTable<String, Item> pending = new HashTable<>(IMPORT_BATCH);//códigos del lote en curso
+        int count = 0;
+        while (parser.next()) {
+            report.row();
+            Item item = parser.item();
+            if (item == null) {
+                report.reject(parser.line(), parser.error());
+                continue;
+            }
+            if (hashTable.containsKey(item.getCode()) || pending.containsKey(item.getCode())) {
+                report.reject(parser.line(), "código repetido: " + item.getCode());
+                continue;
+            }
+            try {
+                pending.put(item.getCode(), item);
+            } catch (ItemDuplicated impossible) {
+                // se acaba de verificar que no está
+            }
+            batch[count++] = item;
+            if (count == batch.length) {
+                importBatch(batch, report);
+                pending.clear();
+                count = 0;
+            }
+        }
+        if (count > 0) importBatch(Arrays.copyOf(batch, count), report);
+        return report;
+    }
+
+    private void importBatch(Item[] batch, ImportReport report) throws IsEmpty, ItemNotFound {
+        try {
+            addItems(batch);
+        } catch (ItemDuplicated e) {
+            throw new IllegalStateException("Lote validado con código repetido", e);
+        }
+        report.imported(batch.length);
+    }
+
+    /**
+     * Exporta los ítems ordenados por código a un archivo CSV o JSON Lines
+     * en UTF-8 (se reemplaza si existe).
+     * @return ítems escritos
+     */
+    public long exportItems(Path file, ItemFormat format) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return exportItems(out, format);
+        }
+    }
+
+    /**
+     * Exporta los ítems ordenados por código recorriendo la lista enlazada de
+     * hojas del B+ Tree, a través de un BufferedWriter; el destino no se cierra.
+     * @param out destino
+     * @param format formato de salida
+     * @return ítems escritos
+     * @throws IOException si falla la escritura
+     */
+    public long exportItems(Writer out, ItemFormat format) throws IOException {
+        BufferedWriter buffered = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out, 1 << 16);
+        format.writeHeader(buffered);
+        class Export implements Visitor<Item> {
+            long written;
+            IOException failure;
+
+            @Override
+            public boolean visit(Item item) {
+                try {
+                    format.write(item, buffered);
+                    written++;
+                    return true;
+                } catch (IOException e) {
+                    failure = e;
+                    return false;
+                }
+            }
+        }
+        Export export = new Export();
+        try {
+            bPlusTree.forEach(export);
+        } catch (IsEmpty | ItemNotFound ignored) {
+            // el B+ siempre tiene al menos la hoja raíz
+        }
+        if (export.failure != null) throw export.failure;
+        buffered.flush();
+        return export.written;
+    }
+
+    /** @return iterador perezoso de ítems ordenados por código */
+    public Iterator<Item> iterateItems() {
+        return avl.iterator();
+    }
+
+    /** @return iterador perezoso de ítems ordenados por código, de mayor a menor */
+    public Iterator<Item> iterateItemsDescending() {
+        return avl.descendingIterator();
+    }
+
+    /**
+     * Iterador perezoso de los ítems con código en [fromCode, toCode].
+     * @param fromCode primer código (null = desde el inicio)
+     * @param toCode último código (null = hasta el final)
+     */
+    public Iterator<Item> iterateItems(String fromCode, String toCode) {
+        Item lo = fromCode == null ? null : new Item(fromCode, null, 0, null);
+        Item hi = toCode == null ? null : new Item(toCode, null, 0, null);
+        return avl.rangeIterator(lo, hi);
+    }
+
+    /**
+     * Recorre los ítems ordenados por código llamando al visitante
+     * hasta que devuelva false.
+     */
+    public void visitItems(Visitor<? super Item> visitor) {
+        avl.inOrder(visitor);
     }
 
     /**
-     * Abre o cierra una ruta (arista) entre dos ubicaciones.
+     * Abre o cierra una ruta (arista) entre dos ubicaciones. La ruta sirve en
+     * ambos sentidos: "A-B" y "B-A" son la misma arista.
      * @param edge  en formato "NodoA-NodoB"
      * @param enable true para crear la arista, false para eliminarla
      */
     public void toggleEdge(String edge, boolean enable) {
+        toggleEdge(edge, enable, 1.0);
+    }
+
+    /**
+     * Igual que toggleEdge(edge, enable) pero con un tiempo de recorrido propio.
+     * @param weight peso de la ruta al crearla (se ignora al eliminarla)
+     */
+    public void toggleEdge(String edge, boolean enable, double weight) {
         String[] parts = edge.split("-");
         if (parts.length != 2) return;
 
+        try {
+            setEdge(parts[0], parts[1], enable, weight);
+        } catch (Exception e) {
+            System.out.println("Error en toggleEdge: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Como toggleEdge pero con las ubicaciones por separado y lanzando el
+     * error en vez de imprimirlo (para quien necesita informarlo, p.ej. el
+     * modo por lotes de la consola).
+     * @throws ItemNotFound si falta una ubicación o, al eliminar, la ruta
+     * @throws ItemDuplicated si al crearla la ruta ya existía
+     */
+    public void setEdge(String from, String to, boolean enable, double weight) throws ItemNotFound, ItemDuplicated, IsEmpty {
+        long t0 = metrics.start(Metrics.Op.TOGGLE_EDGE);
         try {
             if (enable) {
-                graph.addEdge(parts[0], parts[1], 1.0);
+                graph.addEdge(from, to, weight);
             } else {
-                graph.removeEdge(parts[0], parts[1]);
+                graph.removeEdge(from, to);
             }
-        } catch (Exception e) {
-            System.out.println("Error en toggleEdge: " + e.getMessage());
+            ChangeFeed feed = changeFeed;
+            if (feed != null) feed.routeChanged(from, to, enable, weight);
+        } finally {
+            metrics.stop(Metrics.Op.TOGGLE_EDGE, t0);
         }
     }
 
     /**
-     * Simula un escenario de optimización de rutas entre "Entrada" y "Salida"
-     * usando el método shortestPath de GraphLink.
+     * Actualiza el tiempo de recorrido de una ruta existente (tráfico en vivo).
+     * Las tablas de rutas no se recalculan desde cero: se reparan en la próxima consulta.
+     * @throws ItemNotFound si la ruta no existe o el peso es negativo
      */
-    public void simulate() {
+    public void updateRouteWeight(String from, String to, double weight) throws ItemNotFound, IsEmpty {
+        graph.updateWeight(from, to, weight);
+    }
+
+    /**
+     * Aplica un lote de tiempos de recorrido (feed de congestión); weights[i]
+     * corresponde a la ruta from[i]-to[i]. Las rutas inexistentes se ignoran.
+     * @return cantidad de rutas actualizadas
+     */
+    public int updateRouteWeights(String[] from, String[] to, double[] weights) {
+        return graph.updateWeights(from, to, weights);
+    }
+
+    /**
+     * Precalcula las rutas mínimas desde las ubicaciones clave (estaciones de
+     * picking, Entrada, Salida...). La tabla se mantiene sola: toggleEdge solo
+     * invalida las filas afectadas por la arista que cambió.
+     * @param locations ubicaciones clave (deben existir en el grafo)
+     * @throws ItemNotFound si alguna ubicación no existe
+     */
+    public void setKeyLocations(String... locations) throws ItemNotFound, ItemDuplicated, IsEmpty {
+        if (routeTable != null) routeTable.close();
+        routeTable = new RouteTable<>(graph, locations);
+    }
+
+    /**
+     * Distancia mínima entre una ubicación clave y cualquier ubicación.
+     * @throws ItemNotFound si no hay tabla, from no es clave o to no existe
+     */
+    public double getRouteDistance(String from, String to) throws ItemNotFound {
+        if (routeTable == null) throw new ItemNotFound("No hay ubicaciones clave definidas");
+        return routeTable.distance(from, to);
+    }
+
+    /**
+     * Ruta mínima entre una ubicación clave y cualquier ubicación.
+     * @throws ItemNotFound si no hay tabla, from no es clave o to no existe
+     */
+    public LinkedList<String> getRoute(String from, String to) throws ItemNotFound {
+        if (routeTable == null) throw new ItemNotFound("No hay ubicaciones clave definidas");
+        return routeTable.path(from, to);
+    }
+
+    /**
+     * Ruta mínima entre dos ubicaciones cualesquiera: usa la tabla
+     * precalculada si from es ubicación clave y si no corre Dijkstra.
+     * @return ubicaciones de from a to (solo to si no hay camino, como shortestPath)
+     * @throws ItemNotFound si alguna ubicación no existe
+     */
+    public LinkedList<String> findRoute(String from, String to) throws ItemNotFound, IsEmpty, ItemDuplicated {
+        if (routeTable != null && isKey(from)) return routeTable.path(from, to);
+        return graph.shortestPath(from, to);
+    }
+
+    private boolean isKey(String location) {
+        try {
+            routeTable.distance(location, location);
+            return true;
+        } catch (ItemNotFound e) {
+            return false;
+        }
+    }
+
+    /**
+     * Planifica el recorrido de picking más barato que sale de "Entrada",
+     * pasa por las ubicaciones de los ítems pedidos y termina en "Salida".
+     * Calcula la matriz de distancias entre paradas con Dijkstra en paralelo
+     * y la optimiza con vecino más cercano + 2-opt/Or-opt dentro del presupuesto.
+     * @param codes códigos de los ítems de la orden
+     * @param budgetMillis tiempo máximo de optimización
+     * @throws ItemNotFound si algún código no existe o falta Entrada/Salida en el grafo
+     */
+    public PickTour planPickTour(String[] codes, long budgetMillis) throws ItemNotFound, ItemDuplicated, IsEmpty {
+        HashTable<String, Boolean> seen = new HashTable<>(codes.length + 2);
+        String[] stops = new String[codes.length + 2];
+        int k = 0;
+        stops[k++] = "Entrada";
+        seen.put("Entrada", true);
+        seen.put("Salida", true);
+        for (String code : codes) {
+            String loc = hashTable.get(code).getLocation();
+            if (loc != null && !seen.containsKey(loc)) {
+                seen.put(loc, true);
+                stops[k++] = loc;
+            }
+        }
+        stops[k++] = "Salida";
+        String[] keys = new String[k];
+        System.arraycopy(stops, 0, keys, 0, k);
+        for (String stop : keys) {
+            if (!graph.containsVertex(stop)) throw new ItemNotFound("Ubicación no encontrada en el grafo: " + stop);
+        }
+        RouteTable<String> table = new RouteTable<>(graph, keys);
         try {
-            LinkedList<String> path = graph.shortestPath("Entrada", "Salida");
+            TourOptimizer optimizer = new TourOptimizer(table.matrix(), k);
+            int[] order = optimizer.solve(budgetMillis, Runtime.getRuntime().availableProcessors());
+            LinkedList<String> orderedStops = new LinkedList<>();
+            for (int i = k - 1; i >= 0; i--) orderedStops.add(0, keys[order[i]]);
+            // camino completo: tramos entre paradas consecutivas sin repetir la unión
+            Object[][] legs = new Object[k - 1][];
+            for (int i = 0; i + 1 < k; i++) {
+                legs[i] = table.path(keys[order[i]], keys[order[i + 1]]).toArray();
+            }
+            LinkedList<String> path = new LinkedList<>();
+            for (int i = k - 2; i >= 0; i--) {
+                for (int j = legs[i].length - 1; j >= 1; j--) path.add(0, (String) legs[i][j]);
+            }
+            path.add(0, keys[order[0]]);
+            return new PickTour(orderedStops, path, optimizer.cost(order));
+        } finally {
+            table.close();
+        }
+    }
+
+    /**
+     * Asigna coordenadas físicas a una ubicación para el ruteo A*.
+     * @throws ItemNotFound si la ubicación no existe en el grafo
+     */
+    public void setLocationCoordinates(String location, double aisle, double rack, double level) throws ItemNotFound, IsEmpty {
+        graph.setCoordinates(location, aisle, rack, level);
+    }
+
+    /**
+     * Cambia la heurística de A*. Por defecto es la nula (A* equivale a
+     * Dijkstra): las coordenadas solo aceleran la búsqueda con una escala que
+     * el llamador garantice, p.ej. Heuristic.manhattan(c) cuando cada arista
+     * pesa al menos c por unidad de distancia que cubre.
+     */
+    public void setRoutingHeuristic(Heuristic<String> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Simula el escenario Entrada -> Salida con el algoritmo indicado.
+     * @param mode DIJKSTRA o A_STAR
+     */
+    public void simulate(RoutingMode mode) {
+        if (mode != RoutingMode.A_STAR) {
+            simulate();
+            return;
+        }
+        long t0 = metrics.start(Metrics.Op.SIMULATE);
+        try {
+            LinkedList<String> path = graph.aStar("Entrada", "Salida", heuristic);
             System.out.println("Ruta óptima: " + path);
         } catch (Exception e) {
             System.out.println("Error al simular ruta: " + e.getMessage());
+        } finally {
+            metrics.stop(Metrics.Op.SIMULATE, t0);
+        }
+    }
+
+    /**
+     * Simula un escenario de optimización de rutas entre "Entrada" y "Salida".
+     * Usa una tabla de rutas desde "Entrada" que se repara de forma incremental
+     * con cada toggleEdge o cambio de peso, en vez de un Dijkstra en frío.
+     */
+    public void simulate() {
+        long t0 = metrics.start(Metrics.Op.SIMULATE);
+        try {
+            try {
+                LinkedList<String> path = routeTable != null && routeTable.keyCount() > 0 && isKey("Entrada")
+                    ? routeTable.path("Entrada", "Salida")
+                    : simulationTable().path("Entrada", "Salida");
+                System.out.println("Ruta óptima: " + path);
+            } catch (Exception e) {
+                System.out.println("Error al simular ruta: " + e.getMessage());
+            }
+        } finally {
+            metrics.stop(Metrics.Op.SIMULATE, t0);
+        }
+    }
+
+    private RouteTable<String> simulationTable() throws ItemNotFound, ItemDuplicated, IsEmpty {
+        if (simulationTable == null) {
+            graph.shortestPath("Entrada", "Salida");//valida que existan ambos extremos, con el mismo mensaje de error
+            simulationTable = new RouteTable<>(graph, new String[] {"Entrada"});
+        }
+        return simulationTable;
+    }
+
+    /** @return métricas del sistema (deshabilitadas hasta llamar setEnabled(true)) */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Foto de las métricas: contadores y latencias por operación más los
+     * indicadores de cada estructura (carga y cadenas de la HashTable, altura y
+     * ocupación del B+, altura del AVL, vértices y aristas del grafo).
+     * Recorre las estructuras, así que debe llamarse desde el hilo que las
+     * modifica (o encolarse en CommandQueue).
+     */
+    public MetricsSnapshot metricsSnapshot() {
+        double bHeight = 0, bLeaves = 0, bFill = 0;
+        try {
+            bHeight = bPlusTree.height();
+            bLeaves = bPlusTree.leafCount();
+            bFill = bPlusTree.leafFill();
+        } catch (IsEmpty | ItemNotFound ignored) {
+            // el B+ siempre tiene al menos la hoja raíz
+        }
+        String[] names = {
+            "items", "hash_capacity", "hash_load_factor", "hash_longest_chain", "hash_spreading",
+            "hash_tree_bins",
+            "bplus_height", "bplus_leaves", "bplus_leaf_fill", "avl_height",
+            "graph_vertices", "graph_edges", "disk_index_pages", "disk_cache_hit_ratio",
+            "item_cache_size", "item_cache_hit_ratio"
+        };
+        double[] values = {
+            hashTable.size(), hashTable.capacity(), hashTable.loadFactor(), hashTable.longestChain(),
+            hashTable.isSpreading() ? 1 : 0, hashTable.treeBinCount(),
+            bHeight, bLeaves, bFill, avl.height(),
+            graph.vertexCount(), graph.edgeCount(),
+            diskIndex == null ? 0 : diskIndex.pageCount(), diskCacheHitRatio(),
+            itemCache == null ? 0 : itemCache.size(), itemCache == null ? 0 : itemCache.hitRatio()
+        };
+        return metrics.snapshot(names, values);
+    }
+
+    private double diskCacheHitRatio() {
+        if (diskIndex == null) return 0;
+        long hits = diskIndex.cache().hits(), total = hits + diskIndex.cache().misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Reporte de salud de las estructuras, para detectar a tiempo claves que
+     * se agrupan mal o árboles degradados:
+     * - HashTable: modo de hash, carga, buckets convertidos en árbol e
+     *   histograma de pares por bucket,
+     * - B+ Tree: nodos y ocupación por nivel,
+     * - AVL: altura contra el mínimo posible, profundidad media y factores de balance.
+     */
+    public String healthReport() {
+        StringBuilder sb = new StringBuilder();
+        int[] chains = hashTable.chainLengthHistogram();
+        sb.append("HashTable: ").append(hashTable.size()).append(" pares en ").append(hashTable.capacity())
+          .append(" buckets, carga ").append(String.format("%.3f", hashTable.loadFactor()))
+          .append(", modo ").append(hashTable.getHashMode()).append(hashTable.isSpreading() ? " (mezclando bits)" : "")
+          .append(", bucket más cargado ").append(chains.length - 1)
+          .append(", buckets en árbol ").append(hashTable.treeBinCount()).append('\n');
+        sb.append("  cadenas:");
+        for (int len = 0; len < chains.length; len++) {
+            if (chains[len] > 0) sb.append(' ').append(len).append('=').append(chains[len]);
+        }
+        sb.append('\n');
+        try {
+            int[] nodes = bPlusTree.nodesPerLevel();
+            double[] fill = bPlusTree.fillPerLevel();
+            sb.append("B+ Tree: altura ").append(nodes.length).append('\n');
+            for (int level = 0; level < nodes.length; level++) {
+                sb.append("  nivel ").append(level).append(": ").append(nodes[level]).append(" nodos, ocupación ")
+                  .append(String.format("%.3f", fill[level])).append('\n');
+            }
+        } catch (IsEmpty | ItemNotFound e) {
+            sb.append("B+ Tree: ").append(e.getMessage()).append('\n');
+        }
+        int n = avl.size();
+        int[] balance = avl.balanceHistogram();
+        int minHeight = 32 - Integer.numberOfLeadingZeros(n);//ceil(log2(n + 1))
+        sb.append("AVL: ").append(n).append(" nodos, altura ").append(avl.height())
+          .append(" (mínima ").append(minHeight).append("), profundidad media ")
+          .append(String.format("%.2f", avl.averageDepth()))
+          .append(", balance -1/0/+1: ").append(balance[0]).append('/').append(balance[1]).append('/').append(balance[2])
+          .append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Mantiene los índices secundarios al día cuando un ítem registrado
+     * cambia de ubicación (setLocation) o de stock (addStock/removeStock).
+     */
+    private class IndexTracker implements ItemListener {
+        @Override
+        public void locationChanged(Item item, String oldLocation, String newLocation) {
+            try {
+                locationIndex.move(item, oldLocation, newLocation);
+            } catch (ItemNotFound | ItemDuplicated ignored) {
+                // el ítem siempre está indexado mientras tiene este observador
+            }
+            try {
+                graph.addVertex(newLocation);
+            } catch (ItemDuplicated ignored) {
+                // la ubicación ya estaba presente
+            }
+            invalidate(item.getCode());
+            persist(item);
+            ChangeFeed feed = changeFeed;
+            if (feed != null) feed.locationChanged(item, oldLocation, newLocation);
+        }
+
+        @Override
+        public void quantityChanged(Item item, int oldQuantity, int newQuantity) {
+            try {
+                locationIndex.stockChanged(item.getLocation(), newQuantity - oldQuantity);
+                stockMonitor.quantityChanged(item, oldQuantity, newQuantity);
+            } catch (ItemNotFound | ItemDuplicated ignored) {
+                // el ítem siempre está indexado mientras tiene este observador
+            }
+            invalidate(item.getCode());
+            persist(item);
+            ChangeFeed feed = changeFeed;
+            if (feed != null) feed.stockChanged(item, oldQuantity, newQuantity);
         }
     }
-}
\ No newline at end of file
+}
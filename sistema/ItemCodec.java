@@ -0,0 +1,35 @@
+package sistema;
+
+import java.nio.ByteBuffer;
+import modelo.Item;
+import tree.Codec;
+
+/**
+ * Serialización de un Item para el índice persistente: código, nombre,
+ * cantidad y ubicación. El observador no se guarda.
+ */
+class ItemCodec implements Codec<Item> {
+    static final ItemCodec INSTANCE = new ItemCodec();
+
+    @Override
+    public int size(Item item) {
+        return Codec.stringSize(item.getCode()) + Codec.stringSize(item.getName())
+             + 4 + Codec.stringSize(item.getLocation());
+    }
+
+    @Override
+    public void write(Item item, ByteBuffer out) {
+        Codec.putString(out, item.getCode());
+        Codec.putString(out, item.getName());
+        out.putInt(item.getQuantity());
+        Codec.putString(out, item.getLocation());
+    }
+
+    @Override
+    public Item read(ByteBuffer in) {
+        String code = Codec.getString(in);
+        String name = Codec.getString(in);
+        int quantity = in.getInt();
+        return new Item(code, name, quantity, Codec.getString(in));
+    }
+}
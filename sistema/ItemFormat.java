@@ -0,0 +1,102 @@
+package sistema;
+
+import java.io.IOException;
+import java.io.Writer;
+import modelo.Item;
+
+/**
+ * Formatos de texto para importar y exportar ítems, un ítem por registro con
+ * los campos code, name, quantity y location.
+ */
+public enum ItemFormat {
+    /**
+     * CSV (RFC 4180) con encabezado "code,name,quantity,location". Los campos
+     * con coma, comillas o saltos de línea van entre comillas dobles (las
+     * comillas internas se duplican) y un campo vacío es null. Al importar, si
+     * la primera fila empieza con "code" se toma como encabezado y define el
+     * orden de las columnas; las columnas desconocidas se ignoran.
+     */
+    CSV,
+    /**
+     * JSON Lines: un objeto por línea, p.ej.
+     * {"code":"A1","name":"Tornillo","quantity":5,"location":"Zona1"}.
+     * Al importar se ignoran las claves desconocidas y las líneas en blanco.
+     */
+    JSONL;
+
+    /** Escribe lo que va antes del primer ítem (el encabezado en CSV). */
+    void writeHeader(Writer out) throws IOException {
+        if (this == CSV) out.write("code,name,quantity,location\n");
+    }
+
+    /** Escribe un ítem como un registro terminado en salto de línea. */
+    void write(Item item, Writer out) throws IOException {
+        if (this == CSV) {
+            csvField(item.getCode(), out);
+            out.write(',');
+            csvField(item.getName(), out);
+            out.write(',');
+            out.write(Integer.toString(item.getQuantity()));
+            out.write(',');
+            csvField(item.getLocation(), out);
+        } else {
+            out.write("{\"code\":");
+            jsonString(item.getCode(), out);
+            out.write(",\"name\":");
+            jsonString(item.getName(), out);
+            out.write(",\"quantity\":");
+            out.write(Integer.toString(item.getQuantity()));
+            out.write(",\"location\":");
+            jsonString(item.getLocation(), out);
+            out.write('}');
+        }
+        out.write('\n');
+    }
+
+    private static void csvField(String s, Writer out) throws IOException {
+        if (s == null) return;
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        int from = 0;
+        for (int i = s.indexOf('"'); i >= 0; i = s.indexOf('"', from)) {
+            out.write(s, from, i + 1 - from);
+            out.write('"');
+            from = i + 1;
+        }
+        out.write(s, from, s.length() - from);
+        out.write('"');
+    }
+
+    private static void jsonString(String s, Writer out) throws IOException {
+        if (s == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int from = 0;//tramo pendiente sin escapes, se copia de una vez
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            out.write(s, from, i - from);
+            from = i + 1;
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default: out.write(String.format("\\u%04x", (int) c));
+            }
+        }
+        out.write(s, from, s.length() - from);
+        out.write('"');
+    }
+}
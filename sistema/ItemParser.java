@@ -0,0 +1,355 @@
+package sistema;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import modelo.Item;
+
+/**
+ * Lector incremental de ítems en CSV o JSON Lines. Decodifica el canal en
+ * bloques de 64 K caracteres y arma cada campo en un StringBuilder reusado:
+ * por registro solo se crean los String de los campos y el Item, y la
+ * cantidad se convierte sin pasar por String. La memoria no depende del
+ * tamaño del archivo.
+ * Una fila inválida no corta la lectura: next() la devuelve con error() y
+ * el siguiente next() sigue desde la línea que viene.
+ */
+class ItemParser {
+    private static final int CHUNK = 1 << 16;
+    private static final int CODE = 0, NAME = 1, QUANTITY = 2, LOCATION = 3, IGNORED = -1;
+    private static final String[] COLUMNS = {"code", "name", "quantity", "location"};
+
+    /** Fila inválida; sin traza, se crea una por fila rechazada. */
+    private static final class RowError extends Exception {
+        RowError(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final Reader in;
+    private final ItemFormat format;
+    private final char[] buf = new char[CHUNK];
+    private int pos, limit;
+    private int last = -1;//último carácter leído
+    private long line = 1;//línea del próximo carácter
+    private final StringBuilder field = new StringBuilder();
+    private int[] csvColumns = {CODE, NAME, QUANTITY, LOCATION};//rol de cada columna
+    private boolean customColumns;//csvColumns viene de un encabezado
+    private boolean firstRecord = true;
+
+    private final String[] values = new String[4];
+    private int quantity;
+    private boolean hasQuantity;
+    private long recordLine;
+    private Item item;
+    private String error;
+
+    ItemParser(ReadableByteChannel channel, ItemFormat format) {
+        this.in = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), CHUNK);
+        this.format = format;
+    }
+
+    /**
+     * Avanza al siguiente registro (se saltan las líneas en blanco).
+     * @return false al final de la entrada
+     */
+    boolean next() throws IOException {
+        item = null;
+        error = null;
+        while (true) {
+            int c = peek();
+            if (c < 0) return false;
+            if (c == '\n' || c == '\r' || (format == ItemFormat.JSONL && isSpace(c))) {
+                read();
+                continue;
+            }
+            recordLine = line;
+            last = 0;//skipLine solo mira el '\n' de este registro
+            values[CODE] = values[NAME] = values[LOCATION] = null;
+            hasQuantity = false;
+            try {
+                if (format == ItemFormat.CSV) {
+                    if (!csvRecord()) continue;//era el encabezado
+                } else {
+                    jsonRecord();
+                }
+                item = build();
+            } catch (RowError e) {
+                error = e.getMessage();
+                skipLine();
+            }
+            firstRecord = false;
+            return true;
+        }
+    }
+
+    /** @return el ítem leído, o null si el registro es inválido */
+    Item item() {
+        return item;
+    }
+
+    /** @return motivo por el que el registro es inválido, o null */
+    String error() {
+        return error;
+    }
+
+    /** @return línea donde empieza el registro */
+    long line() {
+        return recordLine;
+    }
+
+    private Item build() throws RowError {
+        if (values[CODE] == null) throw new RowError("falta el código");
+        if (!hasQuantity) throw new RowError("falta la cantidad");
+        if (quantity < 0) throw new RowError("cantidad negativa: " + quantity);
+        if (values[LOCATION] == null) throw new RowError("falta la ubicación");
+        return new Item(values[CODE], values[NAME], quantity, values[LOCATION]);
+    }
+
+    // ------------------------------------------------------------- CSV
+
+    //@return false si el registro era el encabezado
+    private boolean csvRecord() throws IOException, RowError {
+        int column = 0;
+        boolean header = false;
+        int[] headerColumns = null;
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c < 0) throw new RowError("comillas sin cerrar");
+                    if (c == '"') {
+                        if (peek() != '"') break;
+                        read();
+                    }
+                    field.append((char) c);
+                }
+                c = read();
+                if (c >= 0 && c != ',' && c != '\n' && c != '\r') throw new RowError("texto después de las comillas de cierre");
+            } else {
+                while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            if (column == 0 && firstRecord && columnOf(field) != IGNORED) {//encabezado, con las columnas en cualquier orden
+                header = true;
+                headerColumns = new int[8];
+            }
+            if (header) {
+                if (column == headerColumns.length) headerColumns = Arrays.copyOf(headerColumns, column * 2);
+                headerColumns[column] = columnOf(field);
+            } else {
+                if (!customColumns && column == COLUMNS.length) throw new RowError("se esperaban " + COLUMNS.length + " columnas");
+                int role = column < csvColumns.length ? csvColumns[column] : IGNORED;
+                if (role == QUANTITY) {
+                    quantity = parseInt(field);
+                    hasQuantity = field.length() > 0;
+                } else if (role != IGNORED && field.length() > 0) {
+                    values[role] = field.toString();
+                }
+            }
+            field.setLength(0);
+            column++;
+            if (c == ',') continue;
+            if (c == '\r' && peek() == '\n') read();
+            break;
+        }
+        if (header) {
+            csvColumns = Arrays.copyOf(headerColumns, column);
+            customColumns = true;
+            firstRecord = false;
+            return false;
+        }
+        if (!customColumns && column != COLUMNS.length) throw new RowError("se esperaban " + COLUMNS.length + " columnas");
+        return true;
+    }
+
+    // ------------------------------------------------------------ JSONL
+
+    private void jsonRecord() throws IOException, RowError {
+        expect('{');
+        int c = skipSpaces();
+        if (c == '}') {
+            read();
+        } else {
+            while (true) {
+                expect('"');
+                jsonString();
+                int role = IGNORED;
+                for (int k = 0; k < COLUMNS.length; k++) {
+                    if (equals(field, COLUMNS[k])) role = k;
+                }
+                field.setLength(0);
+                skipSpaces();
+                expect(':');
+                jsonValue(role);
+                c = skipSpaces();
+                read();
+                if (c == '}') break;
+                if (c != ',') throw new RowError("se esperaba ',' o '}'");
+            }
+        }
+        c = skipSpaces();
+        if (c >= 0 && c != '\n') throw new RowError("texto después del objeto");
+    }
+
+    private void jsonValue(int role) throws IOException, RowError {
+        int c = skipSpaces();
+        if (c == '"') {
+            read();
+            jsonString();
+            if (role == QUANTITY) throw new RowError("quantity debe ser un número");
+            if (role != IGNORED && field.length() > 0) values[role] = field.toString();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                field.append((char) read());
+                c = peek();
+            }
+            if (role == QUANTITY) {
+                quantity = parseInt(field);
+                hasQuantity = true;
+            } else if (role != IGNORED) {
+                values[role] = field.toString();//un código numérico se toma como texto
+            }
+        } else if (c == 'n' || c == 't' || c == 'f') {
+            while (c >= 'a' && c <= 'z') {
+                field.append((char) read());
+                c = peek();
+            }
+            boolean literal = equals(field, "null") || (role == IGNORED && (equals(field, "true") || equals(field, "false")));
+            if (!literal) throw new RowError("valor inválido: " + field);
+        } else {
+            throw new RowError("valor no soportado (solo texto, números, true, false o null)");
+        }
+        field.setLength(0);
+    }
+
+    //lee la cadena ya abierta hasta la comilla de cierre, resolviendo escapes
+    private void jsonString() throws IOException, RowError {
+        while (true) {
+            int c = read();
+            if (c < 0 || c == '\n') throw new RowError("cadena sin cerrar");
+            if (c == '"') return;
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case '"': case '\\': case '/': break;
+                    case 'b': c = '\b'; break;
+                    case 'f': c = '\f'; break;
+                    case 'n': c = '\n'; break;
+                    case 'r': c = '\r'; break;
+                    case 't': c = '\t'; break;
+                    case 'u':
+                        int code = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int d = Character.digit(read(), 16);
+                            if (d < 0) throw new RowError("escape \\u inválido");
+                            code = code << 4 | d;
+                        }
+                        c = code;
+                        break;
+                    default:
+                        throw new RowError("escape inválido");
+                }
+            }
+            field.append((char) c);
+        }
+    }
+
+    private void expect(char expected) throws IOException, RowError {
+        int c = skipSpaces();
+        if (c != expected) throw new RowError("se esperaba '" + expected + "'");
+        read();
+    }
+
+    //@return el siguiente carácter que no es espacio, sin consumirlo
+    private int skipSpaces() throws IOException {
+        int c = peek();
+        while (isSpace(c)) {
+            read();
+            c = peek();
+        }
+        return c;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    // ---------------------------------------------------------- comunes
+
+    //entero decimal con signo opcional; 0 si está vacío
+    private static int parseInt(CharSequence s) throws RowError {
+        int len = s.length();
+        if (len == 0) return 0;
+        boolean negative = s.charAt(0) == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < len; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') throw new RowError("cantidad no entera: " + s);
+            value = value * 10 + (ch - '0');
+            if (value > Integer.MAX_VALUE) throw new RowError("cantidad fuera de rango: " + s);
+        }
+        if (negative && len == 1) throw new RowError("cantidad no entera: " + s);
+        return (int) (negative ? -value : value);
+    }
+
+    private static boolean equals(CharSequence a, String b) {
+        if (a.length() != b.length()) return false;
+        for (int i = 0; i < b.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    //rol de una columna del encabezado, IGNORED si no es conocida
+    private static int columnOf(CharSequence name) {
+        for (int k = 0; k < COLUMNS.length; k++) {
+            if (equalsIgnoreCase(name, COLUMNS[k])) return k;
+        }
+        return IGNORED;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence a, String b) {
+        if (a.length() != b.length()) return false;
+        for (int i = 0; i < b.length(); i++) {
+            if (Character.toLowerCase(a.charAt(i)) != b.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    //descarta el resto de la línea de una fila inválida
+    private void skipLine() throws IOException {
+        field.setLength(0);
+        if (last == '\n') return;
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '\n');
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos];
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return last = -1;
+        char c = buf[pos++];
+        if (c == '\n') line++;
+        return last = c;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
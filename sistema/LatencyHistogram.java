@@ -0,0 +1,96 @@
+package sistema;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias al estilo HDR: cada potencia de dos se divide en
+ * 16 sub-rangos lineales, así el error relativo de cualquier percentil es
+ * menor a 1/16 (~6%) con un arreglo fijo de cubetas. Cada cubeta es un
+ * LongAdder, de modo que varios hilos registran sin pelear por la misma celda.
+ * Valores en nanosegundos; lo que supera MAX_TRACKABLE cae en la última cubeta.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_BITS = 40;//2^40 ns, unos 18 minutos
+    public static final long MAX_TRACKABLE = (1L << MAX_BITS) - 1;
+    private static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) counts[i] = new LongAdder();
+    }
+
+    /** Registra un valor (se acota a [0, MAX_TRACKABLE]). */
+    public void record(long nanos) {
+        long v = nanos < 0 ? 0 : Math.min(nanos, MAX_TRACKABLE);
+        counts[index(v)].increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /** @return cantidad de valores registrados */
+    public long count() {
+        long n = 0;
+        for (LongAdder c : counts) n += c.sum();
+        return n;
+    }
+
+    /** Vacía el histograma. No es atómico respecto de registros concurrentes. */
+    public void reset() {
+        for (LongAdder c : counts) c.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Copia consistente por cubeta (no entre cubetas) y calcula los percentiles pedidos.
+     * @param percentiles valores en [0, 100]
+     * @return {cantidad, media, máximo, percentiles...}; los percentiles son el
+     * mayor valor equivalente de su cubeta, como en HDR
+     */
+    public double[] summary(double... percentiles) {
+        long[] copy = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts[i].sum();
+            n += copy[i];
+        }
+        double[] out = new double[3 + percentiles.length];
+        out[0] = n;
+        out[1] = n == 0 ? 0 : (double) sum.sum() / n;
+        out[2] = max.get();
+        for (int p = 0; p < percentiles.length; p++) {
+            if (n == 0) continue;
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += copy[i];
+                if (seen >= rank) {
+                    out[3 + p] = Math.min(highest(i), out[2]);
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    // valores < 16 son exactos; después, 16 cubetas por potencia de dos
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) (v >>> shift) - SUB;
+    }
+
+    // mayor valor que cae en la cubeta i
+    static long highest(int i) {
+        if (i < SUB) return i;
+        int shift = i / SUB - 1;
+        long sub = i % SUB + SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+}
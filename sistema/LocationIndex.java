@@ -0,0 +1,117 @@
+package sistema;
+
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import list.HashTable;
+import list.LinkedList;
+import modelo.Item;
+
+/**
+ * Índice secundario ubicación -> ítems para el Sistema de Gestión y Optimización de Inventarios en Almacenes.
+ * Cada ubicación guarda los ítems que contiene y el total de unidades en stock,
+ * de modo que "qué hay en AlmacenA" y "cuántas unidades hay en la zona X"
+ * no requieren recorrer todo el inventario.
+ * Todas las actualizaciones son O(1) (promedio de la tabla hash).
+ */
+public class LocationIndex {
+    /** Contenido de una ubicación: ítems por código y stock agregado. */
+    private static class Bucket {
+        final HashTable<String, Item> items = new HashTable<>();
+        long stock;
+    }
+
+    private final HashTable<String, Bucket> buckets;
+
+    public LocationIndex() {
+        buckets = new HashTable<>();
+    }
+
+    /**
+     * Registra un ítem en su ubicación actual.
+     * @throws ItemDuplicated si el código ya estaba indexado en esa ubicación
+     */
+    public void add(Item item) throws ItemDuplicated {
+        Bucket b = bucketFor(item.getLocation());
+        b.items.put(item.getCode(), item);
+        b.stock += item.getQuantity();
+    }
+
+    /**
+     * Quita un ítem de la ubicación indicada.
+     * @throws ItemNotFound si el ítem no estaba en esa ubicación
+     */
+    public void remove(Item item, String location) throws ItemNotFound {
+        Bucket b = buckets.get(location);
+        b.items.remove(item.getCode());
+        b.stock -= item.getQuantity();
+        if (b.items.isEmpty()) {
+            buckets.remove(location);
+        }
+    }
+
+    /**
+     * Mueve un ítem de una ubicación a otra.
+     */
+    public void move(Item item, String oldLocation, String newLocation) throws ItemNotFound, ItemDuplicated {
+        remove(item, oldLocation);
+        add(item);
+    }
+
+    /**
+     * Ajusta el stock agregado de la ubicación tras un cambio de cantidad.
+     * @param delta diferencia de unidades (positiva o negativa)
+     */
+    public void stockChanged(String location, int delta) throws ItemNotFound {
+        buckets.get(location).stock += delta;
+    }
+
+    /**
+     * @return códigos de los ítems guardados en la ubicación (lista vacía si no hay)
+     */
+    public LinkedList<String> codesAt(String location) {
+        try {
+            return buckets.get(location).items.keys();
+        } catch (ItemNotFound e) {
+            return new LinkedList<>();
+        }
+    }
+
+    /**
+     * @return ítems guardados en la ubicación (lista vacía si no hay)
+     */
+    public LinkedList<Item> itemsAt(String location) {
+        try {
+            return buckets.get(location).items.values();
+        } catch (ItemNotFound e) {
+            return new LinkedList<>();
+        }
+    }
+
+    /** @return número de ítems distintos en la ubicación */
+    public int countAt(String location) {
+        try {
+            return buckets.get(location).items.size();
+        } catch (ItemNotFound e) {
+            return 0;
+        }
+    }
+
+    /** @return unidades totales en stock en la ubicación, en O(1) */
+    public long stockAt(String location) {
+        try {
+            return buckets.get(location).stock;
+        } catch (ItemNotFound e) {
+            return 0;
+        }
+    }
+
+    private Bucket bucketFor(String location) throws ItemDuplicated {
+        try {
+            return buckets.get(location);
+        } catch (ItemNotFound e) {
+            Bucket b = new Bucket();
+            buckets.put(location, b);
+            return b;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package sistema;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentación de las operaciones calientes de InventorySystem: un
+ * contador y un histograma de latencias por operación, todo sobre LongAdder
+ * para que los hilos no compitan por la misma celda.
+ * Uso: {@code long t = metrics.start(op); try { ... } finally { metrics.stop(op, t); }}.
+ * Deshabilitadas (por defecto) start() no lee el reloj y stop() retorna
+ * enseguida: el costo es una lectura volatile.
+ * Habilitadas, las llamadas se cuentan todas pero la latencia se puede
+ * muestrear (1 de cada N): en operaciones de decenas de nanosegundos como
+ * getItem leer el reloj dos veces cuesta más que la operación misma.
+ */
+public class Metrics {
+    /** Operaciones instrumentadas. */
+    public enum Op {
+        ADD_ITEM("addItem"),
+        /** un lote completo de addItems (y de importItems); sus ítems se suman además a ADD_ITEM */
+        ADD_ITEMS("addItems"),
+        REMOVE_ITEM("removeItem"),
+        GET_ITEM("getItem"),
+        TOGGLE_EDGE("toggleEdge"),
+        SIMULATE("simulate");
+
+        private final String label;
+
+        Op(String label) {
+            this.label = label;
+        }
+
+        /** @return nombre de la operación en el snapshot */
+        public String label() {
+            return label;
+        }
+    }
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+    private static final long OFF = Long.MIN_VALUE;//marca de "no se midió"
+    private static final long UNTIMED = Long.MIN_VALUE + 1;//se cuenta pero no se mide
+
+    private volatile boolean enabled;
+    private final LongAdder[] calls = new LongAdder[Op.values().length];
+    private final LatencyHistogram[] latency = new LatencyHistogram[Op.values().length];
+    private final int[] sampleMask = new int[Op.values().length];//potencia de dos - 1
+
+    public Metrics() {
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = new LongAdder();
+            latency[i] = new LatencyHistogram();
+        }
+        setSampling(Op.GET_ITEM, 16);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Mide la latencia de 1 de cada every llamadas de la operación (1 = todas).
+     * @param every se redondea a la potencia de dos siguiente
+     */
+    public void setSampling(Op op, int every) {
+        int n = Integer.highestOneBit(Math.max(1, every));
+        if (n < every) n <<= 1;
+        sampleMask[op.ordinal()] = n - 1;
+    }
+
+    /** @return marca de inicio para stop, o una marca vacía si están deshabilitadas */
+    public long start(Op op) {
+        if (!enabled) return OFF;
+        int mask = sampleMask[op.ordinal()];
+        if (mask != 0 && (ThreadLocalRandom.current().nextInt() & mask) != 0) return UNTIMED;
+        return System.nanoTime();
+    }
+
+    /** Cuenta la operación y, si fue muestreada, registra su latencia desde start. */
+    public void stop(Op op, long start) {
+        if (start == OFF) return;
+        calls[op.ordinal()].increment();
+        if (start != UNTIMED) latency[op.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * Suma n llamadas a la operación sin medir latencia (p.ej. los ítems de
+     * un lote, cuya latencia se mide una vez para todo el lote).
+     */
+    public void add(Op op, long n) {
+        if (enabled) calls[op.ordinal()].add(n);
+    }
+
+    /** @return cantidad de llamadas de la operación desde que se habilitaron (o desde reset) */
+    public long count(Op op) {
+        return calls[op.ordinal()].sum();
+    }
+
+    /** Pone en cero contadores e histogramas. */
+    public void reset() {
+        for (int i = 0; i < calls.length; i++) {
+            calls[i].reset();
+            latency[i].reset();
+        }
+    }
+
+    /**
+     * Toma una foto de contadores y latencias junto con los indicadores
+     * (gauges) que arma quien llama.
+     * @param gaugeNames nombres de los indicadores
+     * @param gaugeValues valor de cada indicador
+     */
+    public MetricsSnapshot snapshot(String[] gaugeNames, double[] gaugeValues) {
+        Op[] ops = Op.values();
+        long[] counts = new long[ops.length];
+        double[][] summaries = new double[ops.length][];
+        for (int i = 0; i < ops.length; i++) {
+            counts[i] = calls[i].sum();
+            summaries[i] = latency[i].summary(PERCENTILES);
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), counts, summaries, gaugeNames.clone(), gaugeValues.clone());
+    }
+}
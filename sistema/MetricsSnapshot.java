@@ -0,0 +1,95 @@
+package sistema;
+
+import exceptions.ItemNotFound;
+
+/**
+ * Foto inmutable de las métricas de InventorySystem: por operación la
+ * cantidad de llamadas, la latencia media, máxima y los percentiles 50, 90,
+ * 99 y 99.9 (en nanosegundos, sobre las llamadas muestreadas), y los
+ * indicadores de las estructuras.
+ * toString() la expone en formato de texto tipo Prometheus para scrapearla.
+ */
+public class MetricsSnapshot {
+    private final long timestamp;
+    private final long[] counts;
+    private final double[][] summaries;//{cantidad, media, máximo, p50, p90, p99, p99.9}
+    private final String[] gaugeNames;
+    private final double[] gaugeValues;
+
+    MetricsSnapshot(long timestamp, long[] counts, double[][] summaries, String[] gaugeNames, double[] gaugeValues) {
+        this.timestamp = timestamp;
+        this.counts = counts;
+        this.summaries = summaries;
+        this.gaugeNames = gaugeNames;
+        this.gaugeValues = gaugeValues;
+    }
+
+    /** @return momento de la foto (epoch en milisegundos) */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /** @return cantidad de llamadas medidas */
+    public long count(Metrics.Op op) {
+        return counts[op.ordinal()];
+    }
+
+    /** @return latencia media en nanosegundos */
+    public double meanNanos(Metrics.Op op) {
+        return summaries[op.ordinal()][1];
+    }
+
+    /** @return latencia máxima en nanosegundos */
+    public long maxNanos(Metrics.Op op) {
+        return (long) summaries[op.ordinal()][2];
+    }
+
+    /**
+     * @param percentile uno de 50, 90, 99 o 99.9
+     * @return latencia en nanosegundos para ese percentil
+     * @throws ItemNotFound si el percentil no se calcula
+     */
+    public long percentileNanos(Metrics.Op op, double percentile) throws ItemNotFound {
+        for (int i = 0; i < Metrics.PERCENTILES.length; i++) {
+            if (Metrics.PERCENTILES[i] == percentile) return (long) summaries[op.ordinal()][3 + i];
+        }
+        throw new ItemNotFound("Percentil no disponible: " + percentile);
+    }
+
+    /** @return nombres de los indicadores, en orden */
+    public String[] gaugeNames() {
+        return gaugeNames.clone();
+    }
+
+    /**
+     * @return valor del indicador
+     * @throws ItemNotFound si no existe
+     */
+    public double gauge(String name) throws ItemNotFound {
+        for (int i = 0; i < gaugeNames.length; i++) {
+            if (gaugeNames[i].equals(name)) return gaugeValues[i];
+        }
+        throw new ItemNotFound("Indicador no encontrado: " + name);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Metrics.Op op : Metrics.Op.values()) {
+            double[] s = summaries[op.ordinal()];
+            String tag = "{op=\"" + op.label() + "\"";
+            sb.append("inventory_ops_total").append(tag).append("} ").append(counts[op.ordinal()]).append('\n');
+            sb.append("inventory_latency_nanos_mean").append(tag).append("} ").append((long) s[1]).append('\n');
+            sb.append("inventory_latency_nanos_max").append(tag).append("} ").append((long) s[2]).append('\n');
+            for (int i = 0; i < Metrics.PERCENTILES.length; i++) {
+                sb.append("inventory_latency_nanos").append(tag)
+                  .append(",quantile=\"").append(Metrics.QUANTILE_LABELS[i]).append("\"} ")
+                  .append((long) s[3 + i]).append('\n');
+            }
+        }
+        for (int i = 0; i < gaugeNames.length; i++) {
+            sb.append("inventory_").append(gaugeNames[i]).append(' ').append(gaugeValues[i]).append('\n');
+        }
+        return sb.toString();
+    }
+}
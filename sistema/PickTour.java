@@ -0,0 +1,39 @@
+package sistema;
+
+import list.LinkedList;
+
+/**
+ * Resultado de una planificación de recorrido de picking:
+ * orden de las paradas, camino completo por el grafo y costo total.
+ */
+public class PickTour {
+    private final LinkedList<String> stops;
+    private final LinkedList<String> path;
+    private final double cost;
+
+    public PickTour(LinkedList<String> stops, LinkedList<String> path, double cost) {
+        this.stops = stops;
+        this.path = path;
+        this.cost = cost;
+    }
+
+    /** @return ubicaciones a visitar en orden, de Entrada a Salida */
+    public LinkedList<String> getStops() {
+        return stops;
+    }
+
+    /** @return camino completo vértice a vértice */
+    public LinkedList<String> getPath() {
+        return path;
+    }
+
+    /** @return costo total (infinito si alguna parada es inalcanzable) */
+    public double getCost() {
+        return cost;
+    }
+
+    @Override
+    public String toString() {
+        return "PickTour{stops=" + stops + ", cost=" + cost + ", path=" + path + '}';
+    }
+}
@@ -0,0 +1,85 @@
+package sistema;
+
+import list.LinkedList;
+import modelo.Item;
+import tree.Trie;
+
+/**
+ * Índices de búsqueda para el Sistema de Gestión y Optimización de Inventarios en Almacenes.
+ * - Prefijo sobre códigos (SKU parcial), en orden lexicográfico.
+ * - Nombre: cada palabra del nombre (y el nombre completo) en minúsculas se
+ *   indexa en un trie, lo que permite buscar por prefijo o con errores de tipeo.
+ * Todas las consultas devuelven a lo sumo k resultados y dejan de recorrer
+ * el trie al alcanzarlos, así la latencia no crece con el catálogo.
+ */
+public class SearchIndex {
+    private final Trie<Item> codes;
+    private final Trie<Item> names;
+
+    public SearchIndex() {
+        codes = new Trie<>();
+        names = new Trie<>();
+    }
+
+    /** Indexa el código y el nombre del ítem. */
+    public void add(Item item) {
+        codes.put(item.getCode(), item);
+        String[] terms = terms(item.getName());
+        for (String t : terms) names.put(t, item);
+    }
+
+    /** Quita el ítem de ambos índices. */
+    public void remove(Item item) {
+        codes.remove(item.getCode(), item);
+        String[] terms = terms(item.getName());
+        for (String t : terms) names.remove(t, item);
+    }
+
+    /**
+     * Ítems cuyo código empieza con el prefijo, ordenados por código.
+     * @param k máximo de resultados
+     */
+    public LinkedList<Item> byCodePrefix(String prefix, int k) {
+        return codes.prefix(prefix, k);
+    }
+
+    /**
+     * Ítems con alguna palabra del nombre que empieza con el prefijo (sin distinguir mayúsculas).
+     * @param k máximo de resultados
+     */
+    public LinkedList<Item> byNamePrefix(String prefix, int k) {
+        return names.prefix(normalize(prefix), k);
+    }
+
+    /**
+     * Ítems con alguna palabra del nombre (o el nombre completo) a distancia
+     * de edición <= maxEdits de la consulta; primero los más cercanos.
+     * @param k máximo de resultados
+     */
+    public LinkedList<Item> byNameFuzzy(String query, int maxEdits, int k) {
+        return names.fuzzy(normalize(query), maxEdits, k);
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase();
+    }
+
+    // palabras del nombre más el nombre completo, sin repetir
+    private static String[] terms(String name) {
+        String full = normalize(name);
+        if (full.isEmpty()) return new String[0];
+        String[] words = full.split("\\s+");
+        if (words.length == 1) return words;
+        String[] out = new String[words.length + 1];
+        int n = 0;
+        out[n++] = full;
+        for (String w : words) {
+            boolean seen = false;
+            for (int i = 0; i < n && !seen; i++) seen = out[i].equals(w);
+            if (!seen) out[n++] = w;
+        }
+        String[] trimmed = new String[n];
+        System.arraycopy(out, 0, trimmed, 0, n);
+        return trimmed;
+    }
+}
@@ -0,0 +1,23 @@
+package sistema;
+
+import modelo.Item;
+
+/**
+ * Suscriptor de alertas de reposición del {@link StockMonitor}.
+ * Se notifica solo cuando el ítem cruza su punto de reorden, no en cada cambio.
+ */
+public interface StockAlertListener {
+    /**
+     * El stock del ítem bajó de su punto de reorden.
+     * @param item ítem afectado
+     * @param reorderPoint punto de reorden configurado
+     */
+    void belowReorderPoint(Item item, int reorderPoint);
+
+    /**
+     * El stock del ítem volvió a estar en o sobre su punto de reorden.
+     * @param item ítem afectado
+     * @param reorderPoint punto de reorden configurado
+     */
+    void restocked(Item item, int reorderPoint);
+}
@@ -0,0 +1,133 @@
+package sistema;
+
+import exceptions.IsEmpty;
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import list.HashTable;
+import list.LinkedList;
+import modelo.Item;
+import tree.AVLTree;
+
+/**
+ * Monitor de stock bajo para el Sistema de Gestión y Optimización de Inventarios en Almacenes.
+ * Mantiene un árbol AVL ordenado por (cantidad, código), actualizado en
+ * O(log n) con cada addStock/removeStock, y el conjunto de ítems bajo su
+ * punto de reorden. Los suscriptores reciben un aviso solo cuando un ítem
+ * cruza su punto de reorden, sin sondeos periódicos.
+ */
+public class StockMonitor {
+    /** Clave del árbol: ordena por cantidad y desempata por código. */
+    private static class StockKey implements Comparable<StockKey> {
+        final int quantity;
+        final Item item;
+
+        StockKey(int quantity, Item item) {
+            this.quantity = quantity;
+            this.item = item;
+        }
+
+        @Override
+        public int compareTo(StockKey other) {
+            int cmp = Integer.compare(quantity, other.quantity);
+            return cmp != 0 ? cmp : item.getCode().compareTo(other.item.getCode());
+        }
+    }
+
+    private final AVLTree<StockKey> byQuantity;
+    private final HashTable<String, Integer> reorderPoints;
+    private final HashTable<String, Item> below;
+    private final LinkedList<StockAlertListener> listeners;
+
+    public StockMonitor() {
+        byQuantity = new AVLTree<>();
+        reorderPoints = new HashTable<>();
+        below = new HashTable<>();
+        listeners = new LinkedList<>();
+    }
+
+    /** Empieza a seguir el stock del ítem. */
+    public void add(Item item) throws ItemDuplicated {
+        byQuantity.insert(new StockKey(item.getQuantity(), item));
+    }
+
+    /** Deja de seguir el ítem y olvida su punto de reorden. */
+    public void remove(Item item) throws ItemNotFound {
+        byQuantity.delete(new StockKey(item.getQuantity(), item));
+        if (reorderPoints.containsKey(item.getCode())) reorderPoints.remove(item.getCode());
+        if (below.containsKey(item.getCode())) below.remove(item.getCode());
+    }
+
+    /**
+     * Reubica el ítem en el árbol y avisa a los suscriptores si cruzó su punto de reorden.
+     */
+    public void quantityChanged(Item item, int oldQuantity, int newQuantity) throws ItemNotFound, ItemDuplicated {
+        byQuantity.delete(new StockKey(oldQuantity, item));
+        byQuantity.insert(new StockKey(newQuantity, item));
+        Integer point = reorderPointOf(item.getCode());
+        if (point != null) check(item, point, oldQuantity >= point, newQuantity >= point);
+    }
+
+    /**
+     * Configura el punto de reorden de un ítem. Si ya está por debajo,
+     * se avisa de inmediato a los suscriptores.
+     */
+    public void setReorderPoint(Item item, int reorderPoint) throws ItemDuplicated, ItemNotFound {
+        Integer previous = reorderPointOf(item.getCode());
+        if (previous != null) reorderPoints.remove(item.getCode());
+        reorderPoints.put(item.getCode(), reorderPoint);
+        boolean wasOk = !below.containsKey(item.getCode());
+        check(item, reorderPoint, wasOk, item.getQuantity() >= reorderPoint);
+    }
+
+    /** Registra un suscriptor de alertas de reposición. */
+    public void addListener(StockAlertListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Quita un suscriptor de alertas de reposición. */
+    public void removeListener(StockAlertListener listener) throws IsEmpty, ItemNotFound {
+        listeners.remove(listener);
+    }
+
+    /** @return los k ítems con menos stock, de menor a mayor */
+    public LinkedList<Item> lowest(int k) {
+        LinkedList<Item> out = new LinkedList<>();
+        for (Object key : byQuantity.smallest(k).toArray()) {//get(i) recorrería la lista desde la cabeza cada vez
+            out.add(((StockKey) key).item);
+        }
+        return out;
+    }
+
+    /** @return ítems cuyo stock está por debajo de su punto de reorden */
+    public LinkedList<Item> belowReorderPoint() {
+        return below.values();
+    }
+
+    private Integer reorderPointOf(String code) {
+        try {
+            return reorderPoints.get(code);
+        } catch (ItemNotFound e) {
+            return null;
+        }
+    }
+
+    // solo notifica cuando el estado cambia de lado del umbral
+    private void check(Item item, int point, boolean wasOk, boolean isOk) throws ItemDuplicated, ItemNotFound {
+        if (wasOk == isOk) return;
+        if (isOk) {
+            if (below.containsKey(item.getCode())) below.remove(item.getCode());
+        } else if (!below.containsKey(item.getCode())) {
+            below.put(item.getCode(), item);
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            StockAlertListener l;
+            try {
+                l = listeners.get(i);
+            } catch (IsEmpty e) {
+                return;
+            }
+            if (isOk) l.restocked(item, point);
+            else l.belowReorderPoint(item, point);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package test;
+
+import graph.GraphLink;
+import graph.Heuristic;
+import java.util.Random;
+import list.HashTable;
+import list.LinkedList;
+
+public class AStarTest {
+    private static final HashTable<String, Double> weights = new HashTable<>();//para costear los caminos
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Iniciando A* Test ===\n");
+        System.out.println("[Coordenadas parciales: heurística admisible pero inconsistente]");
+        GraphLink<String> graph = new GraphLink<>(false);
+        for (String v : new String[]{"Entrada", "A", "B", "Salida"}) graph.addVertex(v);
+        edge(graph, "Entrada", "A", 5);
+        edge(graph, "Entrada", "B", 1);
+        edge(graph, "B", "A", 1);
+        edge(graph, "A", "Salida", 10);
+        graph.setCoordinates("B", 8, 0, 0);
+        graph.setCoordinates("Salida", 0, 0, 0);
+        LinkedList<String> dijkstra = graph.shortestPath("Entrada", "Salida");
+        LinkedList<String> aStar = graph.aStar("Entrada", "Salida", Heuristic.manhattan(1.0));
+        System.out.println("shortestPath: " + dijkstra + " costo " + cost(dijkstra, "Entrada", "Salida"));
+        System.out.println("aStar:        " + aStar + " costo " + cost(aStar, "Entrada", "Salida"));
+
+        System.out.println("\n[Grafos aleatorios con la mitad de los vértices con coordenadas]");
+        Random random = new Random(7);
+        int compared = 0, mismatches = 0, unreachable = 0;
+        for (int round = 0; round < 30; round++) {
+            weights.clear();
+            GraphLink<String> g = new GraphLink<>(false);
+            int n = 40;
+            double[][] xy = new double[n][2];
+            for (int i = 0; i < n; i++) {
+                g.addVertex("V" + i);
+                xy[i][0] = random.nextInt(20);
+                xy[i][1] = random.nextInt(20);
+                if (random.nextBoolean()) g.setCoordinates("V" + i, xy[i][0], xy[i][1], 0);
+            }
+            for (int e = 0; e < 55; e++) {//pocas aristas: algunos pares quedan sin camino
+                int u = random.nextInt(n), v = random.nextInt(n);
+                if (u == v || weights.containsKey("V" + u + "-V" + v)) continue;
+                double manhattan = Math.abs(xy[u][0] - xy[v][0]) + Math.abs(xy[u][1] - xy[v][1]);
+                edge(g, "V" + u, "V" + v, manhattan + random.nextInt(5));//nunca menor que la distancia: admisible
+            }
+            Heuristic<String> h = random.nextBoolean() ? Heuristic.manhattan(1.0) : Heuristic.euclidean(1.0);
+            for (int q = 0; q < 10; q++) {
+                String from = "V" + random.nextInt(n), to = "V" + random.nextInt(n);
+                double expected = cost(g.shortestPath(from, to), from, to);
+                LinkedList<String> path = g.aStar(from, to, h);
+                double actual = cost(path, from, to);
+                compared++;
+                if (Double.isInfinite(expected)) unreachable++;
+                if (expected != actual || !path.toArray()[path.size() - 1].equals(to)) {
+                    mismatches++;
+                    System.out.println("  DIFERENCIA " + from + "->" + to + ": " + expected + " vs " + actual);
+                }
+            }
+        }
+        System.out.println("Consultas: " + compared + " (sin camino: " + unreachable + "), diferencias de costo: " + mismatches);
+    }
+
+    private static void edge(GraphLink<String> g, String u, String v, double w) throws Exception {
+        g.addEdge(u, v, w);
+        weights.put(u + "-" + v, w);
+        weights.put(v + "-" + u, w);
+    }
+
+    // costo de un camino en el formato de shortestPath (solo el destino = sin camino, salvo origen == destino)
+    private static double cost(LinkedList<String> path, String from, String to) throws Exception {
+        Object[] steps = path.toArray();
+        if (steps.length == 1) return from.equals(to) ? 0.0 : Double.POSITIVE_INFINITY;
+        double total = 0;
+        for (int i = 1; i < steps.length; i++) {
+            Double w = weights.getOrDefault(steps[i - 1] + "-" + steps[i], null);
+            if (w == null) return Double.POSITIVE_INFINITY;
+            total += w;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,38 @@
+package test;
+
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import tree.AVLTree;
+
+/**
+ * Prueba de las consultas ordenadas del AVL: size, rank, select,
+ * floor/ceiling, rangos y paginación.
+ */
+public class AVLTreeTest {
+    public static void main(String[] args) throws ItemDuplicated, ItemNotFound {
+        AVLTree<Integer> avl = new AVLTree<>();
+        // pares del 0 al 198, insertados desordenados
+        for (int i = 0; i < 100; i++) {
+            avl.insert((i * 37 % 100) * 2);
+        }
+        avl.delete(50);
+        avl.delete(0);
+        System.out.println("--- AVL con estadísticas de orden ---");
+        System.out.println("size = " + avl.size() + " (esperado 98)");
+        System.out.println("contains(52) = " + avl.contains(52) + ", contains(50) = " + avl.contains(50));
+        System.out.println("rank(52) = " + avl.rank(52) + " (esperado 24)");
+        System.out.println("select(24) = " + avl.select(24) + " (esperado 52)");
+        System.out.println("floor(51) = " + avl.floor(51) + ", ceiling(51) = " + avl.ceiling(51));
+        System.out.println("floor(-1) = " + avl.floor(-1) + ", ceiling(199) = " + avl.ceiling(199));
+        System.out.println("countRange(10, 20) = " + avl.countRange(10, 20) + " (esperado 6)");
+        System.out.println("page(3, 5) = " + avl.page(3, 5) + " (esperado [32, 34, 36, 38, 40])");
+        System.out.println("page(19, 5) = " + avl.page(19, 5) + " (esperado [194, 196, 198])");
+        System.out.println("page(50000, 50000) = " + avl.page(50000, 50000) + " (esperado [])");
+        System.out.println("smallest(3) = " + avl.smallest(3));
+        try {
+            avl.select(98);
+        } catch (ItemNotFound e) {
+            System.out.println("select(98): " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import sistema.InventorySystem;
+import ui.BatchRunner;
+
+public class BatchRunnerTest {
+    public static void main(String[] args) throws Exception {
+        String script = String.join("\n",
+            "# guion de prueba",
+            "ADD A1 10 Zona1 Tornillo largo",
+            "add B1 4 Zona2",
+            "ADD C1 7 Zona3",
+            "",
+            "GET A1",
+            "EDGE Zona1 Zona2",
+            "EDGE Zona2 Zona3 2.5",
+            "ROUTE Zona1 Zona3",
+            "MOVE A1 Zona2",//comando desconocido
+            "GET",//faltan argumentos
+            "ADD D1 muchos Zona1",//cantidad no entera
+            "ADD A1 3 Zona1",//duplicado
+            "EDGE Zona1 Zona3 OFF",//ruta inexistente
+            "DEL B1 extra",//sobran argumentos
+            "DEL B1",
+            "GET B1");
+        StringWriter buffer = new StringWriter();
+        BatchRunner runner = new BatchRunner(new InventorySystem(), new PrintWriter(buffer), false);
+        runner.run(new BufferedReader(new StringReader(script)));
+
+        System.out.println("--- Salida ---");
+        for (String line : buffer.toString().split("\\R")) {
+            if (line.startsWith("--- Resumen ---")) break;//el resumen trae tiempos: varía entre corridas
+            System.out.println(line);
+        }
+        System.out.println("--- Conteo ---");
+        System.out.println("comandos=" + runner.getCommands() + " errores=" + runner.getErrors());
+    }
+}
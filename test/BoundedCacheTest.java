@@ -0,0 +1,84 @@
+package test;
+
+import exceptions.ItemNotFound;
+import java.util.Random;
+import list.BoundedCache;
+import modelo.Item;
+import sistema.InventorySystem;
+
+public class BoundedCacheTest {
+    private static final int KEYS = 10_000;
+    private static final int CAPACITY = 200;
+    private static final int REQUESTS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("--- Carga sesgada: 100 claves calientes más barridos secuenciales ---");
+        for (BoundedCache.Policy policy : BoundedCache.Policy.values()) {
+            BoundedCache<Integer, String> cache = new BoundedCache<>(policy, CAPACITY);
+            skewed(cache);
+            System.out.printf("%-8s hits=%d misses=%d evictions=%d rejections=%d hitRatio=%.3f size=%d%n",
+                              policy, cache.hits(), cache.misses(), cache.evictions(), cache.rejections(),
+                              cache.hitRatio(), cache.size());
+        }
+
+        System.out.println("--- Límite por peso ---");
+        BoundedCache<Integer, String> weighted = new BoundedCache<>(BoundedCache.Policy.LRU, 100, String::length);
+        for (int i = 0; i < 20; i++) weighted.get(i, k -> "x".repeat(1 + k % 10));
+        System.out.println("peso=" + weighted.weightedSize() + " de " + weighted.maxWeight()
+                           + " entradas=" + weighted.size() + " evictions=" + weighted.evictions());
+
+        System.out.println("--- Invalidación durante una carga ---");
+        BoundedCache<String, Integer> racing = new BoundedCache<>(BoundedCache.Policy.LRU, 10);
+        int[] stock = {5};
+        Integer loaded = racing.get("K", k -> {
+            int value = stock[0];//lectura hecha antes del cambio
+            stock[0] = 7;//otro hilo actualiza la fuente...
+            racing.invalidate(k);//...e invalida mientras la carga sigue en curso
+            return value;
+        });
+        System.out.println("cargado=" + loaded + " guardado=" + racing.getIfPresent("K")
+                           + " siguiente get=" + racing.get("K", k -> stock[0]));
+
+        System.out.println("--- Caché de getItem ---");
+        InventorySystem system = new InventorySystem();
+        for (int i = 0; i < 50; i++) system.addItem(new Item("I" + i, "Item" + i, 10, "Zona" + (i % 4)));
+        system.enableItemCache(BoundedCache.Policy.TINY_LFU, 20);
+        BoundedCache<String, Item> cache = system.getItemCache();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10; i++) system.getItem("I" + i);
+        }
+        System.out.println("tras 30 lecturas: hits=" + cache.hits() + " misses=" + cache.misses() + " size=" + cache.size());
+        system.getItem("I3").addStock(5);//el cambio de stock invalida la entrada
+        System.out.println("I3 en caché tras addStock: " + (cache.getIfPresent("I3") != null)
+                           + ", cantidad leída: " + system.getItem("I3").getQuantity());
+        system.getItem("I4").setLocation("Zona9");
+        System.out.println("I4 en caché tras setLocation: " + (cache.getIfPresent("I4") != null));
+        system.removeItem("I5");
+        System.out.println("I5 en caché tras removeItem: " + (cache.getIfPresent("I5") != null));
+        try {
+            system.getItem("I5");
+            System.out.println("ERROR: getItem devolvió un ítem borrado");
+        } catch (ItemNotFound e) {
+            System.out.println("getItem(I5): ItemNotFound");
+        }
+        try {
+            system.getItem("NO");
+        } catch (ItemNotFound e) {
+            System.out.println("getItem(NO): ItemNotFound, size=" + cache.size());
+        }
+    }
+
+    // claves calientes con frecuencia alta y barridos de claves frías que las desplazan en LRU
+    private static void skewed(BoundedCache<Integer, String> cache) throws ItemNotFound {
+        Random random = new Random(42);
+        BoundedCache.Loader<Integer, String> loader = k -> "v" + k;
+        int scan = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            int key;
+            if (i % 1000 < 300) key = 100 + scan++ % (KEYS - 100);//barrido secuencial
+            else if (random.nextInt(100) < 80) key = random.nextInt(100);
+            else key = 100 + random.nextInt(KEYS - 100);
+            cache.get(key, loader);
+        }
+    }
+}
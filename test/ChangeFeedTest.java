@@ -0,0 +1,92 @@
+package test;
+
+import list.HashTable;
+import modelo.Item;
+import sistema.ChangeEvent;
+import sistema.ChangeFeed;
+import sistema.InventorySystem;
+
+public class ChangeFeedTest {
+    public static void main(String[] args) throws Exception {
+        InventorySystem system = new InventorySystem();
+        system.addItem(new Item("A0", "Previo", 1, "Zona1"));//antes de suscribirse: no se publica
+        ChangeFeed feed = system.enableChangeFeed(64, 0, ChangeFeed.Overflow.DROP_OLDEST);
+        ChangeFeed.Subscription sub = feed.subscribe();
+        ChangeEvent[] out = new ChangeEvent[16];
+
+        System.out.println("--- Eventos ---");
+        system.addItem(new Item("A1", "ItemA1", 10, "Zona1"));
+        system.addItem(new Item("A2", "ItemA2", 4, "Zona2"));
+        system.getItem("A1").removeStock(3);
+        system.getItem("A2").setLocation("Zona1");
+        system.toggleEdge("Zona1-Zona2", true);
+        system.toggleEdge("Zona1-Zona2", false);
+        system.removeItem("A2");
+        print(out, sub.poll(out));
+        System.out.println("lag=" + sub.lag() + " posición=" + sub.position());
+
+        System.out.println("--- Fusión de stock ---");
+        ChangeFeed merged = system.enableChangeFeed(64, 60_000, ChangeFeed.Overflow.BLOCK);
+        ChangeFeed.Subscription view = merged.subscribe();
+        Item a1 = system.getItem("A1");
+        for (int i = 0; i < 5; i++) a1.addStock(2);
+        Item a0 = system.getItem("A0");
+        a0.addStock(4);
+        a0.removeStock(4);//cambio neto nulo: no sale
+        System.out.println("antes de flush: " + view.poll(out));
+        system.addItem(new Item("B1", "ItemB1", 7, "Zona2"));
+        a1.setLocation("Zona2");//publica antes el stock pendiente de A1
+        merged.flush();
+        print(out, view.poll(out));
+        System.out.println("fusionados=" + merged.coalesced());
+
+        System.out.println("--- Vista derivada: variación de stock por zona ---");
+        HashTable<String, Integer> byZone = new HashTable<>();
+        ChangeFeed live = system.enableChangeFeed(64, 0, ChangeFeed.Overflow.BLOCK);
+        ChangeFeed.Subscription zones = live.subscribe();
+        system.addItem(new Item("C1", "ItemC1", 5, "Zona3"));
+        system.getItem("C1").addStock(5);
+        system.getItem("B1").setLocation("Zona3");
+        system.removeItem("A1");
+        int n;
+        while ((n = zones.poll(out)) > 0) {
+            for (int i = 0; i < n; i++) apply(byZone, out[i]);
+        }
+        for (String zone : new String[]{"Zona1", "Zona2", "Zona3"}) {
+            System.out.println(zone + " = " + byZone.getOrDefault(zone, 0));
+        }
+
+        System.out.println("--- Suscriptor atrasado ---");
+        ChangeFeed small = system.enableChangeFeed(4, 0, ChangeFeed.Overflow.DROP_OLDEST);
+        ChangeFeed.Subscription slow = small.subscribe();
+        Item c1 = system.getItem("C1");
+        for (int i = 0; i < 10; i++) c1.addStock(1);
+        print(out, slow.poll(out));
+        slow.close();
+        System.out.println("suscriptores=" + small.subscriberCount());
+        system.disableChangeFeed();
+    }
+
+    private static void apply(HashTable<String, Integer> byZone, ChangeEvent e) throws Exception {
+        switch (e.getType()) {
+            case ITEM_ADDED: add(byZone, e.getValue(), e.getNewQuantity()); break;
+            case ITEM_REMOVED: add(byZone, e.getValue(), -e.getOldQuantity()); break;
+            case STOCK_CHANGED: add(byZone, e.getValue(), e.getNewQuantity() - e.getOldQuantity()); break;
+            case LOCATION_CHANGED:
+                add(byZone, e.getPrevious(), -e.getNewQuantity());
+                add(byZone, e.getValue(), e.getNewQuantity());
+                break;
+            default:
+        }
+    }
+
+    private static void add(HashTable<String, Integer> byZone, String zone, int delta) throws Exception {
+        int current = byZone.getOrDefault(zone, 0);
+        if (byZone.containsKey(zone)) byZone.remove(zone);
+        byZone.put(zone, current + delta);
+    }
+
+    private static void print(ChangeEvent[] out, int n) {
+        for (int i = 0; i < n; i++) System.out.println(out[i]);
+    }
+}
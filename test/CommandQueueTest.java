@@ -0,0 +1,139 @@
+package test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import list.RingBuffer;
+import modelo.Item;
+import sistema.CommandQueue;
+import sistema.InventorySystem;
+
+public class CommandQueueTest {
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 20_000;
+    private static final int SKUS = 8;
+    private static final int STOCK = 100_000;//alcanza para todas las reservas: el resultado no depende del orden
+
+    public static void main(String[] args) throws Exception {
+        ringBuffer();
+        commandQueue();
+    }
+
+    // varios productores y un consumidor: cada elemento sale exactamente una vez
+    private static void ringBuffer() throws Exception {
+        System.out.println("--- RingBuffer MPSC ---");
+        RingBuffer<Integer> ring = new RingBuffer<>(64);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            int base = p * PER_PRODUCER;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < PER_PRODUCER; i++) {
+                    while (!ring.offer(base + i)) Thread.onSpinWait();//lleno: reintenta
+                }
+            });
+            producers[p].start();
+        }
+        boolean[] seen = new boolean[PRODUCERS * PER_PRODUCER];
+        int[] lastOf = new int[PRODUCERS];
+        Arrays.fill(lastOf, -1);
+        int received = 0, duplicates = 0, outOfOrder = 0;
+        Integer[] batch = new Integer[32];
+        while (received < seen.length) {
+            int n = ring.drain(batch, batch.length);
+            if (n == 0) Thread.yield();
+            for (int i = 0; i < n; i++) {
+                int v = batch[i];
+                if (seen[v]) duplicates++;
+                seen[v] = true;
+                int p = v / PER_PRODUCER;
+                if (v <= lastOf[p]) outOfOrder++;//FIFO por productor
+                lastOf[p] = v;
+                received++;
+            }
+        }
+        for (Thread t : producers) t.join();
+        System.out.println("recibidos=" + received + " duplicados=" + duplicates + " fuera de orden=" + outOfOrder
+                           + " vacío=" + ring.isEmpty());
+    }
+
+    private static void commandQueue() throws Exception {
+        System.out.println("--- CommandQueue ---");
+        InventorySystem system = new InventorySystem();
+        for (int i = 0; i < SKUS; i++) system.addItem(new Item("S" + i, "Sku" + i, STOCK, "Zona" + (i % 3)));
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CompletableFuture<?>[][] futures = new CompletableFuture<?>[PRODUCERS][PER_PRODUCER];
+        CommandQueue queue = new CommandQueue(system, 128, 32);//cola chica: los productores sienten la contrapresión
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            int id = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < PER_PRODUCER; i++) {
+                    String code = "S" + ((id + i) % SKUS);
+                    if (i % 3 == 0) {
+                        futures[id][i] = queue.reserveStock(code, 2).thenAccept(ok -> {
+                            if (ok) reserved.addAndGet(2);
+                        });
+                    } else if (i % 1000 == 999) {
+                        futures[id][i] = queue.addStock("NO" + id, 1).exceptionally(e -> {
+                            failed.incrementAndGet();//ItemNotFound viaja en el futuro
+                            return null;
+                        });
+                    } else {
+                        futures[id][i] = queue.addStock(code, 1).thenAccept(q -> added.incrementAndGet());
+                    }
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread t : producers) t.join();
+        CompletableFuture.allOf(flatten(futures)).join();
+        int completed = 0;
+        for (CompletableFuture<?>[] row : futures) {
+            for (CompletableFuture<?> f : row) if (f.isDone()) completed++;
+        }
+        long total = queue.submit(s -> {
+            long sum = 0;
+            for (int i = 0; i < SKUS; i++) sum += s.getItem("S" + i).getQuantity();
+            return sum;
+        }).join();
+        long expected = SKUS * (long) STOCK + added.get() - reserved.get();
+        System.out.println("futuros completados=" + completed + " de " + PRODUCERS * PER_PRODUCER);
+        System.out.println("ingresos=" + added.get() + " reservado=" + reserved.get() + " fallidos=" + failed.get());
+        System.out.println("stock total=" + total + " esperado=" + expected + " cuadra=" + (total == expected));
+
+        System.out.println("--- Rutas ---");
+        queue.addItem(new Item("E0", "Muelle", 1, "Entrada")).join();//con la cola abierta el sistema se toca solo a través de ella
+        edge(queue.toggleEdge("Entrada-Zona1", true), "abrir Entrada-Zona1");
+        edge(queue.toggleEdge("Entrada-Zona1", true), "abrir de nuevo");
+        edge(queue.toggleEdge("Zona1-Nope", true), "ubicación inexistente");
+        edge(queue.toggleEdge("Zona1-Zona2", false), "cerrar ruta inexistente");
+        edge(queue.toggleEdge("sin guion", true), "formato inválido");
+
+        queue.close();
+        try {
+            queue.addStock("S0", 1).join();
+            System.out.println("ERROR: la cola cerrada aceptó un comando");
+        } catch (CompletionException e) {
+            System.out.println("tras close: " + e.getCause().getClass().getSimpleName() + ": " + e.getCause().getMessage());
+        }
+        System.out.println("S0 sin cambios tras close: " + system.getItem("S0").getQuantity());
+    }
+
+    private static void edge(CompletableFuture<Void> future, String what) {
+        try {
+            future.join();
+            System.out.println(what + ": ok");
+        } catch (CompletionException e) {
+            System.out.println(what + ": " + e.getCause().getClass().getSimpleName() + ": " + e.getCause().getMessage());
+        }
+    }
+
+    private static CompletableFuture<?>[] flatten(CompletableFuture<?>[][] futures) {
+        CompletableFuture<?>[] all = new CompletableFuture<?>[PRODUCERS * PER_PRODUCER];
+        for (int p = 0; p < PRODUCERS; p++) System.arraycopy(futures[p], 0, all, p * PER_PRODUCER, PER_PRODUCER);
+        return all;
+    }
+}
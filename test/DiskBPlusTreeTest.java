@@ -0,0 +1,52 @@
+package test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import modelo.Item;
+import sistema.InventorySystem;
+import tree.Codec;
+import tree.DiskBPlusTree;
+
+public class DiskBPlusTreeTest {
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("indice", ".db");
+        Files.delete(file);//el árbol crea el archivo
+        // Árbol directo: muchas claves con páginas chicas y una caché mínima para forzar desalojos
+        try (DiskBPlusTree<String, String> tree = new DiskBPlusTree<>(file, Codec.STRING, Codec.STRING, 512, 16)) {
+            for (int i = 0; i < 5000; i++) tree.insert(String.format("SKU%05d", (i * 37) % 5000), "Zona" + (i % 7));
+            tree.delete("SKU00010");
+            System.out.println("--- Árbol en disco ---");
+            System.out.println("pares=" + tree.size() + " altura=" + tree.height() + " páginas=" + tree.pageCount());
+            System.out.println("SKU04999 -> " + tree.get("SKU04999"));
+            System.out.println("contiene SKU00010: " + tree.contains("SKU00010"));
+            System.out.println("desalojos=" + tree.cache().evictions() + " escrituras=" + tree.cache().writes());
+        }
+        try (DiskBPlusTree<String, String> tree = new DiskBPlusTree<>(file, Codec.STRING, Codec.STRING)) {
+            System.out.println("reabierto: pares=" + tree.size() + " SKU00001 -> " + tree.get("SKU00001"));
+            try {//un surrogate sin par no se reescribe como '?': se rechaza antes de tocar el árbol
+                tree.insert("SKU\uD800", "Zona1");
+                System.out.println("clave inválida aceptada");
+            } catch (IllegalArgumentException e) {
+                System.out.println("clave inválida rechazada: " + e.getMessage() + " pares=" + tree.size());
+            }
+        }
+        Files.delete(file);
+
+        // Inventario con índice persistente: se recupera en un sistema nuevo
+        InventorySystem system = new InventorySystem();
+        system.openDiskIndex(file, 64);
+        system.addItem(new Item("C1", "ItemC1", 10, "Zona1"));
+        system.addItem(new Item("A1", "ItemA1", 5, "Zona2"));
+        system.addItem(new Item("B1", "ItemB1", 8, "Zona3"));
+        system.getItem("A1").addStock(7);
+        system.removeItem("C1");
+        system.closeDiskIndex();
+
+        InventorySystem restarted = new InventorySystem();
+        restarted.openDiskIndex(file, 64);
+        System.out.println("--- Inventario recuperado ---");
+        restarted.displayAVL();
+        restarted.closeDiskIndex();
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,165 @@
+package test;
+
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import java.util.function.IntFunction;
+import list.HashTable;
+
+public class HashTableTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Iniciando HashTable Test ===\n");
+        presizing();
+        incrementalRehash();
+        treeBins("Claves Comparable", i -> new Sku(i));
+        treeBins("Claves no Comparable", i -> new Tag(i));
+    }
+
+    /** Todas las instancias chocan en el mismo bucket; comparables por número. */
+    private static final class Sku implements Comparable<Sku> {
+        final int n;
+
+        Sku(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public int compareTo(Sku o) {
+            return Integer.compare(n, o.n);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Sku && ((Sku) o).n == n;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    /** Mismo choque de hash pero sin orden natural. */
+    private static final class Tag {
+        final int n;
+
+        Tag(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Tag && ((Tag) o).n == n;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    // el bucket pasa a árbol al llegar a 8 pares y vuelve a cadena con 6 o menos
+    private static <K> void treeBins(String title, IntFunction<K> key) throws Exception {
+        System.out.println("[" + title + "]");
+        HashTable<K, Integer> table = new HashTable<>();
+        StringBuilder sb = new StringBuilder("put  :");
+        for (int i = 1; i <= 12; i++) {
+            table.put(key.apply(i), i);
+            sb.append(' ').append(i).append("->").append(table.treeBinCount());
+        }
+        System.out.println(sb);
+        System.out.println("Cadena más larga: " + table.longestChain() + ", spreading: " + table.isSpreading());
+        sb = new StringBuilder("remove:");
+        for (int i = 12; i >= 4; i--) {
+            table.remove(key.apply(i));
+            sb.append(' ').append(i - 1).append("->").append(table.treeBinCount());
+        }
+        System.out.println(sb + "  (pares->árboles)");
+        for (int i = 13; i <= 16; i++) table.put(key.apply(i), i);
+        int errors = 0;
+        for (int i = 1; i <= 16; i++) {
+            boolean expected = i <= 3 || i >= 13;
+            if (table.containsKey(key.apply(i)) != expected) errors++;
+            if (expected && table.get(key.apply(i)) != i) errors++;
+        }
+        try {
+            table.put(key.apply(2), 0);
+            errors++;
+        } catch (ItemDuplicated expected) {
+            // duplicado detectado dentro del bucket
+        }
+        System.out.println("size=" + table.size() + ", árboles=" + table.treeBinCount() + ", errores de búsqueda=" + errors);
+        System.out.println();
+    }
+
+    private static void presizing() throws Exception {
+        System.out.println("[Dimensionado previo]");
+        int n = 100_000;
+        HashTable<String, Integer> sized = new HashTable<>(n);
+        int before = sized.capacity();
+        for (int i = 0; i < n; i++) sized.put("SKU" + i, i);
+        System.out.println("new HashTable<>(" + n + "): capacidad " + before + " -> " + sized.capacity()
+                           + ", rehash en curso: " + sized.isRehashing());
+        HashTable<String, Integer> grown = new HashTable<>();
+        int growths = 0;
+        for (int i = 0; i < n; i++) {
+            int capacity = grown.capacity();
+            grown.put("SKU" + i, i);
+            if (grown.capacity() != capacity) growths++;
+        }
+        System.out.println("new HashTable<>(): capacidad 37 -> " + grown.capacity() + " en " + growths + " crecimientos");
+        System.out.println();
+    }
+
+    // put/get/remove mientras los pares todavía se reparten entre la tabla vieja y la nueva
+    private static void incrementalRehash() throws Exception {
+        System.out.println("[Rehash incremental]");
+        HashTable<Integer, Integer> table = new HashTable<>();
+        boolean[] present = new boolean[20_000];
+        int next = 0;
+        while (table.size() < 1000 || !table.isRehashing()) {//un crecimiento con buckets de sobra por migrar
+            table.put(next, next * 10);
+            present[next++] = true;
+        }
+        System.out.println("Rehash iniciado con " + table.size() + " pares, capacidad " + table.capacity());
+        int steps = 0, errors = 0, removed = 0;
+        while (table.isRehashing()) {
+            steps++;
+            int victim = steps * 3 % next;
+            if (present[victim]) {//quita claves que pueden estar en cualquiera de las dos tablas
+                if (table.remove(victim) != victim * 10) errors++;
+                present[victim] = false;
+                removed++;
+            }
+            table.put(next, next * 10);
+            present[next++] = true;
+            try {
+                table.put(steps % next, -1);
+                if (!present[steps % next]) present[steps % next] = true;
+                else errors++;//una clave presente no puede aceptarse dos veces
+            } catch (ItemDuplicated expected) {
+                // la clave ya estaba, en la tabla vieja o en la nueva
+            }
+            for (int k = 0; k < next; k += 7) {
+                if (table.containsKey(k) != present[k]) errors++;
+            }
+        }
+        System.out.println("Operaciones durante la migración: " + steps + " (quitadas " + removed + ")");
+        int found = 0;
+        for (int k = 0; k < next; k++) {
+            if (!present[k]) {
+                try {
+                    table.get(k);
+                    errors++;
+                } catch (ItemNotFound expected) {
+                    // quitada
+                }
+                continue;
+            }
+            int v = table.get(k);
+            if (v != k * 10 && v != -1) errors++;
+            found++;
+        }
+        System.out.println("Tras migrar: size=" + table.size() + ", encontradas=" + found + ", errores=" + errors);
+        System.out.println();
+    }
+}
@@ -0,0 +1,65 @@
+package test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import modelo.Item;
+import server.InventoryServer;
+import sistema.InventorySystem;
+
+public class InventoryServerTest {
+    private static HttpClient client;
+    private static String base;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");//antes del primer HttpServer
+        InventorySystem system = new InventorySystem();
+        system.addItem(new Item("A1", "ItemA1", 10, "Zona1"));
+        system.addItem(new Item("A2", "ItemA2", 4, "Zona2"));
+        system.addItem(new Item("B1", "ItemB1", 7, "Zona3"));
+        system.toggleEdge("Zona1-Zona2", true);
+        system.toggleEdge("Zona2-Zona3", true);
+
+        // Servidor en un puerto libre del loopback; el cliente reusa la conexión (keep-alive)
+        try (InventoryServer server = new InventoryServer(system, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4)) {
+            server.start();
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            base = "http://127.0.0.1:" + server.getPort();
+
+            System.out.println("--- CRUD ---");
+            send("GET", "/items/A1", null);
+            send("GET", "/items/ZZ", null);
+            send("POST", "/items", "{\"code\":\"C1\",\"name\":\"Caja \\\"grande\\\"\",\"quantity\":3,\"location\":\"Zona3\"}");
+            send("POST", "/items", "{\"code\":\"C1\",\"quantity\":1,\"location\":\"Zona3\"}");
+            send("PUT", "/items/C1", "{\"quantity\":8,\"location\":\"Zona1\"}");
+            send("DELETE", "/items/A2", null);
+            send("POST", "/items", "{\"code\":\"D1\",\"quantity\":-2,\"location\":\"Zona1\"}");
+            send("POST", "/items", "{malo");
+
+            System.out.println("--- Reservas ---");
+            send("POST", "/items/A1/reserve", "{\"quantity\":6}");
+            send("POST", "/items/A1/reserve", "{\"quantity\":6}");
+            send("POST", "/items/A1/release", "{\"quantity\":2}");
+
+            System.out.println("--- Consultas ---");
+            send("GET", "/items?from=A1&to=B9", null);
+            send("GET", "/items?prefix=C&limit=5", null);
+            send("GET", "/route?from=Zona1&to=Zona3", null);
+
+            System.out.println("--- Lote ---");
+            send("POST", "/batch", "[{\"op\":\"get\",\"code\":\"B1\"},{\"op\":\"reserve\",\"code\":\"B1\",\"quantity\":7},"
+                                 + "{\"op\":\"get\",\"code\":\"B1\"},{\"op\":\"delete\",\"code\":\"NO\"},{\"op\":\"volar\"}]");
+            send("PATCH", "/items/A1", null);
+        }
+    }
+
+    private static void send(String method, String path, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).method(method, publisher).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        System.out.println(method + " " + path + " -> " + response.statusCode() + " " + response.body());
+    }
+}
@@ -0,0 +1,79 @@
+package test;
+
+import exceptions.ItemDuplicated;
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import modelo.Item;
+import sistema.ImportReport;
+import sistema.InventorySystem;
+import sistema.ItemFormat;
+
+public class ItemIOTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("--- Duplicado rechazado ---");
+        InventorySystem system = new InventorySystem();
+        system.addItem(new Item("A1", "x", 5, "Z1"));
+        String before = export(system, ItemFormat.CSV);
+        try {
+            system.addItem(new Item("A1", "dup", 9, "Z9"));
+        } catch (ItemDuplicated e) {
+            System.out.println("rechazado: " + e.getMessage());
+        }
+        String after = export(system, ItemFormat.CSV);
+        System.out.print(after);
+        System.out.println("export sin cambios: " + before.equals(after));
+        system.removeItem("A1");
+        System.out.print("tras removeItem: " + export(system, ItemFormat.CSV));
+
+        System.out.println("--- Importar CSV ---");
+        InventorySystem csv = new InventorySystem();
+        csv.addItem(new Item("X9", "Existente", 1, "Zona1"));
+        String csvInput = "location,quantity,code,name\n"//encabezado con las columnas en otro orden
+                        + "Zona1,10,C1,Tornillos\n"
+                        + "Zona2,abc,C2,Tuercas\n"//cantidad inválida
+                        + "Zona2,5,C3,\"Caja \"\"grande\"\", roja\"\n"//comillas escapadas y coma dentro del campo
+                        + "\n"
+                        + "Zona3,-4,C5,Negativo\n"
+                        + "Zona1,3,X9,Repetido\n"//código ya existente
+                        + "Zona1,2,C1,Otra vez\n"//repetido dentro del archivo
+                        + "Zona3,8,C6,Arandelas\n"
+                        + "Zona3,7,C4,\"sin cerrar\n";//comilla sin cerrar: un campo entre comillas puede tener saltos, llega al final
+        System.out.println(csv.importItems(channel(csvInput), ItemFormat.CSV));
+        roundTrip(csv, ItemFormat.CSV);
+
+        System.out.println("--- Importar JSON Lines ---");
+        InventorySystem jsonl = new InventorySystem();
+        String jsonInput = "{\"code\":\"J1\",\"name\":\"Perno \\u00f1\",\"quantity\":4,\"location\":\"Zona1\"}\n"
+                         + "{\"location\":\"Zona2\",\"quantity\":9,\"code\":\"J2\",\"name\":\"Orden libre\",\"extra\":true}\n"
+                         + "{\"code\":\"J3\",\"quantity\":\"mucho\",\"location\":\"Zona1\"}\n"//cantidad inválida
+                         + "{\"code\":\"J4\",\"name\":\"sin cerrar,\"quantity\":1}\n"//comilla sin cerrar
+                         + "{\"code\":\"J1\",\"name\":\"Dup\",\"quantity\":1,\"location\":\"Zona3\"}\n"//código repetido
+                         + "{\"code\":\"J5\",\"name\":\"Salto\\nde línea\",\"quantity\":0,\"location\":\"Zona3\"}\n";
+        System.out.println(jsonl.importItems(channel(jsonInput), ItemFormat.JSONL));
+        roundTrip(jsonl, ItemFormat.JSONL);
+    }
+
+    // exporta, importa en un sistema vacío y vuelve a exportar: ambos textos deben coincidir
+    private static void roundTrip(InventorySystem system, ItemFormat format) throws Exception {
+        String first = export(system, format);
+        System.out.print(first);
+        InventorySystem copy = new InventorySystem();
+        ImportReport report = copy.importItems(channel(first), format);
+        String second = export(copy, format);
+        System.out.println("ida y vuelta: importadas=" + report.getImported() + " rechazadas=" + report.getRejected()
+                           + " idéntico=" + first.equals(second));
+    }
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String export(InventorySystem system, ItemFormat format) throws Exception {
+        StringWriter out = new StringWriter();
+        system.exportItems(out, format);
+        return out.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package test;
+
+import exceptions.ItemNotFound;
+import modelo.Item;
+import sistema.InventorySystem;
+
+public class PickTourTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("--- Recorrido normal ---");
+        InventorySystem system = warehouse(true);
+        System.out.println(system.planPickTour(new String[]{"P4", "P1", "P3"}, 50));
+        System.out.println(system.planPickTour(new String[]{"P2", "P2", "P1"}, 50));//códigos y ubicaciones repetidos
+
+        System.out.println("--- Errores ---");
+        try {
+            system.planPickTour(new String[]{"P1", "NO"}, 50);
+        } catch (ItemNotFound e) {
+            System.out.println("código inexistente: " + e.getMessage());
+        }
+        InventorySystem noExit = warehouse(false);
+        try {
+            noExit.planPickTour(new String[]{"P1"}, 50);
+        } catch (ItemNotFound e) {
+            System.out.println("sin Salida: " + e.getMessage());
+        }
+        InventorySystem empty = new InventorySystem();
+        try {
+            empty.planPickTour(new String[0], 50);
+        } catch (ItemNotFound e) {
+            System.out.println("sin Entrada: " + e.getMessage());
+        }
+    }
+
+    // pasillo (rutas de ida y vuelta) Entrada - Z1 - Z2 - Z3 - Z4 - Salida con un atajo Entrada - Z3
+    private static InventorySystem warehouse(boolean withExit) throws Exception {
+        InventorySystem system = new InventorySystem();
+        system.addItem(new Item("E0", "Muelle", 1, "Entrada"));
+        if (withExit) system.addItem(new Item("S0", "Despacho", 1, "Salida"));
+        system.addItem(new Item("P1", "Tornillos", 40, "Z1"));
+        system.addItem(new Item("P2", "Tuercas", 25, "Z2"));
+        system.addItem(new Item("P3", "Arandelas", 60, "Z3"));
+        system.addItem(new Item("P4", "Clavos", 15, "Z4"));
+        String[] path = {"Entrada", "Z1", "Z2", "Z3", "Z4", "Salida"};
+        for (int i = 0; i + 1 < path.length; i++) {
+            if (!withExit && path[i + 1].equals("Salida")) break;
+            system.toggleEdge(path[i] + "-" + path[i + 1], true, 2.0);
+        }
+        system.toggleEdge("Entrada-Z3", true, 3.0);
+        return system;
+    }
+}
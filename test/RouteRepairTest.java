@@ -0,0 +1,117 @@
+package test;
+
+import graph.GraphLink;
+import graph.RouteTable;
+import java.util.Arrays;
+import java.util.Random;
+import list.LinkedList;
+
+public class RouteRepairTest {
+    private static final int N = 30;
+    private static final int EDGES = 70;
+    private static final int ROUNDS = 60;
+    private static final int BATCH = 8;
+    private static final String[] KEYS = {"V0", "V7", "V15", "V22"};
+
+    private static double[][] w;//peso actual de cada arista, NaN si no existe
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Iniciando RouteRepair Test ===\n");
+        run(true);
+        run(false);
+    }
+
+    private static void run(boolean directed) throws Exception {
+        System.out.println("[" + (directed ? "Dirigido" : "No dirigido") + "]");
+        Random random = new Random(directed ? 11 : 12);
+        GraphLink<String> graph = new GraphLink<>(directed);
+        w = new double[N][N];
+        for (double[] row : w) Arrays.fill(row, Double.NaN);
+        for (int i = 0; i < N; i++) graph.addVertex("V" + i);
+        for (int e = 0; e < EDGES; e++) {
+            int u = random.nextInt(N), v = random.nextInt(N);
+            if (u == v || !Double.isNaN(w[u][v])) continue;
+            double weight = 1 + random.nextInt(20);
+            graph.addEdge("V" + u, "V" + v, weight);
+            set(u, v, weight, directed);
+        }
+        RouteTable<String> table = new RouteTable<>(graph, KEYS);
+        int checks = 0, mismatches = 0, unreachable = 0, repaired = 0, recomputed = 0, closed = 0;
+        int[] us = new int[N * N], vs = new int[N * N];
+        for (int round = 0; round < ROUNDS; round++) {
+            int m = 0;
+            for (int u = 0; u < N; u++) {
+                for (int v = 0; v < N; v++) {
+                    if (!Double.isNaN(w[u][v]) && (directed || u < v)) {
+                        us[m] = u;
+                        vs[m++] = v;
+                    }
+                }
+            }
+            String[] from = new String[BATCH], to = new String[BATCH];
+            double[] weights = new double[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                int e = random.nextInt(m);
+                double old = w[us[e]][vs[e]];
+                int kind = random.nextInt(10);
+                double weight;
+                if (kind == 0) weight = Double.POSITIVE_INFINITY;//ruta bloqueada: puede dejar vértices sin camino
+                else if (Double.isInfinite(old) || kind < 5) weight = 1 + random.nextInt(20);//baja o reabre
+                else weight = old * (1 + random.nextInt(4));//sube
+                if (Double.isInfinite(weight)) closed++;
+                from[i] = "V" + us[e];
+                to[i] = "V" + vs[e];
+                weights[i] = weight;
+                set(us[e], vs[e], weight, directed);
+            }
+            graph.updateWeights(from, to, weights);
+            repaired += table.repairRows();
+            recomputed += table.staleRows();
+            for (String key : KEYS) {
+                for (int t = 0; t < N; t++) {
+                    String dest = "V" + t;
+                    double expected = cost(graph.shortestPath(key, dest), key, dest);
+                    double distance = table.distance(key, dest);
+                    double pathCost = cost(table.path(key, dest), key, dest);
+                    checks++;
+                    if (Double.isInfinite(expected)) unreachable++;
+                    if (expected != distance || pathCost != distance) {
+                        mismatches++;
+                        if (mismatches <= 5) {
+                            System.out.println("  DIFERENCIA ronda " + round + " " + key + "->" + dest + ": shortestPath "
+                                               + expected + ", tabla " + distance + ", camino de la tabla " + pathCost);
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Lotes: " + ROUNDS + " x " + BATCH + " cambios (" + closed + " bloqueos)");
+        System.out.println("Filas reparadas: " + repaired + ", recalculadas: " + recomputed);
+        System.out.println("Comparaciones: " + checks + " (sin camino: " + unreachable + "), diferencias: " + mismatches);
+        table.close();
+        System.out.println();
+    }
+
+    private static void set(int u, int v, double weight, boolean directed) {
+        w[u][v] = weight;
+        if (!directed) w[v][u] = weight;
+    }
+
+    // costo de un camino en el formato de shortestPath; infinito si no hay camino
+    private static double cost(LinkedList<String> path, String from, String to) {
+        Object[] steps = path.toArray();
+        if (steps.length == 1) return from.equals(to) ? 0.0 : Double.POSITIVE_INFINITY;
+        if (!steps[0].equals(from)) return Double.POSITIVE_INFINITY;
+        double total = 0;
+        for (int i = 1; i < steps.length; i++) {
+            double weight = w[index(steps[i - 1])][index(steps[i])];
+            if (Double.isNaN(weight)) return Double.NaN;//el camino usa una arista que no existe
+            total += weight;
+        }
+        return total;
+    }
+
+    private static int index(Object vertex) {
+        return Integer.parseInt(((String) vertex).substring(1));
+    }
+}
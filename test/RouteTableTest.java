@@ -0,0 +1,112 @@
+package test;
+
+import exceptions.ItemNotFound;
+import graph.GraphLink;
+import graph.RouteTable;
+import java.util.Arrays;
+import list.HashTable;
+import list.LinkedList;
+
+public class RouteTableTest {
+    private static final String[] VERTICES = {"Entrada", "A", "B", "C", "D", "Salida"};
+    private static final String[] KEYS = {"Entrada", "C", "Salida"};
+    private static final HashTable<String, Double> weights = new HashTable<>();//copia para costear los caminos de shortestPath
+    private static GraphLink<String> graph;
+
+    public static void main(String[] args) throws Exception {
+        graph = new GraphLink<>();
+        System.out.println("=== Iniciando RouteTable Test ===\n");
+        for (String v : VERTICES) graph.addVertex(v);
+        edge("Entrada", "A", 4.0);
+        edge("Entrada", "B", 1.0);
+        edge("B", "A", 2.0);
+        edge("A", "C", 5.0);
+        edge("B", "D", 8.5);
+        edge("C", "D", 1.0);
+        edge("D", "Salida", 3.0);
+        edge("C", "Salida", 7.0);
+        edge("Salida", "Entrada", 2.0);
+
+        System.out.println("[Clave inexistente]");
+        try {
+            new RouteTable<>(graph, new String[]{"Entrada", "Nope"});
+        } catch (ItemNotFound e) {
+            System.out.println("Error esperado: " + e.getMessage());
+        }
+
+        RouteTable<String> table = new RouteTable<>(graph, KEYS);
+        System.out.println("\n[Todas las claves vs shortestPath]");
+        compare(table);
+        System.out.println("\n[Matriz entre claves]");
+        System.out.println(Arrays.toString(table.matrix()));
+
+        System.out.println("\n[Siguiente salto]");
+        System.out.println("Entrada -> Salida: " + table.nextHop("Entrada", "Salida"));
+        System.out.println("C -> A: " + table.nextHop("C", "A"));
+        System.out.println("Entrada -> Entrada: " + table.nextHop("Entrada", "Entrada"));
+
+        System.out.println("\n[Cerrar Salida->Entrada]");
+        graph.removeEdge("Salida", "Entrada");//solo la usan los árboles de C y Salida
+        weights.remove("Salida-Entrada");
+        System.out.println("Filas vencidas: " + table.staleRows() + " de " + table.keyCount());
+        compare(table);
+
+        System.out.println("\n[Cambiar pesos]");
+        reweight("B", "A", 9.0);//sube: el árbol de Entrada pasaba por B->A
+        reweight("C", "Salida", 0.5);//baja: acorta desde Entrada y C
+        System.out.println("Filas a reparar: " + table.repairRows() + ", vencidas: " + table.staleRows());
+        compare(table);
+        System.out.println(Arrays.toString(table.matrix()));
+
+        System.out.println("\n[Abrir A->D (no acorta nada)]");
+        edge("A", "D", 20.0);
+        System.out.println("Filas vencidas: " + table.staleRows());
+        compare(table);
+
+        System.out.println("\n[Quitar vértice clave C]");
+        graph.removeVertex("C");
+        System.out.println(Arrays.toString(table.matrix()));
+        table.close();
+    }
+
+    private static void edge(String u, String v, double w) throws Exception {
+        graph.addEdge(u, v, w);
+        weights.put(u + "-" + v, w);
+    }
+
+    private static void reweight(String u, String v, double w) throws Exception {
+        graph.updateWeight(u, v, w);
+        weights.remove(u + "-" + v);
+        weights.put(u + "-" + v, w);
+    }
+
+    // compara distancia y camino de la tabla con un Dijkstra nuevo sobre el grafo
+    private static void compare(RouteTable<String> table) throws Exception {
+        int checked = 0;
+        int mismatches = 0;
+        for (String key : KEYS) {
+            for (String to : VERTICES) {
+                LinkedList<String> expected = graph.shortestPath(key, to);
+                double cost = cost(expected, key, to);
+                double distance = table.distance(key, to);
+                String path = table.path(key, to).toString();
+                checked++;
+                if (cost != distance || !path.equals(expected.toString())) {
+                    mismatches++;
+                    System.out.println("  DIFERENCIA " + key + "->" + to + ": tabla " + distance + " " + path
+                                       + ", shortestPath " + cost + " " + expected);
+                }
+            }
+        }
+        System.out.println("Comparados " + checked + " pares, diferencias: " + mismatches);
+        System.out.println("  Entrada->Salida = " + table.distance("Entrada", "Salida") + " " + table.path("Entrada", "Salida"));
+    }
+
+    private static double cost(LinkedList<String> path, String from, String to) throws Exception {
+        Object[] steps = path.toArray();
+        if (steps.length == 1) return from.equals(to) ? 0.0 : Double.POSITIVE_INFINITY;
+        double total = 0;
+        for (int i = 1; i < steps.length; i++) total += weights.get(steps[i - 1] + "-" + steps[i]);
+        return total;
+    }
+}
@@ -6,10 +6,12 @@ public class AVLNode<E> {
     public AVLNode<E> left;
     public AVLNode<E> right;
     public int height;
+    public int size;//cantidad de nodos del subárbol (para rank/select)
 
     public AVLNode(E element) {
         this.element = element;
         this.height = 1;
+        this.size = 1;
     }
 
     
@@ -1,71 +1,126 @@
 package tree;
 import exceptions.ItemDuplicated;
 import exceptions.ItemNotFound;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import list.LinkedList;
 
-public class AVLTree<E extends Comparable<E>> {
+public class AVLTree<E extends Comparable<E>> implements Iterable<E> {
     private AVLNode<E> root;
+    private int modCount;//cambios estructurales, para invalidar iteradores abiertos
 
-    public void insert(E element) throws ItemDuplicated {
-        root = insert(root, element);
-    }
-//para insertar nuevos keys
-    private AVLNode<E> insert(AVLNode<E> node, E element) throws ItemDuplicated {
-        if (node == null) return new AVLNode<>(element);//colocamos al root
+    //pila reutilizable con el camino raíz->nodo; la altura AVL es ~1.44 log n
+    @SuppressWarnings("unchecked")
+    private AVLNode<E>[] path = new AVLNode[16];
 
-        int cmp = element.compareTo(node.element);//Compara el nuevo elemento con el del nodo actual
-        if (cmp < 0) {
-            node.left = insert(node.left, element);
-        } else if (cmp > 0) {
-            node.right = insert(node.right, element);
-        } else {
-            throw new ItemDuplicated("Elemento duplicado: " + element);
+//para insertar nuevos keys (iterativo: no depende del tamaño de la pila del hilo)
+    public void insert(E element) throws ItemDuplicated {
+        if (root == null) {
+            root = new AVLNode<>(element);//colocamos al root
+            modCount++;
+            return;
         }
-
-        updateHeight(node);
-        return balance(node);
+        AVLNode<E>[] stack = path();
+        int top = 0;
+        AVLNode<E> node = root;
+        while (true) {
+            int cmp = element.compareTo(node.element);//Compara el nuevo elemento con el del nodo actual
+            if (cmp == 0) {
+                clearPath(top);
+                throw new ItemDuplicated("Elemento duplicado: " + element);
+            }
+            stack[top++] = node;
+            AVLNode<E> next = cmp < 0 ? node.left : node.right;
+            if (next == null) {//encontramos el hueco donde va la hoja
+                if (cmp < 0) node.left = new AVLNode<>(element);
+                else node.right = new AVLNode<>(element);
+                break;
+            }
+            node = next;
+        }
+        modCount++;
+        rebalancePath(top);
     }
 //para eliminar los keys///////////////////////////
     public void delete(E element) throws ItemNotFound {
-        root = delete(root, element);//comenzamos desde la raiz
-    }
-
-    private AVLNode<E> delete(AVLNode<E> node, E element) throws ItemNotFound {
-        if (node == null) throw new ItemNotFound("Elemento no encontrado: " + element);//vacio?
-
-        int cmp = element.compareTo(node.element);//compara los elementos con el nodo corredor(el que eliminaremos)
-        if (cmp < 0) {
-            node.left = delete(node.left, element);//si es menor izq
-        } else if (cmp > 0) {
-            node.right = delete(node.right, element);//si es mayor derecha
-        } else {
-            if (node.left == null || node.right == null) {//Esto elimina el nodo directamente.
-                node = (node.left != null) ? node.left : node.right;
-            } else {
-                AVLNode<E> min = findMin(node.right);//Busca el sucesor inorden
-                node.element = min.element;//Copia su valor en el nodo actual
-                node.right = delete(node.right, min.element);//Luego elimina ese sucesor del subárbol derecho
+        AVLNode<E>[] stack = path();
+        int top = 0;
+        AVLNode<E> node = root;//comenzamos desde la raiz
+        while (node != null) {
+            int cmp = element.compareTo(node.element);//compara los elementos con el nodo corredor(el que eliminaremos)
+            if (cmp == 0) break;
+            stack[top++] = node;
+            node = cmp < 0 ? node.left : node.right;//si es menor izq, si es mayor derecha
+        }
+        if (node == null) {
+            clearPath(top);
+            throw new ItemNotFound("Elemento no encontrado: " + element);
+        }
+        if (node.left != null && node.right != null) {
+            stack[top++] = node;
+            AVLNode<E> min = node.right;//Busca el sucesor inorden
+            while (min.left != null) {
+                stack[top++] = min;
+                min = min.left;
             }
+            node.element = min.element;//Copia su valor en el nodo actual
+            node = min;//Luego se desengancha ese sucesor (no tiene hijo izquierdo)
+        }
+        AVLNode<E> replacement = (node.left != null) ? node.left : node.right;
+        if (top == 0) {
+            root = replacement;
+        } else {
+            AVLNode<E> parent = stack[top - 1];
+            if (parent.left == node) parent.left = replacement;
+            else parent.right = replacement;
         }
+        modCount++;
+        rebalancePath(top);
+    }
 
-        if (node != null) {//actualizmos la altyura
+    //actualiza altura/tamaño y balancea de abajo hacia arriba los nodos del camino
+    private void rebalancePath(int top) {
+        AVLNode<E>[] stack = path;
+        for (int i = top - 1; i >= 0; i--) {
+            AVLNode<E> node = stack[i];
             updateHeight(node);
-            node = balance(node);
+            AVLNode<E> balanced = balance(node);
+            if (i == 0) {
+                root = balanced;
+            } else if (balanced != node) {//la rotación cambió la raíz del subárbol
+                AVLNode<E> parent = stack[i - 1];
+                if (parent.left == node) parent.left = balanced;
+                else parent.right = balanced;
+            }
+            stack[i] = null;//no retener referencias
         }
+    }
 
-        return node;
+    @SuppressWarnings("unchecked")
+    private AVLNode<E>[] path() {
+        int need = height(root) + 1;
+        if (path.length < need) path = new AVLNode[need * 2];
+        return path;
     }
-//encontradores
-    private AVLNode<E> findMin(AVLNode<E> node) {
-        while (node.left != null) node = node.left;
-        return node;
+
+    private void clearPath(int top) {
+        for (int i = 0; i < top; i++) path[i] = null;
     }
 //econtrador de altura
     private int height(AVLNode<E> node) {
         return node == null ? 0 : node.height;
     }
 
+    private int size(AVLNode<E> node) {
+        return node == null ? 0 : node.size;
+    }
+//actualiza altura y tamaño del subárbol
     private void updateHeight(AVLNode<E> node) {
         node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
     }
 //si hay splits vamos a balancear
     private int balanceFactor(AVLNode<E> node) {
@@ -104,33 +159,361 @@ public class AVLTree<E extends Comparable<E>> {
         updateHeight(y);
         return y;
     }
+//CONSULTAS ORDENADAS (todas O(log n) gracias al tamaño de cada subárbol)
+    /** @return cantidad de elementos del árbol */
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /** @return altura del árbol (0 si está vacío) */
+    public int height() {
+        return height(root);
+    }
+
+    /** @return cantidad de nodos con factor de balance -1, 0 y +1, en ese orden */
+    public int[] balanceHistogram() {
+        int[] counts = new int[3];
+        long[] depth = new long[1];
+        shapeStats(counts, depth);
+        return counts;
+    }
+
+    /** @return profundidad media de los nodos (la raíz está a profundidad 0) */
+    public double averageDepth() {
+        long[] depth = new long[1];
+        shapeStats(new int[3], depth);
+        int n = size();
+        return n == 0 ? 0 : (double) depth[0] / n;
+    }
+
+    //preorden iterativo: la pila nunca pasa de dos marcos por nivel
+    private void shapeStats(int[] balance, long[] depthSum) {
+        if (root == null) return;
+        int cap = 2 * height(root) + 1;
+        @SuppressWarnings("unchecked")
+        AVLNode<E>[] stack = new AVLNode[cap];
+        int[] depths = new int[cap];
+        int top = 0;
+        stack[top] = root;
+        depths[top++] = 0;
+        while (top > 0) {
+            AVLNode<E> node = stack[--top];
+            int d = depths[top];
+            balance[balanceFactor(node) + 1]++;
+            depthSum[0] += d;
+            if (node.right != null) {
+                stack[top] = node.right;
+                depths[top++] = d + 1;
+            }
+            if (node.left != null) {
+                stack[top] = node.left;
+                depths[top++] = d + 1;
+            }
+        }
+    }
+
+    /** @return true si existe un elemento igual (compareTo == 0) */
+    public boolean contains(E key) {
+        return findNode(key) != null;
+    }
+
+    /**
+     * Devuelve el elemento almacenado que es igual a key.
+     * @throws ItemNotFound si no existe
+     */
+    public E find(E key) throws ItemNotFound {
+        AVLNode<E> node = findNode(key);
+        if (node == null) throw new ItemNotFound("Elemento no encontrado: " + key);
+        return node.element;
+    }
+
+    /** @return el mayor elemento <= key, o null si no hay */
+    public E floor(E key) {
+        AVLNode<E> node = root;
+        E best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.element);
+            if (cmp == 0) return node.element;
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                best = node.element;//candidato, puede haber uno mayor a la derecha
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /** @return el menor elemento >= key, o null si no hay */
+    public E ceiling(E key) {
+        AVLNode<E> node = root;
+        E best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.element);
+            if (cmp == 0) return node.element;
+            if (cmp > 0) {
+                node = node.right;
+            } else {
+                best = node.element;//candidato, puede haber uno menor a la izquierda
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    /** @return cantidad de elementos estrictamente menores que key */
+    public int rank(E key) {
+        AVLNode<E> node = root;
+        int rank = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.element);
+            if (cmp <= 0) {
+                node = node.left;
+                if (cmp == 0) return rank + size(node);
+            } else {
+                rank += size(node.left) + 1;//todo el subárbol izquierdo y el nodo son menores
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Devuelve el k-ésimo elemento en orden (desde 0).
+     * @throws ItemNotFound si k está fuera de rango
+     */
+    public E select(int k) throws ItemNotFound {
+        if (k < 0 || k >= size()) throw new ItemNotFound("Índice inválido: " + k);
+        AVLNode<E> node = root;
+        while (true) {
+            int left = size(node.left);
+            if (k < left) {
+                node = node.left;
+            } else if (k == left) {
+                return node.element;
+            } else {
+                k -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /** @return cantidad de elementos en el rango [lo, hi] */
+    public int countRange(E lo, E hi) {
+        if (lo.compareTo(hi) > 0) return 0;
+        int upTo = rank(hi) + (contains(hi) ? 1 : 0);
+        return upTo - rank(lo);
+    }
+
+    /**
+     * Página de elementos en orden: ubica el primero con select (O(log n))
+     * y recorre solo los pageSize siguientes.
+     * @param page número de página (desde 0)
+     * @param pageSize elementos por página
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedList<E> page(int page, int pageSize) {
+        LinkedList<E> out = new LinkedList<>();
+        if (page < 0 || pageSize <= 0 || (long) page * pageSize >= size()) return out;//en long: page * pageSize puede desbordar int
+        int from = page * pageSize;
+        int count = Math.min(pageSize, size() - from);
+        // pila con el camino hacia el elemento 'from': sus ancestros pendientes
+        AVLNode<E>[] stack = new AVLNode[height(root) + 1];
+        int top = 0;
+        AVLNode<E> node = root;
+        int k = from;
+        while (node != null) {
+            int left = size(node.left);
+            if (k < left) {
+                stack[top++] = node;
+                node = node.left;
+            } else if (k == left) {
+                stack[top++] = node;
+                break;
+            } else {
+                k -= left + 1;
+                node = node.right;
+            }
+        }
+        E[] buffer = (E[]) new Comparable[count];
+        for (int n = 0; n < count; n++) {
+            node = stack[--top];
+            buffer[n] = node.element;
+            for (AVLNode<E> r = node.right; r != null; r = r.left) stack[top++] = r;
+        }
+        for (int i = count - 1; i >= 0; i--) {//add(0, x) es O(1)
+            try {
+                out.add(0, buffer[i]);
+            } catch (ItemDuplicated ignored) {
+                // LinkedList no valida duplicados
+            }
+        }
+        return out;
+    }
+
+    private AVLNode<E> findNode(E key) {
+        AVLNode<E> node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.element);
+            if (cmp == 0) return node;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+//los k menores en orden, sin recorrer el resto del árbol
+    public LinkedList<E> smallest(int k) {
+        return page(0, k);
+    }
+//ITERADORES (perezosos: cada next() avanza O(1) amortizado y la pila mide la altura)
+    /** @return iterador en orden ascendente */
+    @Override
+    public Iterator<E> iterator() {
+        return new AscendingIterator(null, null);
+    }
+
+    /** @return iterador en orden descendente */
+    public Iterator<E> descendingIterator() {
+        return new DescendingIterator();
+    }
+
+    /**
+     * Iterador ascendente de los elementos en [lo, hi]; null deja el extremo abierto.
+     * Se posiciona en O(log n) y no toca elementos fuera del rango.
+     */
+    public Iterator<E> rangeIterator(E lo, E hi) {
+        return new AscendingIterator(lo, hi);
+    }
+
+    /**
+     * Recorre en orden llamando al visitante hasta que devuelva false.
+     */
+    public void inOrder(Visitor<? super E> visitor) {
+        range(null, null, visitor);
+    }
+
+    /**
+     * Recorre en orden los elementos de [lo, hi] (null = sin límite)
+     * llamando al visitante hasta que devuelva false.
+     */
+    public void range(E lo, E hi, Visitor<? super E> visitor) {
+        Iterator<E> it = rangeIterator(lo, hi);
+        while (it.hasNext()) {
+            if (!visitor.visit(it.next())) return;
+        }
+    }
+
+    private class AscendingIterator implements Iterator<E> {
+        private final AVLNode<E>[] stack;
+        private int top;
+        private final E hi;
+        private final int expectedMod = modCount;
+
+        @SuppressWarnings("unchecked")
+        AscendingIterator(E lo, E hi) {
+            this.hi = hi;
+            stack = new AVLNode[height(root) + 1];
+            AVLNode<E> node = root;
+            while (node != null) {//camino hacia el primer elemento >= lo
+                if (lo == null || lo.compareTo(node.element) <= 0) {
+                    stack[top++] = node;
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0 && (hi == null || stack[top - 1].element.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedMod) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            AVLNode<E> node = stack[--top];
+            stack[top] = null;
+            for (AVLNode<E> n = node.right; n != null; n = n.left) stack[top++] = n;
+            return node.element;
+        }
+    }
+
+    private class DescendingIterator implements Iterator<E> {
+        private final AVLNode<E>[] stack;
+        private int top;
+        private final int expectedMod = modCount;
+
+        @SuppressWarnings("unchecked")
+        DescendingIterator() {
+            stack = new AVLNode[height(root) + 1];
+            for (AVLNode<E> n = root; n != null; n = n.right) stack[top++] = n;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedMod) throw new ConcurrentModificationException();
+            if (top == 0) throw new NoSuchElementException();
+            AVLNode<E> node = stack[--top];
+            stack[top] = null;
+            for (AVLNode<E> n = node.left; n != null; n = n.right) stack[top++] = n;
+            return node.element;
+        }
+    }
+
 //Para listar los elementos ordenados
     //
     public void inOrder() {
-        inOrder(root);
-        System.out.println();
+        PrintWriter out = new PrintWriter(System.out, false);//sin autoflush: una sola escritura al final
+        try {
+            inOrder(out);
+        } catch (IOException ignored) {
+            // PrintWriter no lanza IOException
+        }
+        out.println();
+        out.flush();
     }
 
-    private void inOrder(AVLNode<E> node) {
-        if (node != null) {
-            inOrder(node.left);
-            System.out.print(node.element + " ");
-            inOrder(node.right);
+    /**
+     * Escribe el recorrido in-order separado por espacios en el destino dado.
+     * Conviene pasar un destino con búfer (BufferedWriter, PrintWriter).
+     */
+    public void inOrder(Appendable out) throws IOException {
+        for (E element : this) {
+            out.append(String.valueOf(element)).append(' ');
         }
     }
     
     ///////////////////////////
-    public void printTree() {
-        printTree(root, 0);
-    }
-
-    private void printTree(AVLNode<E> node, int level) {
-        if (node != null) {
-            printTree(node.right, level + 1);
+    @SuppressWarnings("unchecked")
+    public void printTree() {//in-order invertido: derecha, nodo, izquierda
+        AVLNode<E>[] stack = new AVLNode[height(root) + 1];
+        int[] levels = new int[height(root) + 1];
+        int top = 0;
+        AVLNode<E> node = root;
+        int level = 0;
+        while (node != null || top > 0) {
+            while (node != null) {
+                stack[top] = node;
+                levels[top++] = level++;
+                node = node.right;
+            }
+            node = stack[--top];
+            level = levels[top];
             System.out.println("    ".repeat(level) + node.element);
-            printTree(node.left, level + 1);
+            node = node.left;
+            level++;
         }
     }
     ////////////////////////////////////
 }
-
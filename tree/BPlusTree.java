@@ -3,6 +3,8 @@ package tree;
 import exceptions.IsEmpty;
 import exceptions.ItemDuplicated;
 import exceptions.ItemNotFound;
+import java.io.IOException;
+import java.io.PrintWriter;
 import list.ArrayList;
 
 public class BPlusTree<T extends Comparable<T>> {
@@ -39,11 +41,13 @@ public class BPlusTree<T extends Comparable<T>> {
     }
     ///////////////////ENCONTRAMOS HOJAS////////
     private LeafNode findLeaf(Node node, T key) throws IsEmpty, ItemNotFound {
-        if (node.isLeaf()) return (LeafNode) node;//nodo root es hoja?
-        InternalNode in = (InternalNode) node;//Si no es una hoja, entonces es un nodo interno, que solo contiene claves-guía y referencias a hijos.
-        int idx = 0;//variable para saber a donde ir
-        while (idx < in.keyCount() && key.compareTo(in.keys.get(idx)) >= 0) idx++;//Compara la clave que estás buscando (key) con las claves guía del nodo actual:
-        return findLeaf(in.children.get(idx), key);//sino esta en esa hoja pasa a la siguiente hoja de abajo
+        while (!node.isLeaf()) {//baja nivel por nivel hasta llegar a una hoja (sin recursión)
+            InternalNode in = (InternalNode) node;//Si no es una hoja, entonces es un nodo interno, que solo contiene claves-guía y referencias a hijos.
+            int idx = 0;//variable para saber a donde ir
+            while (idx < in.keyCount() && key.compareTo(in.keys.get(idx)) >= 0) idx++;//Compara la clave que estás buscando (key) con las claves guía del nodo actual:
+            node = in.children.get(idx);//sino esta en esa hoja pasa a la siguiente hoja de abajo
+        }
+        return (LeafNode) node;
     }
     //insertIntoLeaf inserta la clave key en la posicion correcta manteniendo orden
     private void insertIntoLeaf(LeafNode leaf, T key) throws IsEmpty, ItemNotFound, ItemDuplicated {
@@ -88,18 +92,61 @@ public class BPlusTree<T extends Comparable<T>> {
         parent.children.add(idx+1, right);
         if (parent.children.size() > order) splitInternal(parent);//CORRGINMOS SCON EL SPLIT SI LLENAMOS EL NODO DEL NUEVO PADRE 
     }
+    //pila reutilizable para los recorridos en profundidad (findParent, display)
+    private Object[] stack = new Object[16];
+    private int[] depths = new int[16];
+
     private InternalNode findParent(Node current, Node child) throws IsEmpty, ItemNotFound {
-        if (!current.isLeaf()) {
-            InternalNode in = (InternalNode) current;//1r recorrido si es hijo directo
+        // 1) camino guiado por la primera clave del hijo: O(altura)
+        if (child.keyCount() > 0) {
+            T key = child.keys.get(0);
+            Node node = current;
+            while (!node.isLeaf()) {
+                InternalNode in = (InternalNode) node;
+                int idx = 0;
+                while (idx < in.keyCount() && key.compareTo(in.keys.get(idx)) >= 0) idx++;
+                Node next = in.children.get(idx);
+                if (next == child) return in;
+                node = next;
+            }
+        }
+        // 2) respaldo (claves repetidas o nodo vacío): recorrido en profundidad con pila explícita
+        int top = 0;
+        stack[top++] = current;
+        while (top > 0) {
+            Node node = node(--top);
+            stack[top] = null;
+            if (node.isLeaf()) continue;
+            InternalNode in = (InternalNode) node;
             for (int i = 0; i < in.children.size(); i++) {//Recorre la lista de hijos de este nodo interno 
-                if (in.children.get(i) == child) return in;//Si uno de sus hijos es igual al nodo buscado (child) 
-            }//entonces este nodo es el padre y lo retorna
-            for (int i = 0; i < in.children.size(); i++) {//repite el proceso recursivamente con cada hijo de este nodo
-                InternalNode parent = findParent(in.children.get(i), child);
-                if (parent != null) return parent;
-            }//Si alguno de esos hijos retorna un padre no nulo, significa que lo encontró y se devuelve
+                if (in.children.get(i) == child) {//Si uno de sus hijos es igual al nodo buscado (child) 
+                    while (top > 0) stack[--top] = null;
+                    return in;//entonces este nodo es el padre y lo retorna
+                }
+            }
+            for (int i = in.children.size() - 1; i >= 0; i--) {//apila los hijos para revisarlos después
+                push(top++, in.children.get(i), 0);
+            }
+        }
+        return null;//el nodo no cuelga de current
+    }
+
+    private void push(int top, Node node, int depth) {
+        if (top == stack.length) {
+            Object[] bigger = new Object[stack.length * 2];
+            int[] biggerDepths = new int[stack.length * 2];
+            System.arraycopy(stack, 0, bigger, 0, top);
+            System.arraycopy(depths, 0, biggerDepths, 0, top);
+            stack = bigger;
+            depths = biggerDepths;
         }
-        return null;//caso base si el nodo actual es una hoja o no encuentra al padre
+        stack[top] = node;
+        depths[top] = depth;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node node(int i) {
+        return (Node) stack[i];
     }
 //Si el padre se llena, se divide con splitInternal
     private void splitInternal(InternalNode node) throws IsEmpty, ItemNotFound, ItemDuplicated {
@@ -139,18 +186,127 @@ public class BPlusTree<T extends Comparable<T>> {
             }//keys se usan para navegar y busca
         }//values pueden contener los objetos completos, como Producto, Item, Registro
     }
+    //ESTADÍSTICAS: todas las hojas están a la misma profundidad
+    /** @return cantidad de niveles (1 si la raíz es hoja) */
+    public int height() throws IsEmpty, ItemNotFound {
+        int h = 1;
+        for (Node node = root; !node.isLeaf(); node = ((InternalNode) node).children.get(0)) h++;
+        return h;
+    }
+
+    /** @return cantidad de hojas, recorriendo la lista enlazada de hojas */
+    public int leafCount() throws IsEmpty, ItemNotFound {
+        int leaves = 0;
+        for (LeafNode leaf = firstLeaf(); leaf != null; leaf = leaf.next) leaves++;
+        return leaves;
+    }
+
+    /** @return ocupación media de las hojas: claves / (hojas * (orden - 1)) */
+    public double leafFill() throws IsEmpty, ItemNotFound {
+        int leaves = 0;
+        long keys = 0;
+        for (LeafNode leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            leaves++;
+            keys += leaf.keyCount();
+        }
+        return (double) keys / ((long) leaves * (order - 1));
+    }
+
+    /** @return cantidad de nodos de cada nivel, empezando por la raíz */
+    public int[] nodesPerLevel() throws IsEmpty, ItemNotFound {
+        long[][] stats = levelStats();
+        int[] nodes = new int[stats[0].length];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = (int) stats[0][i];
+        return nodes;
+    }
+
+    /** @return ocupación de cada nivel: claves / (nodos * (orden - 1)), empezando por la raíz */
+    public double[] fillPerLevel() throws IsEmpty, ItemNotFound {
+        long[][] stats = levelStats();
+        double[] fill = new double[stats[0].length];
+        for (int i = 0; i < fill.length; i++) fill[i] = (double) stats[1][i] / (stats[0][i] * (order - 1));
+        return fill;
+    }
+
+    //recorrido por niveles: {nodos por nivel, claves por nivel}
+    private long[][] levelStats() throws IsEmpty, ItemNotFound {
+        int h = height();
+        long[][] stats = new long[2][h];
+        Object[] level = {root};
+        int count = 1;
+        for (int d = 0; d < h; d++) {
+            int nextCount = 0;
+            for (int i = 0; i < count; i++) {
+                Node node = node(level, i);
+                stats[0][d]++;
+                stats[1][d] += node.keyCount();
+                if (!node.isLeaf()) nextCount += ((InternalNode) node).children.size();
+            }
+            if (d + 1 == h) break;
+            Object[] next = new Object[nextCount];
+            int k = 0;
+            for (int i = 0; i < count; i++) {
+                ArrayList<Node> children = ((InternalNode) node(level, i)).children;
+                for (int c = 0; c < children.size(); c++) next[k++] = children.get(c);
+            }
+            level = next;
+            count = nextCount;
+        }
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node node(Object[] level, int i) {
+        return (Node) level[i];
+    }
+
+    /**
+     * Recorre los valores en orden siguiendo la lista enlazada de hojas, sin
+     * volver a bajar por los nodos internos, hasta que el visitante devuelva false.
+     */
+    public void forEach(Visitor<? super T> visitor) throws IsEmpty, ItemNotFound {
+        for (LeafNode leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.values.size(); i++) {
+                if (!visitor.visit(leaf.values.get(i))) return;
+            }
+        }
+    }
+
+    private LeafNode firstLeaf() throws IsEmpty, ItemNotFound {
+        Node node = root;
+        while (!node.isLeaf()) node = ((InternalNode) node).children.get(0);
+        return (LeafNode) node;
+    }
 //Imprime una representación jerárquica tipo árbol ASCII con indentaciones para cada nivel
     public void display() throws IsEmpty, ItemNotFound {
-        display(root, "");
+        PrintWriter out = new PrintWriter(System.out, false);//con búfer: se vacía una sola vez
+        try {
+            display(out);
+        } catch (IOException ignored) {
+            // PrintWriter no lanza IOException
+        }
+        out.flush();
     }
-    private void display(Node node, String indent) throws IsEmpty, ItemNotFound {
-        if (node.isLeaf()) {
-            System.out.println(indent + "Leaf: " + node.keys);
-        } else {
-            InternalNode in = (InternalNode) node;
-            System.out.println(indent + "Internal: " + in.keys);
-            for (int i = 0; i < in.children.size(); i++) {
-                display(in.children.get(i), indent + "    ");
+
+    /**
+     * Escribe la estructura del árbol en el destino dado (idealmente con búfer).
+     */
+    public void display(Appendable out) throws IsEmpty, ItemNotFound, IOException {
+        int top = 0;//preorden con pila explícita: nodo y su profundidad
+        push(top++, root, 0);
+        while (top > 0) {
+            Node node = node(--top);
+            int depth = depths[top];
+            stack[top] = null;
+            String indent = "    ".repeat(depth);
+            if (node.isLeaf()) {
+                out.append(indent).append("Leaf: ").append(node.keys.toString()).append('\n');
+            } else {
+                InternalNode in = (InternalNode) node;
+                out.append(indent).append("Internal: ").append(in.keys.toString()).append('\n');
+                for (int i = in.children.size() - 1; i >= 0; i--) {//al revés para que el primero salga antes
+                    push(top++, in.children.get(i), depth + 1);
+                }
             }
         }
     }
@@ -0,0 +1,86 @@
+package tree;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializa valores a bytes para guardarlos en páginas de disco.
+ * size debe devolver exactamente lo que write escribe.
+ * @param <T> tipo serializado
+ */
+public interface Codec<T> {
+    /** @return bytes que ocupa value al escribirse */
+    int size(T value);
+
+    /** Escribe value en la posición actual de out. */
+    void write(T value, ByteBuffer out);
+
+    /** Lee un valor desde la posición actual de in. */
+    T read(ByteBuffer in);
+
+    /** Cadenas en UTF-8 con largo de 2 bytes; admite null. */
+    Codec<String> STRING = new Codec<String>() {
+        @Override
+        public int size(String value) {
+            return stringSize(value);
+        }
+
+        @Override
+        public void write(String value, ByteBuffer out) {
+            putString(out, value);
+        }
+
+        @Override
+        public String read(ByteBuffer in) {
+            return getString(in);
+        }
+    };
+
+    /**
+     * @return bytes que ocupa s con putString
+     * @throws IllegalArgumentException si s tiene un surrogate sin par (no es
+     *         UTF-16 válido: getBytes lo cambiaría por '?') o pasa de Short.MAX_VALUE bytes
+     */
+    static int stringSize(String s) {
+        if (s == null) return 2;
+        int bytes = 0;
+        for (int i = 0; i < s.length(); i++) {//largo UTF-8 sin codificar
+            char c = s.charAt(i);
+            if (c < 0x80) bytes++;
+            else if (c < 0x800) bytes += 2;
+            else if (!Character.isSurrogate(c)) bytes += 3;
+            else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                throw new IllegalArgumentException("Cadena con surrogate sin par en la posición " + i);
+            }
+        }
+        if (bytes > Short.MAX_VALUE) throw new IllegalArgumentException("Cadena demasiado larga: " + bytes + " bytes");
+        return 2 + bytes;
+    }
+
+    /**
+     * Escribe s como largo (-1 si es null) y bytes UTF-8.
+     * @throws IllegalArgumentException en los mismos casos que stringSize
+     */
+    static void putString(ByteBuffer out, String s) {
+        if (s == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        stringSize(s);//valida: sin surrogates sueltos getBytes escribe exactamente ese largo
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    /** Lee una cadena escrita con putString. */
+    static String getString(ByteBuffer in) {
+        int len = in.getShort();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,522 @@
+package tree;
+
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Árbol B+ persistente en un archivo de páginas de tamaño fijo (8 KB por
+ * defecto). Los nodos se referencian por id de página y se leen a través de
+ * una PageCache acotada, así el índice puede ser más grande que la memoria y
+ * al reabrir el archivo el árbol ya está armado.
+ * Cada nodo ocupa una página: se parte cuando sus claves/valores serializados
+ * no entran, no por cantidad de claves. La página tiene un directorio con la
+ * posición de cada par, así al leerla solo se decodifican las claves que
+ * toca la búsqueda binaria; el nodo se decodifica completo recién al modificarlo. Igual que BPlusTree, el borrado no
+ * fusiona nodos (las hojas vacías quedan enlazadas y se reutilizan al insertar).
+ * Página 0: cabecera (raíz, páginas, pares, altura). Los cambios llegan al
+ * archivo al desalojarse de la caché o en flush/close; no hay bitácora, así
+ * que si el proceso muere sin close el archivo puede quedar inconsistente.
+ * No es seguro para varios hilos.
+ * @param <K> tipo de clave
+ * @param <V> tipo de valor
+ */
+public class DiskBPlusTree<K extends Comparable<K>, V> implements Closeable {
+    public static final int DEFAULT_PAGE_SIZE = 8192;
+    public static final int DEFAULT_CACHE_PAGES = 1024;//8 MB con páginas de 8 KB
+    private static final int MAGIC = 0x42504C53;//"BPLS"
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;//mágico, versión, página, raíz, páginas, pares (8), altura
+    private static final int NODE_HEADER = 13;//tipo (1) + cantidad (4) + hoja siguiente o primer hijo (4) + bytes usados (4)
+    private static final int CHILD = 4;
+    private static final int SLOT = 4;//posición del par en el directorio
+    private static final Object UNREAD = new Object();//valor todavía sin decodificar
+    private static final int MIN_CACHE_PAGES = 16;
+
+    private final FileChannel channel;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int pageSize;
+    private final int maxEntry;//un par no puede ocupar más de un cuarto de página, así cada mitad de un split entra
+    private final PageCache<Node> cache;
+    private int root;
+    private int height;
+    private long size;
+    private Node[] path = new Node[8];//camino raíz -> hoja de la operación en curso
+
+    /** Nodo decodificado: claves, y valores (hoja) o ids de hijos (interno). */
+    private static final class Node {
+        int id;
+        final boolean leaf;
+        int count;
+        Object[] keys;
+        Object[] values;
+        int[] children;
+        int next = -1;//hoja siguiente
+        int bytes = NODE_HEADER;//tamaño serializado
+        ByteBuffer raw;//página leída, mientras el nodo no se modifique
+        int[] offsets;//posición de cada clave en raw
+
+        Node(boolean leaf, int capacity) {
+            this.leaf = leaf;
+            keys = new Object[capacity];
+            if (leaf) values = new Object[capacity];
+            else children = new int[capacity + 1];
+        }
+
+        void ensure(int capacity) {
+            if (capacity <= keys.length) return;
+            int c = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, c);
+            if (leaf) values = Arrays.copyOf(values, c);
+            else children = Arrays.copyOf(children, c + 1);
+        }
+    }
+
+    /**
+     * Abre (o crea) el árbol con páginas y caché por defecto.
+     * @see #DiskBPlusTree(Path, Codec, Codec, int, int)
+     */
+    public DiskBPlusTree(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this(file, keyCodec, valueCodec, DEFAULT_PAGE_SIZE, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Abre el árbol guardado en file o lo crea si el archivo no existe o está vacío.
+     * @param pageSize bytes por página (se ignora si el archivo ya existe)
+     * @param cachePages páginas en memoria como máximo (mínimo 16)
+     * @throws IOException si el archivo no es un árbol B+ válido o falla la E/S
+     */
+    public DiskBPlusTree(Path file, Codec<K> keyCodec, Codec<V> valueCodec, int pageSize, int cachePages) throws IOException {
+        if (pageSize < 256) throw new IllegalArgumentException("Página demasiado chica: " + pageSize);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        int pages;
+        try {
+            if (channel.size() == 0) {
+                this.pageSize = pageSize;
+                pages = 1;
+            } else {
+                ByteBuffer header = readHeader(channel);
+                this.pageSize = header.getInt();
+                root = header.getInt();
+                pages = header.getInt();
+                size = header.getLong();
+                height = header.getInt();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.maxEntry = (this.pageSize - NODE_HEADER) / 4;
+        this.cache = new PageCache<>(channel, this.pageSize, Math.max(MIN_CACHE_PAGES, cachePages), pages, new NodeSerializer());
+        if (pages == 1) {//archivo nuevo: raíz hoja vacía
+            Node leaf = new Node(true, 16);
+            leaf.id = cache.allocate(leaf);
+            root = leaf.id;
+            height = 1;
+            cache.endOperation();
+            flush();
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw new IOException("Cabecera truncada");
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) throw new IOException("El archivo no es un árbol B+");
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("Versión no soportada: " + version);
+        return header;
+    }
+
+    /**
+     * @return el valor asociado a key
+     * @throws ItemNotFound si la clave no existe
+     */
+    public V get(K key) throws ItemNotFound, IOException {
+        try {
+            Node leaf = findLeaf(key, false);
+            int pos = search(leaf, key);
+            if (pos < 0) throw new ItemNotFound("Clave no encontrada: " + key);
+            return value(leaf, pos);
+        } finally {
+            cache.endOperation();
+        }
+    }
+
+    /** @return true si la clave existe */
+    public boolean contains(K key) throws IOException {
+        try {
+            return search(findLeaf(key, false), key) >= 0;
+        } finally {
+            cache.endOperation();
+        }
+    }
+
+    /**
+     * Inserta un par nuevo.
+     * @throws ItemDuplicated si la clave ya existe
+     */
+    public void insert(K key, V value) throws ItemDuplicated, IOException {
+        if (!write(key, value, false)) throw new ItemDuplicated("Clave duplicada: " + key);
+    }
+
+    /**
+     * Inserta el par o reemplaza el valor si la clave ya existe.
+     * @return true si la clave era nueva
+     */
+    public boolean put(K key, V value) throws IOException {
+        return write(key, value, true);
+    }
+
+    /**
+     * Elimina la clave y devuelve su valor.
+     * @throws ItemNotFound si la clave no existe
+     */
+    public V delete(K key) throws ItemNotFound, IOException {
+        try {
+            Node leaf = findLeaf(key, false);
+            int pos = search(leaf, key);
+            if (pos < 0) throw new ItemNotFound("Clave no encontrada: " + key);
+            materialize(leaf);
+            V value = value(leaf, pos);
+            leaf.bytes -= entrySize(leaf, pos);
+            int tail = leaf.count - pos - 1;
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos, tail);
+            System.arraycopy(leaf.values, pos + 1, leaf.values, pos, tail);
+            leaf.count--;
+            leaf.keys[leaf.count] = null;
+            leaf.values[leaf.count] = null;
+            cache.markDirty(leaf.id);
+            size--;
+            return value;
+        } finally {
+            cache.endOperation();
+        }
+    }
+
+    /**
+     * Recorre los valores en orden de clave, una hoja a la vez (no modificar el árbol durante el recorrido).
+     * @param visitor devuelve false para cortar
+     */
+    public void forEach(Visitor<? super V> visitor) throws IOException {
+        try {
+            Node node = cache.get(root);
+            while (!node.leaf) node = cache.get(node.children[0]);
+            while (true) {
+                for (int i = 0; i < node.count; i++) {
+                    if (!visitor.visit(value(node, i))) return;
+                }
+                if (node.next < 0) return;
+                cache.endOperation();//solo la hoja actual queda retenida
+                node = cache.get(node.next);
+            }
+        } finally {
+            cache.endOperation();
+        }
+    }
+
+    /** @return cantidad de pares */
+    public long size() {
+        return size;
+    }
+
+    /** @return true si no hay pares */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return cantidad de niveles (1 si la raíz es hoja) */
+    public int height() {
+        return height;
+    }
+
+    /** @return páginas del archivo, cabecera incluida */
+    public int pageCount() {
+        return cache.pageCount();
+    }
+
+    /** @return bytes por página */
+    public int pageSize() {
+        return pageSize;
+    }
+
+    /** @return la caché de páginas (para consultar aciertos, fallos y desalojos) */
+    public PageCache<?> cache() {
+        return cache;
+    }
+
+    /** Escribe las páginas modificadas y la cabecera, y fuerza el archivo a disco. */
+    public void flush() throws IOException {
+        cache.flush();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(pageSize).putInt(root)
+              .putInt(cache.pageCount()).putLong(size).putInt(height);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header, header.position());
+        channel.force(false);
+    }
+
+    /** Hace flush y cierra el archivo. */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    //inserta o reemplaza; false si la clave existía y replace es false
+    private boolean write(K key, V value, boolean replace) throws IOException {
+        int keySize = keyCodec.size(key);
+        int entry = SLOT + keySize + valueCodec.size(value);
+        if (Math.max(entry, SLOT + keySize + CHILD) > maxEntry) throw new IllegalArgumentException("Par de " + entry + " bytes, máximo " + maxEntry);
+        try {
+            Node leaf = findLeaf(key, true);
+            int pos = search(leaf, key);
+            boolean created = pos < 0;
+            materialize(leaf);
+            if (!created) {
+                if (!replace) return false;
+                leaf.bytes += valueCodec.size(value) - valueCodec.size(value(leaf, pos));
+                leaf.values[pos] = value;
+            } else {
+                pos = -pos - 1;
+                leaf.ensure(leaf.count + 1);
+                int tail = leaf.count - pos;
+                System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, tail);
+                System.arraycopy(leaf.values, pos, leaf.values, pos + 1, tail);
+                leaf.keys[pos] = key;
+                leaf.values[pos] = value;
+                leaf.count++;
+                leaf.bytes += entry;
+                size++;
+            }
+            cache.markDirty(leaf.id);
+            if (leaf.bytes > pageSize) splitLeaf(leaf);
+            return created;
+        } finally {
+            cache.endOperation();
+        }
+    }
+
+    //baja desde la raíz; si remember, guarda el camino en path (path[height-1] es la hoja)
+    private Node findLeaf(K key, boolean remember) throws IOException {
+        Node node = cache.get(root);
+        int depth = 0;
+        while (true) {
+            if (remember) {
+                if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+                path[depth] = node;
+            }
+            if (node.leaf) return node;
+            node = cache.get(node.children[childIndex(node, key)]);
+            depth++;
+        }
+    }
+
+    //hijo a seguir: cantidad de claves guía <= key
+    private int childIndex(Node node, K key) {
+        int lo = 0, hi = node.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(node, mid).compareTo(key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    //búsqueda binaria en una hoja: posición, o -(inserción) - 1
+    private int search(Node leaf, K key) {
+        int lo = 0, hi = leaf.count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = key(leaf, mid).compareTo(key);
+            if (c == 0) return mid;
+            if (c < 0) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        return -lo - 1;
+    }
+
+    private void splitLeaf(Node leaf) throws IOException {
+        int mid = splitPoint(leaf);
+        Node right = new Node(true, Math.max(16, leaf.count - mid));
+        for (int i = mid; i < leaf.count; i++) {
+            right.keys[i - mid] = leaf.keys[i];
+            right.values[i - mid] = leaf.values[i];
+            right.bytes += entrySize(leaf, i);
+            leaf.keys[i] = null;
+            leaf.values[i] = null;
+        }
+        right.count = leaf.count - mid;
+        leaf.count = mid;
+        leaf.bytes -= right.bytes - NODE_HEADER;
+        right.next = leaf.next;
+        right.id = cache.allocate(right);
+        leaf.next = right.id;
+        insertIntoParent(height - 1, leaf, key(right, 0), right);
+    }
+
+    //la clave sep sube al padre de left (nivel depth del camino), con right a su derecha
+    private void insertIntoParent(int depth, Node left, K sep, Node right) throws IOException {
+        if (depth == 0) {//se partió la raíz
+            Node newRoot = new Node(false, 16);
+            newRoot.keys[0] = sep;
+            newRoot.children[0] = left.id;
+            newRoot.children[1] = right.id;
+            newRoot.count = 1;
+            newRoot.bytes += SLOT + keyCodec.size(sep) + CHILD;
+            newRoot.id = cache.allocate(newRoot);
+            root = newRoot.id;
+            height++;
+            return;
+        }
+        Node parent = path[depth - 1];
+        materialize(parent);
+        int pos = childIndex(parent, sep);
+        parent.ensure(parent.count + 1);
+        System.arraycopy(parent.keys, pos, parent.keys, pos + 1, parent.count - pos);
+        System.arraycopy(parent.children, pos + 1, parent.children, pos + 2, parent.count - pos);
+        parent.keys[pos] = sep;
+        parent.children[pos + 1] = right.id;
+        parent.count++;
+        parent.bytes += SLOT + keyCodec.size(sep) + CHILD;
+        cache.markDirty(parent.id);
+        if (parent.bytes > pageSize) splitInternal(depth - 1, parent);
+    }
+
+    private void splitInternal(int depth, Node node) throws IOException {
+        int mid = splitPoint(node);
+        K up = key(node, mid);
+        Node right = new Node(false, Math.max(16, node.count - mid));
+        right.children[0] = node.children[mid + 1];
+        for (int i = mid + 1; i < node.count; i++) {
+            right.keys[i - mid - 1] = node.keys[i];
+            right.children[i - mid] = node.children[i + 1];
+            right.bytes += entrySize(node, i);
+        }
+        right.count = node.count - mid - 1;
+        node.bytes -= right.bytes - NODE_HEADER + entrySize(node, mid);
+        for (int i = mid; i < node.count; i++) node.keys[i] = null;
+        node.count = mid;
+        right.id = cache.allocate(right);
+        insertIntoParent(depth, node, up, right);
+    }
+
+    //primera posición desde la que lo acumulado supera la mitad de los bytes; deja al menos un par de cada lado
+    private int splitPoint(Node node) {
+        int half = (node.bytes - NODE_HEADER) / 2, acc = 0, i = 0;
+        while (i < node.count - 2 && acc + entrySize(node, i) <= half) acc += entrySize(node, i++);
+        return Math.max(1, i);
+    }
+
+    //bytes del par i: posición + clave + valor (hoja) o posición + clave + hijo derecho (interno)
+    private int entrySize(Node node, int i) {
+        return SLOT + keyCodec.size(key(node, i)) + (node.leaf ? valueCodec.size(value(node, i)) : CHILD);
+    }
+
+    //decodifica la clave al primer uso
+    @SuppressWarnings("unchecked")
+    private K key(Node node, int i) {
+        Object k = node.keys[i];
+        if (k == null) {
+            node.raw.position(node.offsets[i]);
+            k = node.keys[i] = keyCodec.read(node.raw);
+        }
+        return (K) k;
+    }
+
+    //el valor está a continuación de su clave
+    @SuppressWarnings("unchecked")
+    private V value(Node node, int i) {
+        Object v = node.values[i];
+        if (v == UNREAD) {
+            node.raw.position(node.offsets[i] + keyCodec.size(key(node, i)));
+            v = node.values[i] = valueCodec.read(node.raw);
+        }
+        return (V) v;
+    }
+
+    //decodifica todo lo que falte antes de modificar el nodo y suelta la página leída
+    private void materialize(Node node) {
+        if (node.raw == null) return;
+        for (int i = 0; i < node.count; i++) {
+            key(node, i);
+            if (node.leaf) value(node, i);
+        }
+        node.raw = null;
+        node.offsets = null;
+    }
+
+    /**
+     * Formato de página: tipo, cantidad, hoja siguiente (hoja) o primer hijo
+     * (interno), bytes usados; directorio con la posición de cada clave (y su
+     * hijo derecho en los internos); y los pares, cada valor tras su clave.
+     */
+    private final class NodeSerializer implements PageCache.Serializer<Node> {
+        @Override
+        public Node decode(int pageId, ByteBuffer page) throws IOException {
+            byte type = page.get();
+            if (type != 0 && type != 1) throw new IOException("Página corrupta: " + pageId);
+            int count = page.getInt();
+            Node node = new Node(type == 1, Math.max(16, count + 1));
+            node.id = pageId;
+            node.count = count;
+            int link = page.getInt();
+            node.bytes = page.getInt();
+            node.offsets = new int[count];
+            if (node.leaf) {
+                node.next = link;
+                for (int i = 0; i < count; i++) node.offsets[i] = page.getInt();
+                Arrays.fill(node.values, 0, count, UNREAD);
+            } else {
+                node.children[0] = link;
+                for (int i = 0; i < count; i++) {
+                    node.children[i + 1] = page.getInt();
+                    node.offsets[i] = page.getInt();
+                }
+            }
+            byte[] copy = new byte[node.bytes];//la caché reutiliza page
+            page.get(0, copy);
+            node.raw = ByteBuffer.wrap(copy);
+            return node;
+        }
+
+        @Override
+        public void encode(Node node, ByteBuffer page) {
+            if (node.raw != null) {//sin cambios desde que se leyó
+                page.put(node.raw.array(), 0, node.bytes);
+                return;
+            }
+            page.put((byte) (node.leaf ? 1 : 0));
+            page.putInt(node.count);
+            page.putInt(node.leaf ? node.next : node.children[0]);
+            page.putInt(node.bytes);
+            int dir = page.position();
+            int entry = node.leaf ? SLOT : SLOT + CHILD;
+            page.position(dir + node.count * entry);
+            for (int i = 0; i < node.count; i++) {
+                if (node.leaf) {
+                    page.putInt(dir + i * entry, page.position());
+                } else {
+                    page.putInt(dir + i * entry, node.children[i + 1]);
+                    page.putInt(dir + i * entry + CHILD, page.position());
+                }
+                keyCodec.write(key(node, i), page);
+                if (node.leaf) valueCodec.write(value(node, i), page);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package tree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Caché acotada de páginas de tamaño fijo de un archivo, con las páginas ya
+ * decodificadas (nodos). Reemplazo por reloj (segunda oportunidad): cada
+ * acceso marca la página como referenciada y la aguja desaloja la primera
+ * que encuentra sin marca. Las páginas modificadas se escriben recién al
+ * desalojarse o en flush (write-back).
+ * Las páginas tocadas durante la operación en curso no se desalojan: quien
+ * usa la caché llama a endOperation al terminar cada operación, así los nodos
+ * que tiene en mano siguen siendo los de la caché.
+ * La ubicación de cada página en la caché se busca en un arreglo indexado por
+ * id de página (4 bytes por página del archivo).
+ * No es segura para varios hilos.
+ * @param <N> tipo de página decodificada
+ */
+public class PageCache<N> {
+    /** Convierte entre páginas del archivo y nodos. */
+    public interface Serializer<N> {
+        /** Decodifica la página pageId desde page (posición 0, límite pageSize). */
+        N decode(int pageId, ByteBuffer page) throws IOException;
+
+        /** Codifica node en page (vacío, capacidad pageSize). */
+        void encode(N node, ByteBuffer page);
+    }
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final Serializer<N> serializer;
+    private final ByteBuffer buffer;
+    private final int[] pageIds;//página cargada en cada marco
+    private final Object[] nodes;
+    private final boolean[] referenced;
+    private final boolean[] dirty;
+    private final int[] stamps;//operación que tocó el marco por última vez
+    private int[] frameOf = new int[64];//marco de cada página, -1 si no está cargada
+    private int used;
+    private int hand;
+    private int operation = 1;
+    private int pageCount;
+    private long hits, misses, evictions, writes;
+
+    /**
+     * @param channel archivo de páginas
+     * @param pageSize bytes por página
+     * @param frames páginas en memoria como máximo
+     * @param pageCount páginas que ya tiene el archivo (las nuevas se numeran desde aquí)
+     */
+    public PageCache(FileChannel channel, int pageSize, int frames, int pageCount, Serializer<N> serializer) {
+        if (frames < 1) throw new IllegalArgumentException("Caché sin marcos: " + frames);
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.serializer = serializer;
+        this.buffer = ByteBuffer.allocate(pageSize);
+        this.pageIds = new int[frames];
+        this.nodes = new Object[frames];
+        this.referenced = new boolean[frames];
+        this.dirty = new boolean[frames];
+        this.stamps = new int[frames];
+        this.pageCount = pageCount;
+        Arrays.fill(frameOf, -1);
+    }
+
+    /**
+     * @return la página pageId, leyéndola del archivo si no está en memoria
+     * @throws IOException si falla la lectura o la página no existe
+     */
+    @SuppressWarnings("unchecked")
+    public N get(int pageId) throws IOException {
+        if (pageId < 0 || pageId >= pageCount) throw new IOException("Página inexistente: " + pageId);
+        int f = pageId < frameOf.length ? frameOf[pageId] : -1;
+        if (f >= 0) {
+            hits++;
+            referenced[f] = true;
+            stamps[f] = operation;
+            return (N) nodes[f];
+        }
+        misses++;
+        buffer.clear();
+        long pos = (long) pageId * pageSize;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, pos + buffer.position()) < 0) throw new EOFException("Página truncada: " + pageId);
+        }
+        buffer.flip();
+        N node = serializer.decode(pageId, buffer);
+        install(pageId, node, false);
+        return node;
+    }
+
+    /**
+     * Reserva una página nueva al final del archivo para node; queda sucia
+     * en la caché hasta que se escriba.
+     * @return id de la página
+     */
+    public int allocate(N node) throws IOException {
+        int pageId = pageCount++;
+        install(pageId, node, true);
+        return pageId;
+    }
+
+    /** Marca como modificada una página tocada en la operación en curso. */
+    public void markDirty(int pageId) {
+        int f = frameOf[pageId];
+        if (f < 0) throw new IllegalStateException("Página no cargada: " + pageId);
+        dirty[f] = true;
+    }
+
+    /** Cierra la operación en curso: sus páginas vuelven a poder desalojarse. */
+    public void endOperation() {
+        operation++;
+    }
+
+    /** Escribe todas las páginas sucias (no fuerza el archivo a disco). */
+    public void flush() throws IOException {
+        for (int f = 0; f < used; f++) {
+            if (dirty[f]) write(f);
+        }
+    }
+
+    /** @return páginas del archivo, incluidas las que aún no se escribieron */
+    public int pageCount() {
+        return pageCount;
+    }
+
+    /** @return páginas en memoria como máximo */
+    public int frames() {
+        return pageIds.length;
+    }
+
+    /** @return accesos resueltos sin leer el archivo */
+    public long hits() {
+        return hits;
+    }
+
+    /** @return accesos que leyeron el archivo */
+    public long misses() {
+        return misses;
+    }
+
+    /** @return páginas desalojadas */
+    public long evictions() {
+        return evictions;
+    }
+
+    /** @return páginas escritas al archivo */
+    public long writes() {
+        return writes;
+    }
+
+    private void install(int pageId, N node, boolean isDirty) throws IOException {
+        int f;
+        if (used < pageIds.length) {
+            f = used++;
+        } else {
+            f = victim();
+            if (dirty[f]) write(f);
+            frameOf[pageIds[f]] = -1;
+            evictions++;
+        }
+        if (pageId >= frameOf.length) {
+            int old = frameOf.length;
+            frameOf = Arrays.copyOf(frameOf, Math.max(pageId + 1, old * 2));
+            Arrays.fill(frameOf, old, frameOf.length, -1);
+        }
+        frameOf[pageId] = f;
+        pageIds[f] = pageId;
+        nodes[f] = node;
+        referenced[f] = true;
+        dirty[f] = isDirty;
+        stamps[f] = operation;
+    }
+
+    //reloj: dos vueltas alcanzan para borrar todas las marcas de referencia
+    private int victim() {
+        for (int step = 0; step < 2 * pageIds.length; step++) {
+            int f = hand;
+            hand = hand + 1 == pageIds.length ? 0 : hand + 1;
+            if (stamps[f] == operation) continue;//en uso por la operación actual
+            if (referenced[f]) {
+                referenced[f] = false;
+                continue;
+            }
+            return f;
+        }
+        throw new IllegalStateException("Caché de " + pageIds.length + " páginas insuficiente para una operación");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(int f) throws IOException {
+        buffer.clear();
+        serializer.encode((N) nodes[f], buffer);
+        buffer.position(pageSize);//la página completa, aunque el nodo ocupe menos
+        buffer.flip();
+        long pos = (long) pageIds[f] * pageSize;
+        while (buffer.hasRemaining()) channel.write(buffer, pos + buffer.position());
+        dirty[f] = false;
+        writes++;
+    }
+}
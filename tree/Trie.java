@@ -0,0 +1,203 @@
+package tree;
+
+import exceptions.IsEmpty;
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import list.LinkedList;
+
+/**
+ * Árbol de prefijos (trie) para búsquedas por prefijo y aproximadas.
+ * Cada nodo guarda sus hijos en arreglos ordenados por carácter, así los
+ * recorridos salen en orden lexicográfico y pueden cortarse apenas se
+ * reúnen k resultados.
+ * La búsqueda aproximada usa distancia de edición (Levenshtein) calculada
+ * fila por fila mientras se desciende, podando ramas que ya superan el límite.
+ *
+ * @param <V> tipo de valor asociado a cada clave (varios valores por clave)
+ */
+public class Trie<V> {
+    private static class Node<V> {
+        char[] chars = new char[0];
+        @SuppressWarnings("unchecked")
+        Node<V>[] kids = new Node[0];
+        int childCount;
+        LinkedList<V> values; // null si ninguna clave termina aquí
+
+        Node<V> child(char c) {
+            int i = indexOf(c);
+            return i >= 0 ? kids[i] : null;
+        }
+
+        int indexOf(char c) {
+            int lo = 0, hi = childCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (chars[mid] < c) lo = mid + 1;
+                else if (chars[mid] > c) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<V> addChild(char c) {
+            int i = indexOf(c);
+            if (i >= 0) return kids[i];
+            i = -i - 1;
+            if (childCount == chars.length) {
+                int cap = Math.max(2, chars.length * 2);
+                char[] nc = new char[cap];
+                Node<V>[] nk = new Node[cap];
+                System.arraycopy(chars, 0, nc, 0, childCount);
+                System.arraycopy(kids, 0, nk, 0, childCount);
+                chars = nc;
+                kids = nk;
+            }
+            System.arraycopy(chars, i, chars, i + 1, childCount - i);
+            System.arraycopy(kids, i, kids, i + 1, childCount - i);
+            Node<V> n = new Node<>();
+            chars[i] = c;
+            kids[i] = n;
+            childCount++;
+            return n;
+        }
+
+        void removeChild(char c) {
+            int i = indexOf(c);
+            if (i < 0) return;
+            System.arraycopy(chars, i + 1, chars, i, childCount - i - 1);
+            System.arraycopy(kids, i + 1, kids, i, childCount - i - 1);
+            childCount--;
+            kids[childCount] = null;
+        }
+    }
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /** @return cantidad de pares (clave, valor) almacenados */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Asocia un valor a la clave (una clave puede tener varios valores).
+     */
+    public void put(String key, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.addChild(key.charAt(i));
+        }
+        if (node.values == null) node.values = new LinkedList<>();
+        try {
+            node.values.add(0, value);
+        } catch (ItemDuplicated ignored) {
+            // LinkedList no valida duplicados
+        }
+        size++;
+    }
+
+    /**
+     * Quita un valor de la clave y poda los nodos que quedan vacíos.
+     * @return true si el valor estaba asociado a la clave
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(String key, V value) {
+        Node<V>[] path = new Node[key.length() + 1];
+        Node<V> node = root;
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) return false;
+            path[i + 1] = node;
+        }
+        if (node.values == null) return false;
+        try {
+            node.values.remove(value);
+        } catch (IsEmpty | ItemNotFound e) {
+            return false;
+        }
+        size--;
+        if (node.values.isEmpty()) node.values = null;
+        for (int i = key.length(); i > 0; i--) {
+            Node<V> n = path[i];
+            if (n.values != null || n.childCount > 0) break;
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+        return true;
+    }
+
+    /**
+     * Valores cuyas claves empiezan con el prefijo, en orden lexicográfico.
+     * El recorrido se detiene al reunir k resultados.
+     * @param k máximo de resultados
+     */
+    public LinkedList<V> prefix(String prefix, int k) {
+        LinkedList<V> out = new LinkedList<>();
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node != null && k > 0) collect(node, out, k);
+        return out;
+    }
+
+    /**
+     * Valores cuyas claves están a distancia de edición <= maxEdits de la consulta,
+     * ordenados por distancia (primero los exactos). Se recorre una pasada por
+     * cada distancia 0..maxEdits y se termina en cuanto hay k resultados, así
+     * las consultas con coincidencias cercanas no exploran las lejanas.
+     * @param k máximo de resultados
+     */
+    public LinkedList<V> fuzzy(String query, int maxEdits, int k) {
+        LinkedList<V> out = new LinkedList<>();
+        int[] first = new int[query.length() + 1];
+        for (int i = 0; i < first.length; i++) first[i] = i;
+        for (int d = 0; d <= maxEdits && out.size() < k; d++) {
+            if (root.values != null && d == query.length()) {
+                addAll(root.values, out, k); // la clave vacía está a distancia |query|
+            }
+            for (int c = 0; c < root.childCount && out.size() < k; c++) {
+                fuzzy(root.kids[c], root.chars[c], query, first, d, out, k);
+            }
+        }
+        return out;
+    }
+
+    private void fuzzy(Node<V> node, char c, String query, int[] prev, int d, LinkedList<V> out, int k) {
+        int cols = prev.length;
+        int[] row = new int[cols];
+        row[0] = prev[0] + 1;
+        int min = row[0];
+        for (int i = 1; i < cols; i++) {
+            int cost = query.charAt(i - 1) == c ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, prev[i] + 1), prev[i - 1] + cost);
+            if (row[i] < min) min = row[i];
+        }
+        // solo se aceptan coincidencias a distancia exacta d: las menores ya salieron antes
+        if (node.values != null && row[cols - 1] == d) addAll(node.values, out, k);
+        if (min > d) return;
+        for (int i = 0; i < node.childCount && out.size() < k; i++) {
+            fuzzy(node.kids[i], node.chars[i], query, row, d, out, k);
+        }
+    }
+
+    private void collect(Node<V> node, LinkedList<V> out, int k) {
+        if (node.values != null) addAll(node.values, out, k);
+        for (int i = 0; i < node.childCount && out.size() < k; i++) {
+            collect(node.kids[i], out, k);
+        }
+    }
+
+    // agrega sin repetir: un mismo valor puede colgar de varias claves
+    private void addAll(LinkedList<V> values, LinkedList<V> out, int k) {
+        for (int i = 0; i < values.size() && out.size() < k; i++) {
+            try {
+                V v = values.get(i);
+                if (out.indexOf(v) < 0) out.add(v);
+            } catch (IsEmpty | ItemNotFound ignored) {
+                // índice dentro del rango
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package tree;
+
+/**
+ * Callback para recorridos ordenados sin crear listas intermedias.
+ * @param <E> tipo de elemento visitado
+ */
+public interface Visitor<E> {
+    /**
+     * Procesa un elemento del recorrido.
+     * @param element elemento actual
+     * @return true para seguir, false para cortar el recorrido
+     */
+    boolean visit(E element);
+}
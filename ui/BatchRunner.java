@@ -0,0 +1,216 @@
+package ui;
+
+import exceptions.IsEmpty;
+import exceptions.ItemDuplicated;
+import exceptions.ItemNotFound;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import list.LinkedList;
+import modelo.Item;
+import sistema.InventorySystem;
+import sistema.LatencyHistogram;
+
+/**
+ * Modo por lotes de la consola: ejecuta un guion de comandos compactos, uno
+ * por línea, sin menú. Las líneas vacías y las que empiezan con '#' se
+ * ignoran y el nombre del comando no distingue mayúsculas:
+ * <pre>
+ * ADD código cantidad ubicación [nombre...]   alta de un ítem
+ * DEL código                                  baja
+ * GET código                                  consulta
+ * EDGE ubicaciónA ubicaciónB [peso|OFF]       abre (peso 1 por omisión) o cierra una ruta
+ * ROUTE origen destino                        ruta mínima
+ * </pre>
+ * Las líneas se leen y ejecutan en bloques de BATCH; la salida se acumula en
+ * un búfer y se vuelca al terminar cada bloque. Un comando que falla escribe
+ * "ERR línea N: motivo" y el guion sigue. Al final se imprime un resumen con
+ * el rendimiento y las latencias por comando.
+ */
+public class BatchRunner {
+    /** Líneas por bloque. */
+    public static final int BATCH = 1024;
+
+    private enum Command { ADD, DEL, GET, EDGE, ROUTE }
+
+    private final InventorySystem system;
+    private final PrintWriter out;
+    private final boolean quiet;
+    private final LatencyHistogram[] latency = new LatencyHistogram[Command.values().length];
+    private final String[] tokens = new String[3];
+    private int restStart;//posición de lo que sigue al último token leído por split
+    private long commands, errors;
+
+    /**
+     * @param system sistema sobre el que se ejecutan los comandos
+     * @param out salida (idealmente con búfer; se vacía por bloque)
+     * @param quiet true para escribir solo los errores y el resumen
+     */
+    public BatchRunner(InventorySystem system, PrintWriter out, boolean quiet) {
+        this.system = system;
+        this.out = out;
+        this.quiet = quiet;
+        for (int i = 0; i < latency.length; i++) latency[i] = new LatencyHistogram();
+    }
+
+    /**
+     * Ejecuta todos los comandos de la entrada y escribe el resumen.
+     * @throws IOException si falla la lectura
+     */
+    public void run(BufferedReader in) throws IOException {
+        String[] block = new String[BATCH];
+        long lineNumber = 0;
+        long start = System.nanoTime();
+        while (true) {
+            int count = 0;
+            String line;
+            while (count < BATCH && (line = in.readLine()) != null) block[count++] = line;
+            for (int i = 0; i < count; i++) execute(block[i], ++lineNumber);
+            out.flush();
+            if (count < BATCH) break;
+        }
+        summary(System.nanoTime() - start);
+        out.flush();
+    }
+
+    /** @return comandos ejecutados (sin contar comentarios ni líneas vacías) */
+    public long getCommands() {
+        return commands;
+    }
+
+    /** @return comandos que fallaron */
+    public long getErrors() {
+        return errors;
+    }
+
+    private void execute(String line, long lineNumber) {
+        int from = skipSpaces(line, 0);
+        if (from == line.length() || line.charAt(from) == '#') return;
+        int end = nextSpace(line, from);
+        Command command = parseCommand(line, from, end);
+        commands++;
+        if (command == null) {
+            error(lineNumber, "comando desconocido: " + line.substring(from, end));
+            return;
+        }
+        long t0 = System.nanoTime();
+        try {
+            String result = run(command, line, end);
+            latency[command.ordinal()].record(System.nanoTime() - t0);
+            if (!quiet) out.println(result);
+        } catch (ItemNotFound | ItemDuplicated | IsEmpty | RuntimeException e) {
+            latency[command.ordinal()].record(System.nanoTime() - t0);
+            error(lineNumber, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private String run(Command command, String line, int pos) throws ItemNotFound, ItemDuplicated, IsEmpty {
+        switch (command) {
+            case ADD: {
+                split(line, pos, 3, 3, true);
+                int quantity = number(tokens[1], "cantidad");
+                String name = line.substring(restStart).trim();
+                if (name.isEmpty()) name = null;
+                system.addItem(new Item(tokens[0], name, quantity, tokens[2]));
+                return "OK";
+            }
+            case DEL:
+                split(line, pos, 1, 1, false);
+                system.removeItem(tokens[0]);
+                return "OK";
+            case GET:
+                split(line, pos, 1, 1, false);
+                return system.getItem(tokens[0]).toString();
+            case EDGE: {
+                int n = split(line, pos, 2, 3, false);
+                boolean close = n == 3 && tokens[2].equalsIgnoreCase("OFF");
+                double weight = 1.0;
+                if (n == 3 && !close) {
+                    try {
+                        weight = Double.parseDouble(tokens[2]);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("peso inválido: " + tokens[2]);
+                    }
+                }
+                system.setEdge(tokens[0], tokens[1], !close, weight);
+                return "OK";
+            }
+            default: {
+                split(line, pos, 2, 2, false);
+                LinkedList<String> route = system.findRoute(tokens[0], tokens[1]);
+                StringBuilder sb = new StringBuilder();
+                for (Object step : route.toArray()) {
+                    if (sb.length() > 0) sb.append(" -> ");
+                    sb.append(step);
+                }
+                return sb.toString();
+            }
+        }
+    }
+
+    /**
+     * Separa entre min y max argumentos en tokens, sin expresiones regulares.
+     * @param rest true si lo que sigue se toma aparte (desde restStart)
+     * @return cantidad de argumentos leídos
+     */
+    private int split(String line, int pos, int min, int max, boolean rest) {
+        int n = 0;
+        while (n < max) {
+            int from = skipSpaces(line, pos);
+            if (from == line.length()) break;
+            pos = nextSpace(line, from);
+            tokens[n++] = line.substring(from, pos);
+        }
+        if (n < min) throw new IllegalArgumentException("faltan argumentos (se esperaban " + min + ")");
+        if (!rest && skipSpaces(line, pos) != line.length()) throw new IllegalArgumentException("sobran argumentos");
+        restStart = pos;
+        return n;
+    }
+
+    private static int number(String token, String what) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " no entera: " + token);
+        }
+    }
+
+    private void error(long lineNumber, String message) {
+        errors++;
+        out.print("ERR línea ");
+        out.print(lineNumber);
+        out.print(": ");
+        out.println(message);
+    }
+
+    private void summary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.println("--- Resumen ---");
+        out.printf("comandos=%d correctos=%d errores=%d tiempo=%.3fs rendimiento=%.0f cmd/s%n",
+                   commands, commands - errors, errors, seconds, seconds > 0 ? commands / seconds : 0);
+        for (Command command : Command.values()) {
+            double[] s = latency[command.ordinal()].summary(50, 99);
+            if (s[0] == 0) continue;
+            out.printf("%-5s n=%d media=%.1fus p50=%.1fus p99=%.1fus max=%.1fus%n",
+                       command, (long) s[0], s[1] / 1e3, s[3] / 1e3, s[4] / 1e3, s[2] / 1e3);
+        }
+    }
+
+    private static Command parseCommand(String line, int from, int end) {
+        for (Command command : Command.values()) {
+            String name = command.name();
+            if (end - from == name.length() && line.regionMatches(true, from, name, 0, name.length())) return command;
+        }
+        return null;
+    }
+
+    private static int skipSpaces(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) pos++;
+        return pos;
+    }
+
+    private static int nextSpace(String line, int pos) {
+        while (pos < line.length() && !Character.isWhitespace(line.charAt(pos))) pos++;
+        return pos;
+    }
+}
@@ -2,13 +2,44 @@ package ui;
 import exceptions.IsEmpty;
 import exceptions.ItemDuplicated;
 import exceptions.ItemNotFound;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import modelo.Item;
+import server.InventoryServer;
 import sistema.InventorySystem;
 
+/**
+ * Consola del almacén. Sin argumentos muestra el menú interactivo; con
+ * "--batch [archivo] [--quiet]" ejecuta un guion de comandos (del archivo o
+ * de la entrada estándar) con BatchRunner y con "--serve [puerto]" expone el
+ * sistema como servicio HTTP/JSON (InventoryServer) hasta que se detenga el proceso.
+ */
 public class ConsoleMain {
-    public static void main(String[] args) throws ItemDuplicated, IsEmpty, ItemNotFound {
+    public static void main(String[] args) throws ItemDuplicated, IOException, InterruptedException {
         InventorySystem system = new InventorySystem();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(system, args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {//ver InventoryServer: sin esto ~40 ms por respuesta
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            InventoryServer server = new InventoryServer(system, args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Escuchando en http://localhost:" + server.getPort());
+            Thread.currentThread().join();//hasta que se detenga el proceso
+        }
         Scanner scanner = new Scanner(System.in);
         while (true) {
             System.out.println("\n====== MENU ALMACEN ======");
@@ -22,58 +53,84 @@ public class ConsoleMain {
             System.out.println("8. Salir");
             System.out.print("Seleccione una opción: ");
             System.out.println("\n============================");
+            if (!scanner.hasNextLine()) return;//fin de la entrada
             String opt = scanner.nextLine();
-            switch (opt) {
-                case "1" -> {
-                    System.out.print("Código: ");
-                    String code = scanner.nextLine();
-                    System.out.print("Nombre: ");
-                    String name = scanner.nextLine();
-                    System.out.print("Cantidad: ");
-                    int qty = Integer.parseInt(scanner.nextLine());
-                    System.out.print("Ubicación: ");
-                    String loc = scanner.nextLine();
-                    Item item = new Item(code, name, qty, loc);
-                    system.addItem(item);
-                    System.out.println("Ítem agregado.");
-                }
-                case "2" -> {
-                    System.out.print("Código a eliminar: ");
-                    String code = scanner.nextLine();
-                    boolean removed = system.removeItem(code);
-                    System.out.println(removed?"Ítem eliminado":"Ítem no encontrado");
-                }
-                case "3" -> {
-                    System.out.print("Código a buscar: ");
-                    String code = scanner.nextLine();
-                    Item item = system.getItem(code);
-                    System.out.println(item!=null?"Ítem: "+item:"No existe");
-                }
-                case "4" -> {
-                    System.out.println("B+ Tree:");
-                    system.displayTree();
-                }
-                case "5" -> {
-                    System.out.println("Grafo de ubicaciones:");
-                    system.displayGraph();
-                }
-                case "6" -> {
-                    System.out.print("Cerrar ruta (A-B) o vacío: ");
-                    String edge = scanner.nextLine();
-                    if (!edge.isEmpty()) system.toggleEdge(edge,false);
-                    system.simulate();
-                }
-                case "7" -> {
-                    System.out.println("AVL:");
-                    system.displayAVL();
-                }
-                case "8" -> {
-                    System.out.println("Saliendo...");
-                    scanner.close();
-                    return;
-                }
-                default -> System.out.println("Opción inválida.");
+            try {
+                if (!runOption(system, scanner, opt)) return;
+            } catch (IsEmpty | ItemNotFound | ItemDuplicated | IllegalArgumentException e) {
+                System.out.println("Error: " + e.getMessage());//la opción falla, el menú sigue
+            }
+        }
+    }
+
+    //@return false si hay que salir
+    private static boolean runOption(InventorySystem system, Scanner scanner, String opt) throws IsEmpty, ItemNotFound, ItemDuplicated {
+        switch (opt) {
+            case "1" -> {
+                System.out.print("Código: ");
+                String code = scanner.nextLine();
+                System.out.print("Nombre: ");
+                String name = scanner.nextLine();
+                System.out.print("Cantidad: ");
+                int qty = Integer.parseInt(scanner.nextLine());
+                System.out.print("Ubicación: ");
+                String loc = scanner.nextLine();
+                Item item = new Item(code, name, qty, loc);
+                system.addItem(item);
+                System.out.println("Ítem agregado.");
+            }
+            case "2" -> {
+                System.out.print("Código a eliminar: ");
+                String code = scanner.nextLine();
+                boolean removed = system.removeItem(code);
+                System.out.println(removed?"Ítem eliminado":"Ítem no encontrado");
+            }
+            case "3" -> {
+                System.out.print("Código a buscar: ");
+                String code = scanner.nextLine();
+                Item item = system.getItem(code);
+                System.out.println(item!=null?"Ítem: "+item:"No existe");
             }
+            case "4" -> {
+                System.out.println("B+ Tree:");
+                system.displayTree();
+            }
+            case "5" -> {
+                System.out.println("Grafo de ubicaciones:");
+                system.displayGraph();
+            }
+            case "6" -> {
+                System.out.print("Cerrar ruta (A-B) o vacío: ");
+                String edge = scanner.nextLine();
+                if (!edge.isEmpty()) system.toggleEdge(edge,false);
+                system.simulate();
+            }
+            case "7" -> {
+                System.out.println("AVL:");
+                system.displayAVL();
+            }
+            case "8" -> {
+                System.out.println("Saliendo...");
+                scanner.close();
+                return false;
+            }
+            default -> System.out.println("Opción inválida.");
+        }
+        return true;
+    }
+
+    private static void runBatch(InventorySystem system, String[] args) throws IOException {
+        String file = null;
+        boolean quiet = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--quiet")) quiet = true;
+            else file = args[i];
+        }
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16), false);
+        Reader source = file == null ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                                     : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+        try (BufferedReader in = new BufferedReader(source, 1 << 16)) {
+            new BatchRunner(system, out, quiet).run(in);
         }
     }
 }
\ No newline at end of file